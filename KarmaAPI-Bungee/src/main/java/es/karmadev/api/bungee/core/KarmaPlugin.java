@@ -184,10 +184,10 @@ public abstract class KarmaPlugin extends Plugin implements APISource {
     @Override
     public final void loadIdentifier(final String name) {
         JsonDatabase database = (JsonDatabase) DatabaseManager.getEngine("json").orElse(new JsonDatabase());
-        JsonConnection connection = database.grabConnection("identifiers");
-
-        String stored = connection.getString(name);
-        if (stored != null) pluginIdentifier = stored;
+        try (JsonConnection connection = database.grabConnection("identifiers")) {
+            String stored = connection.getString(name);
+            if (stored != null) pluginIdentifier = stored;
+        }
     }
 
     /**
@@ -198,20 +198,20 @@ public abstract class KarmaPlugin extends Plugin implements APISource {
     @Override
     public final void saveIdentifier(final String name) {
         JsonDatabase database = (JsonDatabase) DatabaseManager.getEngine("json").orElse(new JsonDatabase());
-        JsonConnection connection = database.grabConnection("identifiers");
+        try (JsonConnection connection = database.grabConnection("identifiers")) {
+            String stored = connection.getString(name);
+            if (stored != null) {
+                pluginIdentifier = stored;
+                return;
+            }
 
-        String stored = connection.getString(name);
-        if (stored != null) {
-            pluginIdentifier = stored;
-            return;
-        }
+            if (ObjectUtils.isNullOrEmpty(pluginIdentifier)) {
+                pluginIdentifier = StringUtils.generateSplit(18, '\0');
+            }
 
-        if (ObjectUtils.isNullOrEmpty(pluginIdentifier)) {
-            pluginIdentifier = StringUtils.generateSplit(18, '\0');
+            connection.set(name, pluginIdentifier);
+            connection.save();
         }
-
-        connection.set(name, pluginIdentifier);
-        connection.save();
     }
 
     /**
@@ -306,10 +306,10 @@ public final class KarmaKore extends KarmaSource {
     @Override
     public void loadIdentifier(final String name) {
         JsonDatabase database = (JsonDatabase) DatabaseManager.getEngine("json").orElse(new JsonDatabase());
-        JsonConnection connection = database.grabConnection("identifiers");
-
-        String stored = connection.getString(name);
-        if (stored != null) koreIdentifier = stored;
+        try (JsonConnection connection = database.grabConnection("identifiers")) {
+            String stored = connection.getString(name);
+            if (stored != null) koreIdentifier = stored;
+        }
     }
 
     /**
@@ -320,19 +320,19 @@ public final class KarmaKore extends KarmaSource {
     @Override
     public void saveIdentifier(final String name) {
         JsonDatabase database = (JsonDatabase) DatabaseManager.getEngine("json").orElse(new JsonDatabase());
-        JsonConnection connection = database.grabConnection("identifiers");
+        try (JsonConnection connection = database.grabConnection("identifiers")) {
+            String stored = connection.getString(name);
+            if (stored != null) {
+                koreIdentifier = stored;
+                return;
+            }
 
-        String stored = connection.getString(name);
-        if (stored != null) {
-            koreIdentifier = stored;
-            return;
-        }
+            if (ObjectUtils.isNullOrEmpty(koreIdentifier)) {
+                koreIdentifier = StringUtils.generateSplit(18, '\0');
+            }
 
-        if (ObjectUtils.isNullOrEmpty(koreIdentifier)) {
-            koreIdentifier = StringUtils.generateSplit(18, '\0');
+            connection.set(name, koreIdentifier);
+            connection.save();
         }
-
-        connection.set(name, koreIdentifier);
-        connection.save();
     }
 }
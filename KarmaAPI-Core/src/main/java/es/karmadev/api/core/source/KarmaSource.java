@@ -9,8 +9,10 @@ import es.karmadev.api.file.util.StreamUtils;
 import es.karmadev.api.logger.LogManager;
 import es.karmadev.api.logger.SourceLogger;
 import es.karmadev.api.object.ObjectUtils;
+import es.karmadev.api.schedule.task.SchedulerType;
 import es.karmadev.api.schedule.task.TaskScheduler;
 import es.karmadev.api.schedule.task.scheduler.BalancedScheduler;
+import es.karmadev.api.schedule.task.scheduler.VirtualThreadScheduler;
 import es.karmadev.api.strings.StringFilter;
 import es.karmadev.api.version.Version;
 import org.jetbrains.annotations.NotNull;
@@ -149,7 +151,30 @@ public abstract class KarmaSource implements APISource {
      * @return the created scheduler
      */
     public TaskScheduler createScheduler(final String name, final int capacity, final int simultaneous, final int perClass) {
-        return sourceSchedulers.computeIfAbsent(name.toLowerCase(), (s) -> new BalancedScheduler(capacity, this, simultaneous, perClass));
+        return createScheduler(name, SchedulerType.BALANCED, capacity, simultaneous, perClass);
+    }
+
+    /**
+     * Create a scheduler of the specified type for
+     * this source. Virtual thread schedulers fall back to
+     * balanced schedulers when the current java version does
+     * not support virtual threads
+     *
+     * @param name the scheduler name
+     * @param type the scheduler type
+     * @param capacity the scheduler capacity
+     * @param simultaneous the scheduler simultaneous tasks
+     * @param perClass the scheduler simultaneous tasks per class
+     * @return the created scheduler
+     */
+    public TaskScheduler createScheduler(final String name, final SchedulerType type, final int capacity, final int simultaneous, final int perClass) {
+        return sourceSchedulers.computeIfAbsent(name.toLowerCase(), (s) -> {
+            if (type == SchedulerType.VIRTUAL && VirtualThreadScheduler.isSupported()) {
+                return new VirtualThreadScheduler(capacity, this, simultaneous, perClass);
+            }
+
+            return new BalancedScheduler(capacity, this, simultaneous, perClass);
+        });
     }
 
     /**
@@ -0,0 +1,152 @@
+package es.karmadev.api.core.source.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Caller class resolver. The resolver finds the
+ * first class in the current stack which is not part of
+ * the java runtime nor of KarmaAPI.
+ * <p>
+ * On java 9 and newer the stack is walked lazily with a
+ * StackWalker, so only the frames up to the caller are
+ * inspected. Lambdas and anonymous classes declared outside
+ * KarmaAPI are always created at the same call site, so their
+ * caller is resolved only once and then remembered for their
+ * class. The ones declared by KarmaAPI are created on behalf of
+ * many callers, so they are always resolved
+ */
+@SuppressWarnings("unused")
+public final class CallerResolver {
+
+    private final static Object WALKER;
+    private final static Method WALK;
+    private final static Method DECLARING_CLASS;
+
+    private final static Map<String, Class<?>> CLASSES = new ConcurrentHashMap<>();
+    private final static ClassValue<AtomicReference<Class<?>>> CALL_SITES = new ClassValue<AtomicReference<Class<?>>>() {
+        @Override
+        protected AtomicReference<Class<?>> computeValue(final @NotNull Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    static {
+        Object walker = null;
+        Method walk = null;
+        Method declaringClass = null;
+        try {
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> optionClass = Class.forName("java.lang.StackWalker$Option");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+
+            Object retain = optionClass.getField("RETAIN_CLASS_REFERENCE").get(null);
+            walker = walkerClass.getMethod("getInstance", optionClass).invoke(null, retain);
+            walk = walkerClass.getMethod("walk", Function.class);
+            declaringClass = frameClass.getMethod("getDeclaringClass");
+        } catch (ReflectiveOperationException | SecurityException ignored) {
+            walker = null;
+        }
+
+        WALKER = walker;
+        WALK = walk;
+        DECLARING_CLASS = declaringClass;
+    }
+
+    private CallerResolver() {}
+
+    /**
+     * Resolve the class which is calling
+     * the current method
+     *
+     * @return the caller class, or null if the
+     * caller is not outside KarmaAPI
+     */
+    public static @Nullable Class<?> resolve() {
+        if (WALKER != null) {
+            try {
+                return (Class<?>) WALK.invoke(WALKER, (Function<Stream<Object>, Class<?>>) (frames) -> frames
+                        .map(CallerResolver::declaringClass)
+                        .filter((clazz) -> clazz != null && !isInternal(clazz.getName()))
+                        .findFirst()
+                        .orElse(null));
+            } catch (ReflectiveOperationException ignored) {}
+        }
+
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String name = element.getClassName();
+            if (isInternal(name)) continue;
+
+            Class<?> clazz = CLASSES.computeIfAbsent(name, CallerResolver::load);
+            if (clazz != CallerResolver.class) return clazz;
+        }
+
+        return null;
+    }
+
+    /**
+     * Resolve the class which is submitting the
+     * specified action. The caller of lambdas and
+     * anonymous classes declared outside KarmaAPI is
+     * cached per class once it has been resolved
+     *
+     * @param action the action
+     * @return the caller class, or null if the
+     * caller is not outside KarmaAPI
+     */
+    public static @Nullable Class<?> resolve(final @NotNull Object action) {
+        Class<?> type = action.getClass();
+        if ((!type.isSynthetic() && !type.isAnonymousClass()) || isInternal(type.getName())) {
+            return resolve();
+        }
+
+        AtomicReference<Class<?>> site = CALL_SITES.get(type);
+        Class<?> caller = site.get();
+        if (caller != null) return caller;
+
+        caller = resolve();
+        if (caller != null) site.set(caller);
+
+        return caller;
+    }
+
+    private static Class<?> declaringClass(final Object frame) {
+        try {
+            return (Class<?>) DECLARING_CLASS.invoke(frame);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Load a class for the java 8 fallback. Classes
+     * which cannot be loaded are resolved to this class
+     * so they are skipped
+     *
+     * @param name the class name
+     * @return the class
+     */
+    private static Class<?> load(final String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException | LinkageError ex) {
+            try {
+                return Class.forName(name);
+            } catch (ClassNotFoundException | LinkageError ignored) {}
+        }
+
+        return CallerResolver.class;
+    }
+
+    private static boolean isInternal(final String name) {
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("com.sun.") ||
+                name.startsWith("jdk.") || name.startsWith("es.karmadev.api.");
+    }
+}
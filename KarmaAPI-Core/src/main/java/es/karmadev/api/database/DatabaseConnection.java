@@ -1,11 +1,12 @@
 package es.karmadev.api.database;
 
 import es.karmadev.api.database.result.QueryResult;
+import es.karmadev.api.database.result.StreamingQueryResult;
 
 /**
  * KarmaAPI database connection
  */
-public interface DatabaseConnection {
+public interface DatabaseConnection extends AutoCloseable {
 
     /**
      * Return if the connection supports
@@ -22,4 +23,26 @@ public interface DatabaseConnection {
      * @return the query
      */
     QueryResult execute(final String query);
+
+    /**
+     * Execute a query, streaming its
+     * results instead of loading all of them. By
+     * default, the query is executed and its whole result
+     * is served through the stream; connections which can
+     * read their rows lazily should override this
+     *
+     * @param query the query to run
+     * @return the streaming query result
+     * @throws UnsupportedOperationException if the connection does not support queries
+     */
+    default StreamingQueryResult stream(final String query) throws UnsupportedOperationException {
+        return new StreamingQueryResult(execute(query));
+    }
+
+    /**
+     * Close the connection. Connections grabbed from
+     * a pool are returned to the pool instead
+     */
+    @Override
+    default void close() {}
 }
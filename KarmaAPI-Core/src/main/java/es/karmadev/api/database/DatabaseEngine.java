@@ -21,7 +21,8 @@ public interface DatabaseEngine {
 
     /**
      * Grab a connection from the engine
-     * connection pool (if any)
+     * connection pool (if any). Engines can be
+     * pooled by wrapping them in a {@link es.karmadev.api.database.pool.PooledDatabaseEngine}
      *
      * @param name the connection name
      * @return a database connection
@@ -3,8 +3,8 @@ package es.karmadev.api.database;
 import es.karmadev.api.database.exception.ProtectedEngineException;
 import es.karmadev.api.object.ObjectUtils;
 
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -12,7 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class DatabaseManager {
 
-    private final static Set<DatabaseEngine> engines = ConcurrentHashMap.newKeySet();
+    private final static Map<String, DatabaseEngine> engines = new ConcurrentHashMap<>();
 
     /**
      * Register a new database engine
@@ -27,15 +27,12 @@ public class DatabaseManager {
         String eName = engine.getName();
         ObjectUtils.assertNullOrEmpty(eName, "Cannot register null-named database engine");
 
-        Optional<DatabaseEngine> existingEngine = engines.stream().filter((dbEngine) -> dbEngine.getName().equals(eName)).findAny();
-        if (existingEngine.isPresent()) {
-            DatabaseEngine e1 = existingEngine.get();
-            if (e1.isProtected()) throw new ProtectedEngineException(e1, engine);
+        synchronized (engines) {
+            DatabaseEngine e1 = engines.get(eName);
+            if (e1 != null && e1.isProtected()) throw new ProtectedEngineException(e1, engine);
 
-            engines.remove(e1);
+            engines.put(eName, engine);
         }
-
-        engines.add(engine);
     }
 
     /**
@@ -45,7 +42,8 @@ public class DatabaseManager {
      * @return the engine
      */
     public static Optional<DatabaseEngine> getEngine(final String name) {
-        return engines.stream().filter((dbEngine) -> dbEngine.getName().equals(name)).findAny();
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(engines.get(name));
     }
 
     /**
@@ -54,11 +52,6 @@ public class DatabaseManager {
      * @return the engines
      */
     public static String[] getEngines() {
-        String[] names = new String[engines.size()];
-
-        int index = 0;
-        for (DatabaseEngine engine : engines) names[index++] = engine.getName();
-
-        return names;
+        return engines.keySet().toArray(new String[0]);
     }
 }
@@ -0,0 +1,21 @@
+package es.karmadev.api.database.exception;
+
+/**
+ * KarmaAPI exception
+ *
+ * This exception is thrown when a pooled
+ * engine cannot provide a connection before the
+ * acquire timeout expires
+ */
+public class ConnectionTimeoutException extends RuntimeException {
+
+    /**
+     * Initialize the exception
+     *
+     * @param name the connection name
+     * @param timeout the acquire timeout in milliseconds
+     */
+    public ConnectionTimeoutException(final String name, final long timeout) {
+        super("Cannot acquire connection " + name + " after " + timeout + "ms, the pool is exhausted");
+    }
+}
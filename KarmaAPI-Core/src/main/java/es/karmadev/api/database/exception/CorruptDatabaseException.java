@@ -0,0 +1,23 @@
+package es.karmadev.api.database.exception;
+
+import java.nio.file.Path;
+
+/**
+ * KarmaAPI exception
+ *
+ * This exception is thrown when a database
+ * file exists but cannot be read. The file is left
+ * untouched, so it can be recovered
+ */
+public class CorruptDatabaseException extends RuntimeException {
+
+    /**
+     * Initialize the exception
+     *
+     * @param file the database file
+     * @param cause the read error
+     */
+    public CorruptDatabaseException(final Path file, final Throwable cause) {
+        super("Cannot open database " + file + " because its file is corrupt or truncated", cause);
+    }
+}
@@ -1,18 +1,45 @@
 package es.karmadev.api.database.model;
 
+import es.karmadev.api.core.ExceptionCollector;
 import es.karmadev.api.core.KarmaKore;
 import es.karmadev.api.core.source.APISource;
 import es.karmadev.api.database.DatabaseEngine;
+import es.karmadev.api.database.exception.CorruptDatabaseException;
+import es.karmadev.api.database.model.json.AsyncJsonConnection;
 import es.karmadev.api.database.model.json.JsonConnection;
+import es.karmadev.api.database.model.json.JsonDocument;
+import es.karmadev.api.database.model.json.MappedJsonConnection;
+import es.karmadev.api.file.util.PathUtilities;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Json database model
  */
 public final class JsonDatabase implements DatabaseEngine {
 
+    private final static long EVICT_AFTER = TimeUnit.MINUTES.toMillis(5);
+    private final static long SWEEP_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private final static Map<Path, JsonDocument> documents = new ConcurrentHashMap<>();
+    private final static ScheduledExecutorService WORKER = Executors.newSingleThreadScheduledExecutor((task) -> {
+        Thread thread = new Thread(task, "KarmaAPI json database worker");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    static {
+        WORKER.scheduleWithFixedDelay(JsonDatabase::sweep, SWEEP_INTERVAL, SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Get if the engine is protected
      *
@@ -34,14 +61,96 @@ public final class JsonDatabase implements DatabaseEngine {
     }
 
     /**
-     * Grab a connection from the engine
-     * connection pool (if any)
+     * Grab a connection from the engine. All the
+     * connections to the same database file share the
+     * same in-memory document, which is only read from disk
+     * the first time it's requested. The document is released
+     * once the connection is closed or garbage collected, and
+     * evicted after a while without connections. Changes which
+     * were never saved are lost once the document gets evicted
      *
      * @param name the connection name
      * @return a database connection
      */
     @Override
     public JsonConnection grabConnection(final String name) {
+        return new JsonConnection(share(resolve(name)));
+    }
+
+    /**
+     * Get the shared document of a database
+     * file, and acquire a reference to it. The document
+     * is only read from disk the first time it's requested,
+     * and the reference must be released once the document
+     * is no longer used
+     *
+     * @param file the database file
+     * @return the shared document
+     * @throws CorruptDatabaseException if the database file
+     * cannot be read
+     */
+    public static JsonDocument share(final Path file) throws CorruptDatabaseException {
+        return documents.compute(file.toAbsolutePath().normalize(), (path, current) -> {
+            JsonDocument shared = (current != null ? current : JsonDocument.load(path));
+            shared.acquire();
+
+            return shared;
+        });
+    }
+
+    /**
+     * Grab an asynchronous connection from the
+     * engine. The database is loaded in the background,
+     * changes and saves of the connection run on the database
+     * writer thread, and reads are served from the latest
+     * database snapshot
+     *
+     * @param name the connection name
+     * @return an asynchronous database connection
+     */
+    public AsyncJsonConnection grabAsyncConnection(final String name) {
+        Path file = resolve(name);
+        return AsyncJsonConnection.open(() -> new JsonConnection(share(file)), WORKER);
+    }
+
+    /**
+     * Map a database file as a read-only connection. The
+     * file is memory-mapped and its top-level tables are only
+     * parsed when they are requested, which avoids reading
+     * big databases whole. The saved changes of the database
+     * are written to the file before mapping it, while the changes
+     * which were never saved are not visible to the connection.
+     * Files bigger than 2GB cannot be mapped
+     *
+     * @param name the connection name
+     * @return a read-only database connection, or null if
+     * the file cannot be mapped
+     */
+    public MappedJsonConnection mapConnection(final String name) {
+        Path file = resolve(name).toAbsolutePath().normalize();
+
+        Path journal = file.resolveSibling(file.getFileName() + ".journal");
+        if (documents.containsKey(file) || !Files.exists(file) || (Files.exists(journal) && PathUtilities.getSize(journal) > 0)) {
+            JsonDocument shared = share(file);
+            shared.compactSaved();
+            shared.release();
+        }
+
+        try {
+            return MappedJsonConnection.open(file);
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonDatabase.class, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the file of a connection
+     *
+     * @param name the connection name
+     * @return the connection file
+     */
+    private static Path resolve(final String name) {
         APISource source = KarmaKore.INSTANCE();
         if (source == null) throw new IllegalStateException("Cannot grab a json connection without the main kore");
 
@@ -66,6 +175,50 @@ public final class JsonDatabase implements DatabaseEngine {
             }
         }
 
-        return new JsonConnection(file, null, null);
+        return file;
+    }
+
+    /**
+     * Evict all the documents which are no
+     * longer referenced by any connection, including
+     * the ones of dropped connections. Changes
+     * on those documents which were never saved are
+     * discarded, as if the connections were dropped
+     * without saving
+     */
+    public void evictUnused() {
+        JsonDocument.releaseDropped();
+        evict(0);
+    }
+
+    /**
+     * Release the documents of the dropped
+     * connections, and evict the documents which
+     * have been idle for too long
+     */
+    private static void sweep() {
+        try {
+            JsonDocument.releaseDropped();
+            evict(EVICT_AFTER);
+        } catch (Throwable ex) {
+            ExceptionCollector.catchException(JsonDatabase.class, ex);
+        }
+    }
+
+    /**
+     * Evict the documents which have not been
+     * referenced for the specified time
+     *
+     * @param idle the minimum idle time in milliseconds
+     */
+    private static void evict(final long idle) {
+        for (Path path : documents.keySet()) {
+            documents.computeIfPresent(path, (key, document) -> {
+                if (document.references() > 0 || document.idleTime() < idle) return document;
+
+                document.discard();
+                return null;
+            });
+        }
     }
 }
@@ -0,0 +1,454 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.kson.JsonObject;
+import es.karmadev.api.schedule.task.completable.late.LateTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * KarmaAPI asynchronous json connection. Changes
+ * and saves of a database run in order on its writer
+ * thread, so the caller never blocks on disk. Reads never
+ * wait for the writer either, as they are served from the
+ * latest immutable snapshot of the database. A connection
+ * may also be opened in the background, in which case its
+ * operations wait until the database has been loaded.
+ * <p>
+ * The task of a change completes once the change is visible
+ * in the snapshot, so reading after the task completion always
+ * sees the change. Task callbacks run on the writer thread and
+ * should be short. Changes made by the synchronous connections of
+ * the same database are published too, once the writer is idle
+ */
+@SuppressWarnings("unused")
+public class AsyncJsonConnection implements AutoCloseable {
+
+    private final boolean owner;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Object openLock = new Object();
+
+    private volatile JsonConnection connection;
+    private volatile JsonWriter writer;
+    private volatile Throwable openError;
+    private volatile List<Runnable> waiting;
+
+    /**
+     * Initialize the asynchronous connection
+     *
+     * @param connection the connection to wrap
+     * @throws IllegalArgumentException if the connection cannot be
+     * addressed from the database root
+     */
+    public AsyncJsonConnection(final @NotNull JsonConnection connection) throws IllegalArgumentException {
+        this(connection, null);
+    }
+
+    /**
+     * Initialize the asynchronous connection
+     *
+     * @param connection the connection to wrap
+     * @param writer the writer of the parent connection, or
+     *               null to acquire the document writer
+     * @throws IllegalArgumentException if the connection cannot be
+     * addressed from the database root
+     */
+    private AsyncJsonConnection(final JsonConnection connection, final JsonWriter writer) throws IllegalArgumentException {
+        if (connection.path == null) throw new IllegalArgumentException("Cannot create an asynchronous connection for a table which is not addressable from the database root");
+
+        this.connection = connection;
+        this.owner = writer == null;
+        this.writer = (writer != null ? writer : connection.document.acquireWriter());
+    }
+
+    /**
+     * Initialize the asynchronous connection
+     * without a connection. The connection must be
+     * provided through {@link #open(JsonConnection, Throwable)}
+     */
+    private AsyncJsonConnection() {
+        this.owner = true;
+        this.waiting = new ArrayList<>();
+    }
+
+    /**
+     * Open an asynchronous connection in the
+     * background. The operations requested before the
+     * connection is open wait for it, in order
+     *
+     * @param opener the connection opener
+     * @param executor the executor to open the connection in
+     * @return the asynchronous connection
+     */
+    public static AsyncJsonConnection open(final @NotNull Callable<JsonConnection> opener, final @NotNull Executor executor) {
+        AsyncJsonConnection async = new AsyncJsonConnection();
+        try {
+            executor.execute(() -> {
+                try {
+                    async.open(opener.call(), null);
+                } catch (Throwable ex) {
+                    async.open(null, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            async.open(null, ex);
+        }
+
+        return async;
+    }
+
+    /**
+     * Provide the connection, and run the
+     * operations which were waiting for it
+     *
+     * @param connection the connection, or null if
+     *                   it could not be opened
+     * @param error the open error
+     */
+    private void open(final JsonConnection connection, final Throwable error) {
+        synchronized (openLock) {
+            if (connection != null && connection.path != null) {
+                this.connection = connection;
+                this.writer = connection.document.acquireWriter();
+            } else {
+                this.openError = (error != null ? error : new IllegalArgumentException("Cannot create an asynchronous connection for a table which is not addressable from the database root"));
+                if (connection != null) connection.close();
+            }
+
+            for (Runnable operation : waiting) operation.run();
+            waiting = null;
+        }
+    }
+
+    /**
+     * Run an operation once the connection
+     * is open
+     *
+     * @param operation the operation
+     */
+    private void whenOpen(final Runnable operation) {
+        if (waiting != null) {
+            synchronized (openLock) {
+                if (waiting != null) {
+                    waiting.add(operation);
+                    return;
+                }
+            }
+        }
+
+        operation.run();
+    }
+
+    /**
+     * Get the connection snapshot. The snapshot
+     * is a read-only view of the latest published
+     * state of the connection
+     *
+     * @return the connection snapshot, or null if the
+     * connection table no longer exists, or there's no
+     * snapshot yet
+     */
+    public @Nullable MappedJsonConnection snapshot() {
+        JsonWriter current = writer;
+        if (current == null) return null;
+
+        return view(current.snapshot());
+    }
+
+    /**
+     * Read from the connection snapshot. The
+     * task is completed immediately if a snapshot
+     * exists, otherwise it's completed once the first
+     * snapshot has been taken
+     *
+     * @param reader the snapshot reader
+     * @return the read task
+     * @param <T> the read result type
+     */
+    public <T> LateTask<T> read(final Function<MappedJsonConnection, T> reader) {
+        LateTask<T> task = new LateTask<>();
+        whenOpen(() -> {
+            if (openError != null) {
+                task.complete(null, openError);
+                return;
+            }
+
+            writer.ready().onComplete(() -> {
+                MappedJsonConnection snapshot = view(writer.snapshot());
+                if (snapshot == null) {
+                    task.complete(null, new IllegalStateException("Cannot read table " + connection.table + " because it does not exist"));
+                    return;
+                }
+
+                try {
+                    task.complete(reader.apply(snapshot));
+                } catch (RuntimeException ex) {
+                    task.complete(null, ex);
+                }
+            });
+        });
+
+        return task;
+    }
+
+    /**
+     * Run an operation on the writer thread. The
+     * operation receives the wrapped connection, and can
+     * perform any number of changes in one step
+     *
+     * @param operation the operation
+     * @return the operation task
+     * @param <T> the operation result type
+     */
+    public <T> LateTask<T> write(final Function<JsonConnection, T> operation) {
+        return submit(operation, true);
+    }
+
+    /**
+     * Get a string
+     *
+     * @param key the string key
+     * @return the string task
+     */
+    public LateTask<String> getString(final String key) {
+        return read((snapshot) -> snapshot.getString(key));
+    }
+
+    /**
+     * Get a number
+     *
+     * @param key the number key
+     * @return the number task
+     */
+    public LateTask<Number> getNumber(final String key) {
+        return read((snapshot) -> snapshot.getNumber(key));
+    }
+
+    /**
+     * Get a boolean
+     *
+     * @param key the boolean key
+     * @return the boolean task
+     */
+    public LateTask<Boolean> getBoolean(final String key) {
+        return read((snapshot) -> snapshot.getBoolean(key));
+    }
+
+    /**
+     * Get a list of strings
+     *
+     * @param key the list key
+     * @return the list task
+     */
+    public LateTask<List<String>> getStringList(final String key) {
+        return read((snapshot) -> snapshot.getStringList(key));
+    }
+
+    /**
+     * Get a list of numbers
+     *
+     * @param key the list key
+     * @return the list task
+     */
+    public LateTask<List<Number>> getNumberList(final String key) {
+        return read((snapshot) -> snapshot.getNumberList(key));
+    }
+
+    /**
+     * Get a list of booleans
+     *
+     * @param key the list key
+     * @return the list task
+     */
+    public LateTask<List<Boolean>> getBooleanList(final String key) {
+        return read((snapshot) -> snapshot.getBooleanList(key));
+    }
+
+    /**
+     * Get if the key is set
+     *
+     * @param key the key
+     * @return the set status task
+     */
+    public LateTask<Boolean> isSet(final String key) {
+        return read((snapshot) -> snapshot.isSet(key));
+    }
+
+    /**
+     * Set a map value
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> set(final String key, final Map<String, Object> value) {
+        return change((database) -> database.set(key, value));
+    }
+
+    /**
+     * Set a string value
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> set(final String key, final String value) {
+        return change((database) -> database.set(key, value));
+    }
+
+    /**
+     * Set a number value
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> set(final String key, final Number value) {
+        return change((database) -> database.set(key, value));
+    }
+
+    /**
+     * Set a boolean value
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> set(final String key, final Boolean value) {
+        return change((database) -> database.set(key, value));
+    }
+
+    /**
+     * Set a list of strings
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> setStringList(final String key, final List<String> value) {
+        return change((database) -> database.setStringList(key, value));
+    }
+
+    /**
+     * Set a list of numbers
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> setNumberList(final String key, final List<Number> value) {
+        return change((database) -> database.setNumberList(key, value));
+    }
+
+    /**
+     * Set a list of booleans
+     *
+     * @param key the key
+     * @param value the value
+     * @return the change task
+     */
+    public LateTask<Void> setBooleanList(final String key, final List<Boolean> value) {
+        return change((database) -> database.setBooleanList(key, value));
+    }
+
+    /**
+     * Create a table
+     *
+     * @param name the table name
+     * @return the table connection task
+     */
+    public LateTask<AsyncJsonConnection> createTable(final String name) {
+        return submit((database) -> new AsyncJsonConnection(database.createTable(name), writer), true);
+    }
+
+    /**
+     * Remove a table
+     *
+     * @param name the table name
+     * @return the change task
+     */
+    public LateTask<Void> removeTable(final String name) {
+        return change((database) -> database.removeTable(name));
+    }
+
+    /**
+     * Save all the changes into the local
+     * database. The save runs after all the
+     * changes which were requested before it
+     *
+     * @return the save task
+     */
+    public LateTask<Boolean> save() {
+        return submit(JsonConnection::save, false);
+    }
+
+    /**
+     * Close the connection. The wrapped connection
+     * is closed once all the pending operations have
+     * run. Closing a table connection does nothing
+     */
+    @Override
+    public void close() {
+        if (!owner || !closed.compareAndSet(false, true)) return;
+
+        whenOpen(() -> {
+            if (openError != null) return;
+
+            writer.submit(() -> {
+                connection.close();
+                return null;
+            }, false, new LateTask<>());
+            connection.document.releaseWriter();
+        });
+    }
+
+    private LateTask<Void> change(final Consumer<JsonConnection> change) {
+        return submit((database) -> {
+            change.accept(database);
+            return null;
+        }, true);
+    }
+
+    private <T> LateTask<T> submit(final Function<JsonConnection, T> action, final boolean mutates) {
+        LateTask<T> task = new LateTask<>();
+        whenOpen(() -> {
+            if (openError != null) {
+                task.complete(null, openError);
+                return;
+            }
+
+            writer.submit(() -> action.apply(connection), mutates, task);
+        });
+
+        return task;
+    }
+
+    /**
+     * Get the view of the connection table
+     * in a snapshot
+     *
+     * @param root the snapshot root
+     * @return the table view, or null if it
+     * does not exist
+     */
+    private MappedJsonConnection view(final JsonObject root) {
+        if (root == null) return null;
+
+        MappedJsonConnection current = new MappedJsonConnection(null, null, root);
+        for (String table : connection.path) {
+            current = current.getTable(table);
+            if (current == null) return null;
+        }
+
+        return current;
+    }
+}
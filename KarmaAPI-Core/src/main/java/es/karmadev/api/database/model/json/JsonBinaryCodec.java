@@ -0,0 +1,461 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.kson.JsonArray;
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonNative;
+import es.karmadev.api.kson.JsonObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary encoding of a json document. The encoding
+ * starts with a header and a dictionary of the strings
+ * which are repeated across the document (such as the
+ * object keys), followed by the root object. Every node
+ * is prefixed by its type tag, and every object, array and
+ * string by its length
+ */
+final class JsonBinaryCodec {
+
+    private final static byte[] MAGIC = {'K', 'J', 'D', 'B'};
+    private final static int VERSION = 1;
+
+    private final static int TAG_OBJECT = 1;
+    private final static int TAG_ARRAY = 2;
+    private final static int TAG_STRING = 3;
+    private final static int TAG_STRING_REF = 4;
+    private final static int TAG_LONG = 5;
+    private final static int TAG_FLOAT = 6;
+    private final static int TAG_DOUBLE = 7;
+    private final static int TAG_TRUE = 8;
+    private final static int TAG_FALSE = 9;
+    private final static int TAG_BIG_INTEGER = 10;
+    private final static int TAG_BIG_DECIMAL = 11;
+
+    private JsonBinaryCodec() {}
+
+    /**
+     * Get if the data is a binary document
+     *
+     * @param data the data
+     * @return if the data is binary encoded
+     */
+    static boolean isBinary(final byte[] data) {
+        if (data.length < MAGIC.length + 1) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Encode a document
+     *
+     * @param root the document root
+     * @return the encoded document
+     */
+    static byte[] encode(final JsonObject root) {
+        Map<String, Integer> counts = new HashMap<>();
+        count(root, counts);
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 1) dictionary.put(entry.getKey(), dictionary.size());
+        }
+
+        Output output = new Output();
+        output.write(MAGIC, 0, MAGIC.length);
+        output.write(VERSION);
+
+        output.writeVarInt(dictionary.size());
+        for (String string : dictionary.keySet()) output.writeString(string);
+
+        writeObject(output, root, dictionary);
+        return output.toByteArray();
+    }
+
+    /**
+     * Decode a document
+     *
+     * @param data the encoded document
+     * @return the document root
+     * @throws IOException if the data is not a valid document
+     */
+    static JsonObject decode(final byte[] data) throws IOException {
+        if (!isBinary(data)) throw new IOException("Invalid binary json document header");
+        if (data[MAGIC.length] != VERSION) throw new IOException("Unsupported binary json document version " + data[MAGIC.length]);
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            String[] dictionary = readDictionary(buffer);
+            if (buffer.get() != TAG_OBJECT) throw new IOException("Invalid binary json document root");
+
+            JsonObject root = JsonObject.newObject("", null);
+            readObject(buffer, root, dictionary);
+
+            return root;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("Truncated binary json document", ex);
+        }
+    }
+
+    private static void count(final JsonInstance element, final Map<String, Integer> counts) {
+        if (element.isObjectType()) {
+            JsonObject object = element.asObject();
+            for (String key : object.getKeys(false)) {
+                counts.merge(key, 2, Integer::sum); //Keys are always part of the dictionary
+                count(object.getChild(key), counts);
+            }
+            return;
+        }
+        if (element.isArrayType()) {
+            for (JsonInstance child : element.asArray()) count(child, counts);
+            return;
+        }
+
+        JsonNative primitive = element.asNative();
+        if (primitive.isString()) counts.merge(primitive.getAsString(), 1, Integer::sum);
+    }
+
+    private static void writeObject(final Output output, final JsonObject object, final Map<String, Integer> dictionary) {
+        Collection<String> keys = object.getKeys(false);
+
+        output.write(TAG_OBJECT);
+        output.writeVarInt(keys.size());
+        for (String key : keys) {
+            output.writeVarInt(dictionary.get(key));
+            writeElement(output, object.getChild(key), dictionary);
+        }
+    }
+
+    private static void writeElement(final Output output, final JsonInstance element, final Map<String, Integer> dictionary) {
+        if (element.isObjectType()) {
+            writeObject(output, element.asObject(), dictionary);
+            return;
+        }
+        if (element.isArrayType()) {
+            JsonArray array = element.asArray();
+
+            output.write(TAG_ARRAY);
+            output.writeVarInt(array.size());
+            for (JsonInstance child : array) writeElement(output, child, dictionary);
+            return;
+        }
+
+        JsonNative primitive = element.asNative();
+        if (primitive.isBoolean()) {
+            output.write(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            return;
+        }
+
+        if (primitive.isNumber()) {
+            Number number = primitive.getAsNumber();
+            if (number instanceof Byte || number instanceof Short || number instanceof Integer || number instanceof Long ||
+                    (number instanceof BigInteger && ((BigInteger) number).bitLength() < 64)) {
+                output.write(TAG_LONG);
+                output.writeVarLong(zigZag(number.longValue()));
+            } else if (number instanceof BigInteger) {
+                output.write(TAG_BIG_INTEGER);
+                output.writeString(number.toString());
+            } else if (number instanceof BigDecimal) {
+                output.write(TAG_BIG_DECIMAL);
+                output.writeString(number.toString()); //Keeps the unscaled value and the scale
+            } else if (number instanceof Float) {
+                output.write(TAG_FLOAT);
+                output.writeInt(Float.floatToIntBits(number.floatValue()));
+            } else {
+                output.write(TAG_DOUBLE);
+                output.writeLong(Double.doubleToLongBits(number.doubleValue()));
+            }
+            return;
+        }
+
+        String string = primitive.getAsString();
+        Integer reference = dictionary.get(string);
+        if (reference != null) {
+            output.write(TAG_STRING_REF);
+            output.writeVarInt(reference);
+        } else {
+            output.write(TAG_STRING);
+            output.writeString(string);
+        }
+    }
+
+    private static void readObject(final ByteBuffer buffer, final JsonObject object, final String[] dictionary) throws IOException {
+        int size = readVarInt(buffer);
+        for (int i = 0; i < size; i++) {
+            String key = dictionary[readVarInt(buffer)];
+            readEntry(buffer, buffer.get(), object, key, dictionary);
+        }
+    }
+
+    /**
+     * Read an object entry
+     *
+     * @param buffer the buffer, positioned at the
+     *               entry value
+     * @param tag the entry value tag
+     * @param object the object to put the entry at
+     * @param key the entry key
+     * @param dictionary the document dictionary
+     * @throws IOException if the entry is not valid
+     */
+    static void readEntry(final ByteBuffer buffer, final int tag, final JsonObject object, final String key, final String[] dictionary) throws IOException {
+        switch (tag) {
+            case TAG_OBJECT: {
+                JsonObject child = JsonObject.newObject(object.getPath(), key);
+                readObject(buffer, child, dictionary);
+                object.put(key, child);
+                break;
+            }
+            case TAG_ARRAY: {
+                JsonArray child = JsonArray.newArray(object.getPath(), key);
+                readArray(buffer, child, dictionary);
+                object.put(key, child);
+                break;
+            }
+            case TAG_STRING:
+                object.put(key, readString(buffer));
+                break;
+            case TAG_STRING_REF:
+                object.put(key, dictionary[readVarInt(buffer)]);
+                break;
+            case TAG_TRUE:
+            case TAG_FALSE:
+                object.put(key, tag == TAG_TRUE);
+                break;
+            default:
+                object.put(key, readNumber(buffer, tag));
+                break;
+        }
+    }
+
+    /**
+     * Read the document dictionary
+     *
+     * @param buffer the buffer, positioned at
+     *               the document start
+     * @return the dictionary
+     * @throws IOException if the document is not valid
+     */
+    static String[] readDictionary(final ByteBuffer buffer) throws IOException {
+        byte[] header = new byte[MAGIC.length + 1];
+        buffer.get(header);
+        if (!isBinary(header)) throw new IOException("Invalid binary json document header");
+        if (header[MAGIC.length] != VERSION) throw new IOException("Unsupported binary json document version " + header[MAGIC.length]);
+
+        String[] dictionary = new String[readVarInt(buffer)];
+        for (int i = 0; i < dictionary.length; i++) dictionary[i] = readString(buffer);
+
+        return dictionary;
+    }
+
+    /**
+     * Skip a value
+     *
+     * @param buffer the buffer, positioned at
+     *               the value
+     * @param tag the value tag
+     * @throws IOException if the value is not valid
+     */
+    static void skip(final ByteBuffer buffer, final int tag) throws IOException {
+        switch (tag) {
+            case TAG_OBJECT: {
+                int size = readVarInt(buffer);
+                for (int i = 0; i < size; i++) {
+                    readVarLong(buffer);
+                    skip(buffer, buffer.get());
+                }
+                break;
+            }
+            case TAG_ARRAY: {
+                int size = readVarInt(buffer);
+                for (int i = 0; i < size; i++) skip(buffer, buffer.get());
+                break;
+            }
+            case TAG_STRING:
+            case TAG_BIG_INTEGER:
+            case TAG_BIG_DECIMAL: {
+                int length = readVarInt(buffer);
+                buffer.position(buffer.position() + length);
+                break;
+            }
+            case TAG_STRING_REF:
+            case TAG_LONG:
+                readVarLong(buffer);
+                break;
+            case TAG_FLOAT:
+                buffer.position(buffer.position() + 4);
+                break;
+            case TAG_DOUBLE:
+                buffer.position(buffer.position() + 8);
+                break;
+            case TAG_TRUE:
+            case TAG_FALSE:
+                break;
+            default:
+                throw new IOException("Unknown binary json tag " + tag);
+        }
+    }
+
+    /**
+     * Get if the tag is an object tag
+     *
+     * @param tag the tag
+     * @return if the tag is an object
+     */
+    static boolean isObject(final int tag) {
+        return tag == TAG_OBJECT;
+    }
+
+    private static void readArray(final ByteBuffer buffer, final JsonArray array, final String[] dictionary) throws IOException {
+        int size = readVarInt(buffer);
+        for (int i = 0; i < size; i++) {
+            int tag = buffer.get();
+
+            switch (tag) {
+                case TAG_OBJECT: {
+                    JsonObject child = JsonObject.newObject(array.getPath(), String.valueOf(i));
+                    readObject(buffer, child, dictionary);
+                    array.add(child);
+                    break;
+                }
+                case TAG_ARRAY: {
+                    JsonArray child = JsonArray.newArray(array.getPath(), String.valueOf(i));
+                    readArray(buffer, child, dictionary);
+                    array.add(child);
+                    break;
+                }
+                case TAG_STRING:
+                    array.add(readString(buffer));
+                    break;
+                case TAG_STRING_REF:
+                    array.add(dictionary[readVarInt(buffer)]);
+                    break;
+                case TAG_TRUE:
+                case TAG_FALSE:
+                    array.add(tag == TAG_TRUE);
+                    break;
+                default:
+                    array.add(readNumber(buffer, tag));
+                    break;
+            }
+        }
+    }
+
+    private static Number readNumber(final ByteBuffer buffer, final int tag) throws IOException {
+        switch (tag) {
+            case TAG_LONG: {
+                long value = unZigZag(readVarLong(buffer));
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) return (int) value;
+
+                return value;
+            }
+            case TAG_FLOAT:
+                return Float.intBitsToFloat(buffer.getInt());
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(buffer.getLong());
+            case TAG_BIG_INTEGER:
+                return new BigInteger(readString(buffer));
+            case TAG_BIG_DECIMAL:
+                return new BigDecimal(readString(buffer));
+            default:
+                throw new IOException("Unknown binary json tag " + tag);
+        }
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (!buffer.hasArray()) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+
+        return string;
+    }
+
+    /**
+     * Read a variable length integer
+     *
+     * @param buffer the buffer
+     * @return the integer
+     */
+    static int readVarInt(final ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    private static long readVarLong(final ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+
+        return value;
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Binary document output
+     */
+    private final static class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(4096);
+        }
+
+        void writeVarInt(final int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(final long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+
+            write((int) remaining);
+        }
+
+        void writeInt(final int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeLong(final long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeString(final String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
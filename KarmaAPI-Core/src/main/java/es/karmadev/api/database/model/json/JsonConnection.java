@@ -1,8 +1,11 @@
 package es.karmadev.api.database.model.json;
 
 import es.karmadev.api.database.DatabaseConnection;
+import es.karmadev.api.database.model.JsonDatabase;
+import es.karmadev.api.database.model.json.query.Query;
+import es.karmadev.api.database.model.json.query.QueryCompiler;
 import es.karmadev.api.database.result.QueryResult;
-import es.karmadev.api.file.util.PathUtilities;
+import es.karmadev.api.database.result.StreamingQueryResult;
 import es.karmadev.api.kson.JsonArray;
 import es.karmadev.api.kson.JsonInstance;
 import es.karmadev.api.kson.JsonNative;
@@ -12,7 +15,6 @@ import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
@@ -20,9 +22,10 @@ import java.util.*;
  * KarmaAPI json connection
  */
 @SuppressWarnings("unused")
-public class JsonConnection implements DatabaseConnection {
+public class JsonConnection implements DatabaseConnection, AutoCloseable {
 
     final Path file;
+    final JsonDocument document;
     /**
      * -- GETTER --
      *  Get the table name
@@ -35,42 +38,59 @@ public class JsonConnection implements DatabaseConnection {
      */
     @Getter
     private final JsonConnection parent;
+    final String[] path;
+    private final JsonDocument.Lease lease;
     JsonObject database;
-    boolean pretty = false;
     boolean autoSave = false;
 
+    /**
+     * Initialize the connection. A connection without
+     * parent shares the document of the database file with
+     * the {@link JsonDatabase} connections. Its reference to the
+     * document is released when the connection is closed, or once
+     * the connection is garbage collected
+     *
+     * @param file the database file
+     * @param parent the parent connection
+     * @param table the connection table
+     */
     public JsonConnection(final @NotNull Path file, final @Nullable JsonConnection parent, final @Nullable String table) {
-        this.file = file;
-        this.parent = parent;
-        this.table = table;
-
-        String raw = "";
-        if (Files.exists(file)) {
-            raw = PathUtilities.read(file);
-        }
-
-        String path = "";
-        if (parent != null) {
-            String parentPath = parent.database.getPath();
-            if (parentPath.isEmpty()) {
-                path = parent.database.getKey();
-            } else {
-                path = parentPath + parent.database.getPathSeparator() + parent.database.getKey();
-            }
-        }
+        this((parent != null ? parent.document : JsonDatabase.share(file)), parent, table, resolveTable(parent, table),
+                (parent != null ? childPath(parent, table) : new String[0]));
+    }
 
-        JsonObject tmpObject = JsonObject.newObject(path, table);
-        if (raw.startsWith("{") && raw.endsWith("}")) {
-            tmpObject = JsonReader.read(raw).asObject();
-        }
+    /**
+     * Initialize the connection for the
+     * shared document. The connection takes over
+     * a reference which has already been acquired, see
+     * {@link JsonDatabase#share(Path)}
+     *
+     * @param document the document
+     */
+    public JsonConnection(final @NotNull JsonDocument document) {
+        this(document, null, null, document.getRoot(), new String[0]);
+    }
 
-        database = tmpObject;
-        if (!database.hasChild("types") || !database.getChild("types").isObjectType()) {
-            JsonObject typesObject = JsonObject.newObject((parent == null ? "" : parent.database.getPath()), "types");
-            typesObject.put("schemed", false);
-            database.put("types", typesObject);
-            save();
-        }
+    /**
+     * Initialize the connection
+     *
+     * @param document the document
+     * @param parent the parent connection
+     * @param table the connection table
+     * @param database the connection object, or null
+     *                 to use the document root
+     * @param path the connection path from the document root, or
+     *             null if the connection object is not addressable by path
+     */
+    private JsonConnection(final @NotNull JsonDocument document, final @Nullable JsonConnection parent, final @Nullable String table,
+                           final @Nullable JsonObject database, final @Nullable String[] path) {
+        this.file = document.getFile();
+        this.document = document;
+        this.parent = parent;
+        this.table = table;
+        this.database = (database != null ? database : document.getRoot());
+        this.path = path;
+        this.lease = (parent == null ? document.lease(this) : null);
     }
 
     /**
@@ -80,12 +100,30 @@ public class JsonConnection implements DatabaseConnection {
      *               stores in pretty format
      */
     public void setPrettySave(final boolean status) {
-        if (parent != null) {
-            parent.setPrettySave(status);
-            return;
-        }
+        document.setPretty(status);
+    }
+
+    /**
+     * Set the storage format of the database. Existing
+     * json files are migrated to the new format on the
+     * next save, and the format is detected when loading
+     *
+     * @param format the storage format
+     */
+    public void setFormat(final StorageFormat format) {
+        document.setFormat(format);
+    }
 
-        pretty = status;
+    /**
+     * Set the journal sync policy of the
+     * database
+     *
+     * @param policy the sync policy
+     * @param interval the sync interval in milliseconds, only
+     *                 used by {@link SyncPolicy#INTERVAL}
+     */
+    public void setSyncPolicy(final SyncPolicy policy, final long interval) {
+        document.setSyncPolicy(policy, interval);
     }
 
     /**
@@ -111,6 +149,47 @@ public class JsonConnection implements DatabaseConnection {
         throw new UnsupportedOperationException("JSON does not support queries");
     }
 
+    /**
+     * Stream all the rows of a table. Each
+     * row primitive field is a result field, and the
+     * row name is provided as the "name" field
+     *
+     * @param query the table name
+     * @return the table rows
+     * @throws UnsupportedOperationException if the table does not exist
+     */
+    @Override
+    public StreamingQueryResult stream(final String query) throws UnsupportedOperationException {
+        return stream(query, (Query) null);
+    }
+
+    /**
+     * Stream the rows of a table which match
+     * the query. Rows are read from the table only
+     * when the result requests them
+     *
+     * @param name the table name
+     * @param query the query, or null to stream
+     *              all the rows
+     * @return the matching rows
+     * @throws UnsupportedOperationException if the table does not exist
+     */
+    public StreamingQueryResult stream(final String name, final @Nullable Query query) throws UnsupportedOperationException {
+        synchronized (document.lock()) {
+            JsonConnection connection = getTable(name);
+            JsonQueryPlanner planner = (query != null ? new JsonQueryPlanner(query) : null);
+
+            Collection<String> rows = null;
+            if (planner != null && connection.path != null) {
+                rows = planner.candidates(document.getIndexes(connection.path));
+            }
+            if (rows == null) rows = connection.getKeys(); //Rows are told apart from the other keys while streaming
+
+            return new StreamingQueryResult(file.getFileName().toString(), name,
+                    new JsonRowSource(document.lock(), connection.database, rows.iterator(), planner));
+        }
+    }
+
     /**
      * Get if the database has the specified table
      *
@@ -118,7 +197,9 @@ public class JsonConnection implements DatabaseConnection {
      * @return if the database has the table
      */
     public boolean hasTable(final String name) {
-        return database.hasChild(name);
+        synchronized (document.lock()) {
+            return database.hasChild(name);
+        }
     }
 
     /**
@@ -127,12 +208,15 @@ public class JsonConnection implements DatabaseConnection {
      * @param name the table name
      */
     public void removeTable(final String name) {
-        if (database.hasChild(table)) {
-            JsonInstance element = database.getChild(name);
-            if (element.isObjectType()) database.removeChild(name);
+        synchronized (document.lock()) {
+            if (database.hasChild(table)) {
+                JsonInstance element = database.getChild(name);
+                if (element.isObjectType()) database.removeChild(name);
 
-            JsonObject typesObject = database.getChild("types").asObject();
-            typesObject.removeChild(name);
+                JsonObject typesObject = database.getChild("types").asObject();
+                typesObject.removeChild(name);
+                record(name);
+            }
         }
     }
 
@@ -144,33 +228,39 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the table name is already taken by a non-table object
      */
     public JsonConnection createTable(final String name) throws UnsupportedOperationException {
-        JsonObject typesObject = database.getChild("types").asObject();
-        JsonObject child = JsonObject.newObject(database.getPath(), name);
-        if (database.hasChild(name)) {
-            JsonInstance element = database.getChild(name);
-            if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot create a table " + name + " because another field with that name already exists");
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            JsonObject child = JsonObject.newObject(database.getPath(), name);
+            boolean created = !database.hasChild(name);
+            if (!created) {
+                JsonInstance element = database.getChild(name);
+                if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot create a table " + name + " because another field with that name already exists");
+
+                if (typesObject.hasChild(name)) {
+                    String type = typesObject.getChild(name).asString();
+                    if (!type.equals("table")) throw new UnsupportedOperationException("Cannot create a table " + name + " because another field with that name already exists");
+                }
 
-            if (typesObject.hasChild(name)) {
-                String type = typesObject.getChild(name).asString();
-                if (!type.equals("table")) throw new UnsupportedOperationException("Cannot create a table " + name + " because another field with that name already exists");
+                child = element.asObject();
             }
 
-            child = element.asObject();
-        }
+            if (!child.hasChild("types")) {
+                JsonObject types = JsonObject.newObject(database.getPath(), "types");
+                types.put("schemed", false);
+                child.put("types", types);
+                created = true;
+            }
 
-        if (!child.hasChild("types")) {
-            JsonObject types = JsonObject.newObject(database.getPath(), "types");
-            types.put("schemed", false);
-            child.put("types", types);
-        }
+            if (!typesObject.hasChild(name)) created = true;
 
-        database.put(name, child);
-        JsonConnection connection = new JsonConnection(file, this, name);
-        connection.database = child;
+            database.put(name, child);
+            JsonConnection connection = new JsonConnection(document, this, name, child, childPath(this, name));
 
-        typesObject.put(name, "table");
+            typesObject.put(name, "table");
+            if (created) record(name);
 
-        return connection;
+            return connection;
+        }
     }
 
     /**
@@ -182,50 +272,147 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the database name is already taken by another non-database object
      */
     public List<JsonConnection> createTables(final String database, final String... names) throws UnsupportedOperationException {
-        JsonObject typesObject = this.database.getChild("types").asObject();
-        JsonArray array = JsonArray.newArray(this.database.getPath(), database);
+        synchronized (document.lock()) {
+            JsonObject typesObject = this.database.getChild("types").asObject();
+            JsonArray array = JsonArray.newArray(this.database.getPath(), database);
 
-        if (this.database.hasChild(database)) {
-            JsonInstance element = this.database.getChild(database);
-            if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + database + " because existing type is not a database");
+            if (this.database.hasChild(database)) {
+                JsonInstance element = this.database.getChild(database);
+                if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + database + " because existing type is not a database");
 
-            array = element.asArray();
-        }
+                array = element.asArray();
+            }
 
-        boolean check = !array.isEmpty();
-        Map<String, JsonObject> map = new HashMap<>();
-        if (check) {
-            for (JsonInstance element : array) {
-                if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot add object to non-object list!");
+            boolean check = !array.isEmpty();
+            Map<String, JsonObject> map = new HashMap<>();
+            if (check) {
+                for (JsonInstance element : array) {
+                    if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot add object to non-object list!");
 
-                JsonObject object = element.asObject();
-                if (!object.hasChild("name")) throw new UnsupportedOperationException("Cannot add table to non-table list!");
+                    JsonObject object = element.asObject();
+                    if (!object.hasChild("name")) throw new UnsupportedOperationException("Cannot add table to non-table list!");
 
-                map.put(object.getChild("name").asString(), element.asObject());
+                    map.put(object.getChild("name").asString(), element.asObject());
+                }
             }
-        }
 
-        List<JsonConnection> connections = new ArrayList<>();
-        for (String name : names) {
-            JsonObject child = JsonObject.newObject(this.database.getPath(), name);
-            if (map.containsKey(name)) child = map.get(name);
+            List<JsonConnection> connections = new ArrayList<>();
+            for (String name : names) {
+                JsonObject child = JsonObject.newObject(this.database.getPath(), name);
+                if (map.containsKey(name)) child = map.get(name);
 
-            if (!child.hasChild("types")) {
-                JsonObject types = JsonObject.newObject(this.database.getPath() + '.' + name, "types");
-                types.put("schemed", false);
-                child.put("types", types);
+                if (!child.hasChild("types")) {
+                    JsonObject types = JsonObject.newObject(this.database.getPath() + '.' + name, "types");
+                    types.put("schemed", false);
+                    child.put("types", types);
+                }
+                array.add(child);
+
+                JsonConnection connection = new JsonConnection(document, this, name, child, null);
+
+                typesObject.put(name, "table");
+                connections.add(connection);
             }
-            array.add(child);
+            this.database.put(database, array);
+            record(database);
 
-            JsonConnection connection = new JsonConnection(file, this, name);
-            connection.database = child;
+            return connections;
+        }
+    }
 
-            typesObject.put(name, "table");
-            connections.add(connection);
+    /**
+     * Create an index on a table field. Once
+     * created, the index is kept updated with the table
+     * changes, and used by {@link #find(String, Query)} to
+     * avoid scanning the whole table
+     *
+     * @param name the table name
+     * @param field the field to index
+     * @throws UnsupportedOperationException if the table does not exist or is part of a table list
+     */
+    public void createIndex(final String name, final String field) throws UnsupportedOperationException {
+        synchronized (document.lock()) {
+            JsonConnection connection = getTable(name);
+            if (connection.path == null) throw new UnsupportedOperationException("Cannot index table " + name + " because it's part of a table list");
+
+            JsonIndex index = new JsonIndex(field);
+            for (String row : connection.getRows()) {
+                JsonObject object = connection.database.getChild(row).asObject();
+                index.update(row, JsonDocument.fieldOf(object, field), JsonDocument.typeOf(object, field));
+            }
+
+            document.addIndex(connection.path, index);
         }
-        this.database.put(database, array);
+    }
+
+    /**
+     * Drop the index of a table field
+     *
+     * @param name the table name
+     * @param field the indexed field
+     * @return if the index was dropped
+     */
+    public boolean dropIndex(final String name, final String field) {
+        synchronized (document.lock()) {
+            String[] tablePath = childPath(this, name);
+            if (tablePath == null) return false;
 
-        return connections;
+            return document.removeIndex(tablePath, field);
+        }
+    }
+
+    /**
+     * Find the rows of a table which match
+     * the query text. The query is compiled once
+     * and cached, see {@link QueryCompiler#compile(String)}
+     *
+     * @param name the table name
+     * @param query the query text
+     * @return the matching rows
+     * @throws UnsupportedOperationException if the table does not exist
+     * @throws IllegalStateException if the query syntax is not valid
+     */
+    public List<JsonConnection> find(final String name, final String query) throws UnsupportedOperationException, IllegalStateException {
+        return find(name, QueryCompiler.compile(query));
+    }
+
+    /**
+     * Find the rows of a table which match
+     * the query. The table indexes are used to resolve
+     * the candidate rows when possible, otherwise all the
+     * table rows are tested
+     *
+     * @param name the table name
+     * @param query the query
+     * @return the matching rows
+     * @throws UnsupportedOperationException if the table does not exist
+     */
+    public List<JsonConnection> find(final String name, final Query query) throws UnsupportedOperationException {
+        synchronized (document.lock()) {
+            JsonConnection connection = getTable(name);
+            JsonQueryPlanner planner = new JsonQueryPlanner(query);
+
+            Collection<String> rows = null;
+            if (connection.path != null) {
+                rows = planner.candidates(document.getIndexes(connection.path));
+            }
+            if (rows == null) rows = connection.getRows();
+
+            List<JsonConnection> matches = new ArrayList<>();
+            for (String row : rows) {
+                if (!connection.database.hasChild(row)) continue;
+
+                JsonInstance element = connection.database.getChild(row);
+                if (!element.isObjectType()) continue;
+
+                JsonObject object = element.asObject();
+                if (planner.test(object)) {
+                    matches.add(new JsonConnection(document, connection, row, object, childPath(connection, row)));
+                }
+            }
+
+            return matches;
+        }
     }
 
     /**
@@ -237,19 +424,23 @@ public class JsonConnection implements DatabaseConnection {
      * object
      */
     public void set(final String key, final Map<String, Object> value) throws UnsupportedOperationException {
-        JsonObject typesObject = this.database.getChild("types").asObject();
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
-        }
+        synchronized (document.lock()) {
+            JsonObject typesObject = this.database.getChild("types").asObject();
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+            }
+
+            if (value != null) {
+                JsonObject element = JsonReader.readTree(value);
+                database.put(key, element);
+                typesObject.put(key, "map");
+            } else {
+                database.removeChild(key);
+                typesObject.removeChild(key);
+            }
 
-        if (value != null) {
-            JsonObject element = JsonReader.readTree(value);
-            database.put(key, element);
-            typesObject.put(key, "map");
-        } else {
-            database.removeChild(key);
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -261,21 +452,25 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the field is already occupied by another non-primitive object
      */
     public void set(final String key, final String value) throws UnsupportedOperationException {
-        JsonObject typesObject = this.database.getChild("types").asObject();
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isNativeType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+        synchronized (document.lock()) {
+            JsonObject typesObject = this.database.getChild("types").asObject();
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isNativeType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+
+                JsonNative primitive = element.asNative();
+                if (!primitive.isString()) throw new UnsupportedOperationException("Cannot set string to non-string field!");
+            }
 
-            JsonNative primitive = element.asNative();
-            if (!primitive.isString()) throw new UnsupportedOperationException("Cannot set string to non-string field!");
-        }
+            if (value != null) {
+                database.put(key, value);
+                typesObject.put(key, "string");
+            } else {
+                database.removeChild(key);
+                typesObject.removeChild(key);
+            }
 
-        if (value != null) {
-            database.put(key, value);
-            typesObject.put(key, "string");
-        } else {
-            database.removeChild(key);
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -287,35 +482,39 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the field is already occupied by another non-primitive object
      */
     public void set(final String key, final Number value) throws UnsupportedOperationException {
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isNativeType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
-
-            JsonNative primitive = element.asNative();
-            if (!primitive.isNumber()) throw new UnsupportedOperationException("Cannot set number to non-number field!");
+        synchronized (document.lock()) {
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isNativeType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+
+                JsonNative primitive = element.asNative();
+                if (!primitive.isNumber()) throw new UnsupportedOperationException("Cannot set number to non-number field!");
+
+                if (value != null) {
+                    String currentType = getType(key);
+                    String typeName = getTypeName(value);
+
+                    JsonObject typesObject = database.getChild("types").asObject();
+                    if (!typeName.equalsIgnoreCase(currentType)) {
+                        throw new UnsupportedOperationException("Cannot set number of " + key + " to non-" + typeName + " value!");
+                    }
+                }
+            }
 
             if (value != null) {
-                String currentType = getType(key);
+                database.put(key, value);
+
+                JsonObject typesObject = database.getChild("types").asObject();
                 String typeName = getTypeName(value);
+                typesObject.put(key, typeName);
+            } else {
+                database.removeChild(key);
 
                 JsonObject typesObject = database.getChild("types").asObject();
-                if (!typeName.equalsIgnoreCase(currentType)) {
-                    throw new UnsupportedOperationException("Cannot set number of " + key + " to non-" + typeName + " value!");
-                }
+                typesObject.removeChild(key);
             }
-        }
 
-        if (value != null) {
-            database.put(key, value);
-
-            JsonObject typesObject = database.getChild("types").asObject();
-            String typeName = getTypeName(value);
-            typesObject.put(key, typeName);
-        } else {
-            database.removeChild(key);
-
-            JsonObject typesObject = database.getChild("types").asObject();
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -347,22 +546,26 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the field is already occupied by another non-primitive object
      */
     public void set(final String key, final Boolean value) throws UnsupportedOperationException {
-        JsonObject typesObject = database.getChild("types").asObject();
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isNativeType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isNativeType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
 
-            JsonNative primitive = element.asNative();
-            if (!primitive.isBoolean()) throw new UnsupportedOperationException("Cannot set boolean to non-boolean field!");
-        }
+                JsonNative primitive = element.asNative();
+                if (!primitive.isBoolean()) throw new UnsupportedOperationException("Cannot set boolean to non-boolean field!");
+            }
+
+            if (value != null) {
+                database.put(key, value);
 
-        if (value != null) {
-            database.put(key, value);
+                typesObject.put(key, "boolean");
+            } else {
+                database.removeChild(key);
+                typesObject.removeChild(key);
+            }
 
-            typesObject.put(key, "boolean");
-        } else {
-            database.removeChild(key);
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -374,32 +577,36 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the field is already occupied by another non-list object
      */
     public void setStringList(final String key, final List<String> value) throws UnsupportedOperationException {
-        JsonObject typesObject = database.getChild("types").asObject();
-        JsonArray array = JsonArray.newArray(this.database.getPath(), key);
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            JsonArray array = JsonArray.newArray(this.database.getPath(), key);
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
 
-            array = element.asArray();
-        }
+                array = element.asArray();
+            }
 
-        boolean check = !array.isEmpty();
-        if (check) {
-            JsonInstance firstElement = array.get(0);
-            if (!firstElement.isNativeType()) throw new UnsupportedOperationException("Cannot add primitive to non-primitive list!");
+            boolean check = !array.isEmpty();
+            if (check) {
+                JsonInstance firstElement = array.get(0);
+                if (!firstElement.isNativeType()) throw new UnsupportedOperationException("Cannot add primitive to non-primitive list!");
 
-            JsonNative primitive = firstElement.asNative();
-            if (!primitive.isString()) throw new UnsupportedOperationException("Cannot add string to non-string list!");
-        }
+                JsonNative primitive = firstElement.asNative();
+                if (!primitive.isString()) throw new UnsupportedOperationException("Cannot add string to non-string list!");
+            }
 
-        if (value != null) {
-            for (String s : value) array.add(s);
-            database.put(key, array);
+            if (value != null) {
+                for (String s : value) array.add(s);
+                database.put(key, array);
+
+                typesObject.put(key, "stringList");
+            } else {
+                database.removeChild(key);
+                typesObject.removeChild(key);
+            }
 
-            typesObject.put(key, "stringList");
-        } else {
-            database.removeChild(key);
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -411,32 +618,36 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the field is already occupied by another non-list object
      */
     public void setNumberList(final String key, final List<Number> value) throws UnsupportedOperationException {
-        JsonObject typesObject = database.getChild("types").asObject();
-        JsonArray array = JsonArray.newArray(this.database.getPath(), key);
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            JsonArray array = JsonArray.newArray(this.database.getPath(), key);
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
 
-            array = element.asArray();
-        }
+                array = element.asArray();
+            }
 
-        boolean check = !array.isEmpty();
-        if (check) {
-            JsonInstance firstElement = array.get(0);
-            if (!firstElement.isNativeType()) throw new UnsupportedOperationException("Cannot add primitive to non-primitive list!");
+            boolean check = !array.isEmpty();
+            if (check) {
+                JsonInstance firstElement = array.get(0);
+                if (!firstElement.isNativeType()) throw new UnsupportedOperationException("Cannot add primitive to non-primitive list!");
 
-            JsonNative primitive = firstElement.asNative();
-            if (!primitive.isNumber()) throw new UnsupportedOperationException("Cannot add number to non-number list!");
-        }
+                JsonNative primitive = firstElement.asNative();
+                if (!primitive.isNumber()) throw new UnsupportedOperationException("Cannot add number to non-number list!");
+            }
+
+            if (value != null) {
+                for (Number n : value) array.add(n);
+                database.put(key, array);
 
-        if (value != null) {
-            for (Number n : value) array.add(n);
-            database.put(key, array);
+                typesObject.put(key, "numberList");
+            } else {
+                database.removeChild(key);
+                typesObject.removeChild(key);
+            }
 
-            typesObject.put(key, "numberList");
-        } else {
-            database.removeChild(key);
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -448,32 +659,36 @@ public class JsonConnection implements DatabaseConnection {
      * @throws UnsupportedOperationException if the field is already occupied by another non-list object
      */
     public void setBooleanList(final String key, final List<Boolean> value) throws UnsupportedOperationException {
-        JsonObject typesObject = database.getChild("types").asObject();
-        JsonArray array = JsonArray.newArray(this.database.getPath(), key);
-        if (database.hasChild(key)) {
-            JsonInstance element = database.getChild(key);
-            if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            JsonArray array = JsonArray.newArray(this.database.getPath(), key);
+            if (database.hasChild(key)) {
+                JsonInstance element = database.getChild(key);
+                if (!element.isArrayType()) throw new UnsupportedOperationException("Cannot redefine field " + key + " because existing type doesn't match new type");
 
-            array = element.asArray();
-        }
+                array = element.asArray();
+            }
 
-        boolean check = !array.isEmpty();
-        if (check) {
-            JsonInstance firstElement = array.get(0);
-            if (!firstElement.isNativeType()) throw new UnsupportedOperationException("Cannot add primitive to non-primitive list!");
+            boolean check = !array.isEmpty();
+            if (check) {
+                JsonInstance firstElement = array.get(0);
+                if (!firstElement.isNativeType()) throw new UnsupportedOperationException("Cannot add primitive to non-primitive list!");
 
-            JsonNative primitive = firstElement.asNative();
-            if (!primitive.isBoolean()) throw new UnsupportedOperationException("Cannot add boolean to non-boolean list!");
-        }
+                JsonNative primitive = firstElement.asNative();
+                if (!primitive.isBoolean()) throw new UnsupportedOperationException("Cannot add boolean to non-boolean list!");
+            }
+
+            if (value != null) {
+                for (boolean b : value) array.add(b);
+                database.put(key, array);
 
-        if (value != null) {
-            for (boolean b : value) array.add(b);
-            database.put(key, array);
+                typesObject.put(key, "booleanList");
+            } else {
+                database.removeChild(key);
+                typesObject.removeChild(key);
+            }
 
-            typesObject.put(key, "booleanList");
-        } else {
-            database.removeChild(key);
-            typesObject.removeChild(key);
+            record(key);
         }
     }
 
@@ -484,14 +699,16 @@ public class JsonConnection implements DatabaseConnection {
      * @return the map
      */
     public Map<String, Object> getMap(final String key) {
-        if (!database.hasChild(key)) return null;
-        JsonInstance element = database.getChild(key);
+        synchronized (document.lock()) {
+            if (!database.hasChild(key)) return null;
+            JsonInstance element = database.getChild(key);
 
-        if (getType(key).equals("map")) {
-            return element.getTree();
-        }
+            if (getType(key).equals("map")) {
+                return element.getTree();
+            }
 
-        return null;
+            return null;
+        }
     }
 
     /**
@@ -543,22 +760,24 @@ public class JsonConnection implements DatabaseConnection {
      * @return the list
      */
     public List<String> getStringList(final String key) {
-        if (!database.hasChild(key)) return null;
-        JsonInstance element = database.getChild(key);
+        synchronized (document.lock()) {
+            if (!database.hasChild(key)) return null;
+            JsonInstance element = database.getChild(key);
 
-        if (!element.isArrayType()) return null;
-        JsonArray array = element.asArray();
+            if (!element.isArrayType()) return null;
+            JsonArray array = element.asArray();
 
-        List<String> strings = new ArrayList<>();
-        for (JsonInstance child : array) {
-            if (!child.isNativeType()) continue;
-            JsonNative primitive = child.asNative();
+            List<String> strings = new ArrayList<>();
+            for (JsonInstance child : array) {
+                if (!child.isNativeType()) continue;
+                JsonNative primitive = child.asNative();
 
-            if (!primitive.isString()) continue;
-            strings.add(primitive.getAsString());
-        }
+                if (!primitive.isString()) continue;
+                strings.add(primitive.getAsString());
+            }
 
-        return strings;
+            return strings;
+        }
     }
 
     /**
@@ -568,22 +787,24 @@ public class JsonConnection implements DatabaseConnection {
      * @return the list
      */
     public List<Number> getNumberList(final String key) {
-        if (!database.hasChild(key)) return null;
-        JsonInstance element = database.getChild(key);
+        synchronized (document.lock()) {
+            if (!database.hasChild(key)) return null;
+            JsonInstance element = database.getChild(key);
 
-        if (!element.isArrayType()) return null;
-        JsonArray array = element.asArray();
+            if (!element.isArrayType()) return null;
+            JsonArray array = element.asArray();
 
-        List<Number> numbers = new ArrayList<>();
-        for (JsonInstance child : array) {
-            if (!child.isNativeType()) continue;
-            JsonNative primitive = child.asNative();
+            List<Number> numbers = new ArrayList<>();
+            for (JsonInstance child : array) {
+                if (!child.isNativeType()) continue;
+                JsonNative primitive = child.asNative();
 
-            if (!primitive.isNumber()) continue;
-            numbers.add(primitive.getAsNumber());
-        }
+                if (!primitive.isNumber()) continue;
+                numbers.add(primitive.getAsNumber());
+            }
 
-        return numbers;
+            return numbers;
+        }
     }
 
     /**
@@ -593,22 +814,24 @@ public class JsonConnection implements DatabaseConnection {
      * @return the list
      */
     public List<Boolean> getBooleanList(final String key) {
-        if (!database.hasChild(key)) return null;
-        JsonInstance element = database.getChild(key);
+        synchronized (document.lock()) {
+            if (!database.hasChild(key)) return null;
+            JsonInstance element = database.getChild(key);
 
-        if (!element.isArrayType()) return null;
-        JsonArray array = element.asArray();
+            if (!element.isArrayType()) return null;
+            JsonArray array = element.asArray();
 
-        List<Boolean> booleans = new ArrayList<>();
-        for (JsonInstance child : array) {
-            if (!child.isNativeType()) continue;
-            JsonNative primitive = child.asNative();
+            List<Boolean> booleans = new ArrayList<>();
+            for (JsonInstance child : array) {
+                if (!child.isNativeType()) continue;
+                JsonNative primitive = child.asNative();
 
-            if (!primitive.isBoolean()) continue;
-            booleans.add(primitive.getAsBoolean());
-        }
+                if (!primitive.isBoolean()) continue;
+                booleans.add(primitive.getAsBoolean());
+            }
 
-        return booleans;
+            return booleans;
+        }
     }
 
     /**
@@ -618,27 +841,28 @@ public class JsonConnection implements DatabaseConnection {
      * @return the list
      */
     public List<JsonConnection> getTableList(final String key) {
-        if (!database.hasChild(key)) return null;
-        JsonInstance element = database.getChild(key);
+        synchronized (document.lock()) {
+            if (!database.hasChild(key)) return null;
+            JsonInstance element = database.getChild(key);
 
-        if (!element.isArrayType()) return null;
-        JsonArray array = element.asArray();
+            if (!element.isArrayType()) return null;
+            JsonArray array = element.asArray();
 
-        List<JsonConnection> tables = new ArrayList<>();
-        for (JsonInstance child : array) {
-            if (!child.isObjectType()) continue;
-            JsonObject object = child.asObject();
+            List<JsonConnection> tables = new ArrayList<>();
+            for (JsonInstance child : array) {
+                if (!child.isObjectType()) continue;
+                JsonObject object = child.asObject();
 
-            if (!object.hasChild("name")) continue;
-            String tableName = object.getChild("name").asString();
+                if (!object.hasChild("name")) continue;
+                String tableName = object.getChild("name").asString();
 
-            JsonConnection connection = new JsonConnection(file, this, tableName);
-            connection.database = object;
+                JsonConnection connection = new JsonConnection(document, this, tableName, object, null);
 
-            tables.add(connection);
-        }
+                tables.add(connection);
+            }
 
-        return tables;
+            return tables;
+        }
     }
 
     /**
@@ -648,12 +872,32 @@ public class JsonConnection implements DatabaseConnection {
      * @return the key type
      */
     public String getType(final String key) {
-        JsonObject typesObject = database.getChild("types").asObject();
-        if (typesObject.hasChild(key) && typesObject.getChild(key).isNativeType()) {
-            return typesObject.getChild(key).asString();
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            if (typesObject.hasChild(key) && typesObject.getChild(key).isNativeType()) {
+                return typesObject.getChild(key).asString();
+            }
+
+            return "null";
         }
+    }
 
-        return "null";
+    /**
+     * Get the rows of the table. A row is
+     * any child table
+     *
+     * @return the table rows
+     */
+    public Collection<String> getRows() {
+        synchronized (document.lock()) {
+            List<String> rows = new ArrayList<>();
+            for (String key : getKeys()) {
+                if (!getType(key).equals("table") || !database.hasChild(key)) continue;
+                if (database.getChild(key).isObjectType()) rows.add(key);
+            }
+
+            return rows;
+        }
     }
 
     /**
@@ -663,7 +907,9 @@ public class JsonConnection implements DatabaseConnection {
      * @return if the key is set
      */
     public boolean isSet(final String key) {
-        return database.hasChild(key);
+        synchronized (document.lock()) {
+            return database.hasChild(key);
+        }
     }
 
     /**
@@ -672,27 +918,108 @@ public class JsonConnection implements DatabaseConnection {
      * @return the database keys
      */
     public Collection<String> getKeys() {
-        JsonObject typesObject = database.getChild("types").asObject();
-        return typesObject.getKeys(true);
+        synchronized (document.lock()) {
+            JsonObject typesObject = database.getChild("types").asObject();
+            return new ArrayList<>(typesObject.getKeys(true));
+        }
     }
 
     /**
-     * Save all changes into the local database
+     * Save all changes into the local database. Only
+     * the changes made since the last save are written
+     *
+     * @return if the changes were saved
      */
     public boolean save() {
-        if (parent == null) {
-            String raw = database.toString(pretty);
-            return PathUtilities.write(file, raw);
+        return document.save();
+    }
+
+    /**
+     * Close the connection. Closing a root
+     * connection releases its reference to the
+     * shared document right away, instead of once the
+     * connection gets garbage collected. Closing a table
+     * connection does nothing
+     */
+    @Override
+    public void close() {
+        if (lease != null) lease.release();
+    }
+
+    /**
+     * Record the change of a key into
+     * the database journal
+     *
+     * @param key the key that changed
+     */
+    private void record(final String key) {
+        JsonObject typesObject = database.getChild("types").asObject();
+        JsonInstance value = (database.hasChild(key) ? database.getChild(key) : null);
+        JsonInstance type = (typesObject.hasChild(key) ? typesObject.getChild(key) : null);
+
+        document.record(path, key, value, type);
+    }
+
+    /**
+     * Get an existing child table
+     *
+     * @param name the table name
+     * @return the table connection
+     * @throws UnsupportedOperationException if the table does not exist
+     */
+    private JsonConnection getTable(final String name) throws UnsupportedOperationException {
+        synchronized (document.lock()) {
+            if (!database.hasChild(name) || !getType(name).equals("table")) throw new UnsupportedOperationException("Cannot find table " + name);
+
+            JsonInstance element = database.getChild(name);
+            if (!element.isObjectType()) throw new UnsupportedOperationException("Cannot find table " + name);
+
+            return new JsonConnection(document, this, name, element.asObject(), childPath(this, name));
         }
+    }
+
+    /**
+     * Get the path of a child table
+     *
+     * @param parent the parent connection
+     * @param table the table name
+     * @return the child path
+     */
+    private static String[] childPath(final JsonConnection parent, final String table) {
+        if (parent.path == null || table == null) return null;
 
-        return parent.save();
+        String[] path = Arrays.copyOf(parent.path, parent.path.length + 1);
+        path[parent.path.length] = table;
+        return path;
+    }
+
+    /**
+     * Resolve the table object of the
+     * parent connection
+     *
+     * @param parent the parent connection
+     * @param table the table name
+     * @return the table object
+     */
+    private static JsonObject resolveTable(final JsonConnection parent, final String table) {
+        if (parent == null) return null;
+        synchronized (parent.document.lock()) {
+            if (table != null && parent.database.hasChild(table)) {
+                JsonInstance element = parent.database.getChild(table);
+                if (element.isObjectType()) return element.asObject();
+            }
+        }
+
+        return JsonObject.newObject(parent.database.getPath(), table);
     }
 
     private JsonNative getPrimitive(final String key) {
-        if (!database.hasChild(key)) return null;
-        JsonInstance element = database.getChild(key);
+        synchronized (document.lock()) {
+            if (!database.hasChild(key)) return null;
+            JsonInstance element = database.getChild(key);
 
-        if (!element.isNativeType()) return null;
-        return element.asNative();
+            if (!element.isNativeType()) return null;
+            return element.asNative();
+        }
     }
 }
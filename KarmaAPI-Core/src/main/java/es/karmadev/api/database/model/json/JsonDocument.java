@@ -0,0 +1,651 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.core.ExceptionCollector;
+import es.karmadev.api.database.exception.CorruptDatabaseException;
+import es.karmadev.api.file.util.PathUtilities;
+import es.karmadev.api.kson.JsonArray;
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonObject;
+import es.karmadev.api.kson.io.JsonReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * KarmaAPI json document. A document holds the
+ * in-memory tree of a json database file, and is shared
+ * between all the connections that point to the same file.
+ * Changes are recorded into an append-only journal, which
+ * gets compacted into the document file once it grows bigger
+ * than the document itself
+ */
+@SuppressWarnings("unused")
+public final class JsonDocument {
+
+    private final static long MIN_COMPACT_SIZE = 64 * 1024;
+    private final static ReferenceQueue<Object> DROPPED = new ReferenceQueue<>();
+    private final static Set<Lease> LEASES = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final JsonObject root;
+    private final JsonJournal journal;
+    private final AtomicInteger references = new AtomicInteger(0);
+    private final Map<String, Map<String, JsonIndex>> indexes = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+
+    private volatile long lastAccess = System.currentTimeMillis();
+    private volatile long snapshotSize = 0;
+    private volatile boolean pretty = false;
+    private volatile StorageFormat format = StorageFormat.JSON;
+    private volatile boolean snapshotRequired = false;
+
+    private volatile JsonWriter writer;
+    private int writerReferences = 0;
+
+    /**
+     * Initialize the document
+     *
+     * @param file the document file
+     * @param root the document root
+     */
+    private JsonDocument(final Path file, final JsonObject root) {
+        this.file = file;
+        this.root = root;
+        this.journal = new JsonJournal(file.resolveSibling(file.getFileName() + ".journal"));
+    }
+
+    /**
+     * Get the document file
+     *
+     * @return the document file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the document root object
+     *
+     * @return the document root
+     */
+    public JsonObject getRoot() {
+        return root;
+    }
+
+    /**
+     * Get the document tree lock. The tree, and
+     * the indexes built from it, are only changed while
+     * holding the lock, and snapshots of the tree are taken
+     * while holding it as well
+     *
+     * @return the tree lock
+     */
+    Object lock() {
+        return lock;
+    }
+
+    /**
+     * Set the pretty save status
+     *
+     * @param status if the document is stored
+     *               in pretty format
+     */
+    public void setPretty(final boolean status) {
+        pretty = status;
+    }
+
+    /**
+     * Get if the document is stored in
+     * pretty format
+     *
+     * @return if the document is pretty
+     */
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    /**
+     * Set the document storage format. Changing
+     * the format rewrites the document file on the
+     * next save
+     *
+     * @param format the storage format
+     */
+    public void setFormat(final @NotNull StorageFormat format) {
+        if (this.format.equals(format)) return;
+
+        this.format = format;
+        snapshotRequired = true;
+    }
+
+    /**
+     * Get the document storage format
+     *
+     * @return the storage format
+     */
+    public StorageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Set the document journal sync policy
+     *
+     * @param policy the sync policy
+     * @param interval the sync interval in milliseconds, only
+     *                 used by {@link SyncPolicy#INTERVAL}
+     */
+    public void setSyncPolicy(final @NotNull SyncPolicy policy, final long interval) {
+        journal.setPolicy(policy, interval);
+    }
+
+    /**
+     * Acquire a reference to the document
+     *
+     * @return the current document references
+     */
+    public int acquire() {
+        lastAccess = System.currentTimeMillis();
+        return references.incrementAndGet();
+    }
+
+    /**
+     * Release a reference to the document
+     *
+     * @return the current document references
+     */
+    public int release() {
+        lastAccess = System.currentTimeMillis();
+        return references.updateAndGet((current) -> Math.max(0, current - 1));
+    }
+
+    /**
+     * Lease a reference to the document for the
+     * specified holder. The reference must already be
+     * acquired, and is released either when the lease is
+     * released or once the holder gets garbage collected
+     *
+     * @param holder the reference holder
+     * @return the reference lease
+     */
+    Lease lease(final Object holder) {
+        Lease lease = new Lease(holder, this);
+        LEASES.add(lease);
+
+        return lease;
+    }
+
+    /**
+     * Release the document references of the
+     * holders which have been garbage collected
+     * without releasing them
+     *
+     * @return the amount of released references
+     */
+    public static int releaseDropped() {
+        int released = 0;
+        Reference<?> reference;
+        while ((reference = DROPPED.poll()) != null) {
+            if (((Lease) reference).release()) released++;
+        }
+
+        return released;
+    }
+
+    /**
+     * Acquire the document writer, creating
+     * it if it's not running
+     *
+     * @return the document writer
+     */
+    synchronized JsonWriter acquireWriter() {
+        if (writer == null) writer = new JsonWriter(this);
+        writerReferences++;
+
+        return writer;
+    }
+
+    /**
+     * Release the document writer. The writer
+     * is shut down once it's no longer referenced
+     */
+    synchronized void releaseWriter() {
+        if (writer == null || --writerReferences > 0) return;
+
+        writer.shutdown();
+        writer = null;
+        writerReferences = 0;
+    }
+
+    /**
+     * Get the amount of references to
+     * the document
+     *
+     * @return the document references
+     */
+    public int references() {
+        return references.get();
+    }
+
+    /**
+     * Get the amount of time the document
+     * has been unreferenced
+     *
+     * @return the document idle time in
+     * milliseconds, or 0 if the document is still referenced
+     */
+    public long idleTime() {
+        if (references.get() > 0) return 0;
+        return System.currentTimeMillis() - lastAccess;
+    }
+
+    /**
+     * Record a change of the document
+     *
+     * @param path the path to the object that changed, or
+     *             null if the object cannot be addressed by path
+     * @param key the key that changed
+     * @param value the new value, or null if removed
+     * @param type the new value type, or null if removed
+     */
+    public void record(final @Nullable String[] path, final @NotNull String key, final @Nullable JsonInstance value, final @Nullable JsonInstance type) {
+        lastAccess = System.currentTimeMillis();
+        JsonWriter current = writer;
+        if (current != null) current.changed(path, key);
+
+        if (path == null) {
+            snapshotRequired = true;
+            return;
+        }
+        if (!indexes.isEmpty()) updateIndexes(path, key, value, type);
+
+        JsonObject entry = JsonObject.newObject("", "");
+        JsonArray route = JsonArray.newArray("", "path");
+        for (String element : path) route.add(element);
+
+        entry.put("path", route);
+        entry.put("key", key);
+        if (value != null) entry.put("value", value);
+        if (type != null) entry.put("type", type);
+
+        journal.record(entry.toString(false));
+    }
+
+    /**
+     * Get the indexes of a table
+     *
+     * @param table the table path
+     * @return the table indexes
+     */
+    Map<String, JsonIndex> getIndexes(final String[] table) {
+        return indexes.getOrDefault(indexKey(table), Collections.emptyMap());
+    }
+
+    /**
+     * Add an index to a table. If the table
+     * already had an index for the same field, the
+     * index gets replaced
+     *
+     * @param table the table path
+     * @param index the index
+     */
+    void addIndex(final String[] table, final JsonIndex index) {
+        indexes.computeIfAbsent(indexKey(table), (k) -> new ConcurrentHashMap<>()).put(index.getField(), index);
+    }
+
+    /**
+     * Remove an index from a table
+     *
+     * @param table the table path
+     * @param field the indexed field
+     * @return if the index was removed
+     */
+    boolean removeIndex(final String[] table, final String field) {
+        String key = indexKey(table);
+        Map<String, JsonIndex> tableIndexes = indexes.get(key);
+        if (tableIndexes == null) return false;
+
+        boolean removed = tableIndexes.remove(field) != null;
+        if (tableIndexes.isEmpty()) indexes.remove(key);
+
+        return removed;
+    }
+
+    /**
+     * Update the indexes affected by
+     * a change
+     *
+     * @param path the path to the object that changed
+     * @param key the key that changed
+     * @param value the new value
+     * @param type the new value type
+     */
+    private void updateIndexes(final String[] path, final String key, final JsonInstance value, final JsonInstance type) {
+        Map<String, JsonIndex> rowIndexes = indexes.get(indexKey(path));
+        if (rowIndexes != null && !key.equals("types")) {
+            if (value != null && value.isObjectType()) {
+                JsonObject row = value.asObject();
+                for (JsonIndex index : rowIndexes.values()) {
+                    index.update(key, fieldOf(row, index.getField()), typeOf(row, index.getField()));
+                }
+            } else {
+                for (JsonIndex index : rowIndexes.values()) index.remove(key);
+            }
+        }
+
+        if (path.length == 0) return;
+        Map<String, JsonIndex> fieldIndexes = indexes.get(indexKey(Arrays.copyOf(path, path.length - 1)));
+        if (fieldIndexes == null) return;
+
+        JsonIndex index = fieldIndexes.get(key);
+        if (index != null) {
+            index.update(path[path.length - 1], value, (type != null && type.isNativeType() ? type.asString() : null));
+        }
+    }
+
+    /**
+     * Get the value of a row field
+     *
+     * @param row the row
+     * @param field the field
+     * @return the field value
+     */
+    static JsonInstance fieldOf(final JsonObject row, final String field) {
+        if (!row.hasChild(field)) return null;
+        return row.getChild(field);
+    }
+
+    /**
+     * Get the type name of a row field
+     *
+     * @param row the row
+     * @param field the field
+     * @return the field type name
+     */
+    static String typeOf(final JsonObject row, final String field) {
+        if (!row.hasChild("types") || !row.getChild("types").isObjectType()) return null;
+
+        JsonObject types = row.getChild("types").asObject();
+        if (!types.hasChild(field) || !types.getChild(field).isNativeType()) return null;
+
+        return types.getChild(field).asString();
+    }
+
+    private static String indexKey(final String[] table) {
+        return String.join("\0", table);
+    }
+
+    /**
+     * Save the document. Only the changes
+     * recorded since the last save are written
+     *
+     * @return if the document was saved
+     */
+    public boolean save() {
+        if (snapshotRequired) return compact();
+        if (!journal.commit()) return false;
+
+        if (journal.size() > Math.max(MIN_COMPACT_SIZE, snapshotSize)) {
+            return compact();
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the whole document into its file
+     * and clear the journal
+     *
+     * @return if the document was compacted
+     */
+    public boolean compact() {
+        return journal.compact(() -> {
+            snapshotRequired = false;
+            if (writeSnapshot()) return true;
+
+            snapshotRequired = true;
+            return false;
+        });
+    }
+
+    /**
+     * Write the saved state of the document into
+     * its file and clear the journal. Unlike {@link #compact()},
+     * the changes which were never saved are not written, as the
+     * state is read back from the document file and its journal
+     *
+     * @return if the saved state was written
+     */
+    public boolean compactSaved() {
+        return journal.fold(() -> {
+            if (Files.exists(file) && journal.size() == 0) return true;
+
+            byte[] data = (Files.exists(file) ? PathUtilities.readBytes(file) : new byte[0]);
+            JsonObject saved = read(file, data);
+            journal.replay((line) -> apply(saved, line));
+
+            return writeFile(encode(saved));
+        });
+    }
+
+    /**
+     * Close the document, writing all
+     * the pending changes into the journal
+     */
+    public void close() {
+        if (snapshotRequired) compact();
+        journal.close();
+    }
+
+    /**
+     * Close the document, dropping all the
+     * changes which were never saved. Saved changes
+     * are kept in the journal
+     */
+    public void discard() {
+        snapshotRequired = false;
+        journal.rollback();
+        journal.close();
+    }
+
+    /**
+     * Write the document snapshot
+     *
+     * @return if the snapshot was written
+     */
+    private boolean writeSnapshot() {
+        byte[] raw;
+        synchronized (lock) {
+            raw = encode(root);
+        }
+
+        return writeFile(raw);
+    }
+
+    /**
+     * Encode a tree in the document
+     * format
+     *
+     * @param tree the tree to encode
+     * @return the encoded tree
+     */
+    private byte[] encode(final JsonObject tree) {
+        return (format.equals(StorageFormat.BINARY) ? JsonBinaryCodec.encode(tree) :
+                tree.toString(pretty).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Replace the document file
+     *
+     * @param raw the new file content
+     * @return if the file was replaced
+     */
+    private boolean writeFile(final byte[] raw) {
+        Path temporal = file.resolveSibling(file.getFileName() + ".tmp");
+        if (!PathUtilities.write(temporal, raw)) return false;
+
+        MappedJsonDocument.detach(file);
+        try {
+            try {
+                Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            snapshotSize = raw.length;
+            return true;
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonDocument.class, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Apply a journal entry to a
+     * document tree
+     *
+     * @param root the tree root
+     * @param line the journal entry
+     */
+    private static void apply(final JsonObject root, final String line) {
+        JsonObject entry = JsonReader.read(line).asObject();
+        JsonArray route = entry.getChild("path").asArray();
+        String key = entry.getChild("key").asString();
+
+        JsonObject node = root;
+        for (JsonInstance element : route) {
+            String name = element.asString();
+            if (!node.hasChild(name) || !node.getChild(name).isObjectType()) {
+                JsonObject child = JsonObject.newObject(node.getPath(), name);
+                node.put(name, child);
+            }
+
+            node = node.getChild(name).asObject();
+        }
+
+        if (!node.hasChild("types") || !node.getChild("types").isObjectType()) {
+            JsonObject types = JsonObject.newObject(node.getPath(), "types");
+            types.put("schemed", false);
+            node.put("types", types);
+        }
+        JsonObject types = node.getChild("types").asObject();
+
+        if (entry.hasChild("value")) {
+            node.put(key, entry.getChild("value"));
+        } else {
+            node.removeChild(key);
+        }
+        if (entry.hasChild("type")) {
+            types.put(key, entry.getChild("type"));
+        } else {
+            types.removeChild(key);
+        }
+    }
+
+    /**
+     * Document reference lease. The lease does
+     * not keep its holder alive
+     */
+    static final class Lease extends WeakReference<Object> {
+
+        private final JsonDocument document;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Initialize the lease
+         *
+         * @param holder the reference holder
+         * @param document the leased document
+         */
+        private Lease(final Object holder, final JsonDocument document) {
+            super(holder, DROPPED);
+            this.document = document;
+        }
+
+        /**
+         * Release the leased reference
+         *
+         * @return if the reference was released, false
+         * if it was already released
+         */
+        boolean release() {
+            if (!released.compareAndSet(false, true)) return false;
+
+            LEASES.remove(this);
+            document.release();
+            return true;
+        }
+    }
+
+    /**
+     * Load a document from its file
+     *
+     * @param file the document file
+     * @return the document
+     * @throws CorruptDatabaseException if the document file
+     * is binary and cannot be decoded
+     */
+    public static JsonDocument load(final @NotNull Path file) throws CorruptDatabaseException {
+        byte[] data = new byte[0];
+        if (Files.exists(file)) {
+            data = PathUtilities.readBytes(file);
+        }
+
+        JsonObject root = read(file, data);
+        JsonDocument document = new JsonDocument(file, root);
+        document.format = (JsonBinaryCodec.isBinary(data) ? StorageFormat.BINARY : StorageFormat.JSON);
+        document.snapshotSize = data.length;
+
+        boolean compact = document.journal.replay((line) -> apply(root, line)) > 0;
+        if (!root.hasChild("types") || !root.getChild("types").isObjectType()) {
+            JsonObject typesObject = JsonObject.newObject("", "types");
+            typesObject.put("schemed", false);
+            root.put("types", typesObject);
+            compact = true;
+        }
+
+        if (compact) document.compact();
+        return document;
+    }
+
+    /**
+     * Read the tree of a document file
+     *
+     * @param file the document file
+     * @param data the file content
+     * @return the document tree
+     * @throws CorruptDatabaseException if the document file
+     * is binary and cannot be decoded
+     */
+    private static JsonObject read(final Path file, final byte[] data) throws CorruptDatabaseException {
+        if (JsonBinaryCodec.isBinary(data)) {
+            try {
+                return JsonBinaryCodec.decode(data);
+            } catch (IOException ex) {
+                throw new CorruptDatabaseException(file, ex); //Never compact over a document we could not read
+            }
+        }
+
+        String raw = new String(data, StandardCharsets.UTF_8);
+        if (raw.startsWith("{") && raw.endsWith("}")) {
+            return JsonReader.read(raw).asObject();
+        }
+
+        return JsonObject.newObject("", null);
+    }
+}
@@ -0,0 +1,238 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonNative;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * In-memory index of a table field. The index
+ * keeps a hash of the field values for equality
+ * lookups, and a sorted map of the numeric values
+ * for range lookups
+ */
+final class JsonIndex {
+
+    private final String field;
+
+    private final Map<String, Set<String>> hash = new HashMap<>();
+    private final Map<String, Set<String>> caseless = new HashMap<>();
+    private final NavigableMap<Double, Set<String>> sorted = new TreeMap<>();
+    private final Map<String, Object> values = new HashMap<>();
+    private final Set<String> rows = new LinkedHashSet<>();
+
+    private int stringRows = 0;
+    private int otherRows = 0;
+
+    /**
+     * Initialize the index
+     *
+     * @param field the indexed field
+     */
+    JsonIndex(final String field) {
+        this.field = field;
+    }
+
+    /**
+     * Get the indexed field
+     *
+     * @return the field
+     */
+    String getField() {
+        return field;
+    }
+
+    /**
+     * Update the indexed value of a row
+     *
+     * @param row the row
+     * @param value the row field value, or
+     *              null if the row does not have the field
+     * @param type the row field type name
+     */
+    synchronized void update(final String row, final @Nullable JsonInstance value, final @Nullable String type) {
+        remove(row);
+        rows.add(row);
+        if (value == null || !value.isNativeType()) return;
+
+        JsonNative primitive = value.asNative();
+        if (primitive.isString()) {
+            String string = primitive.getAsString();
+            values.put(row, string);
+            stringRows++;
+
+            bucket(hash, string).add(row);
+            bucket(caseless, fold(string)).add(row);
+            return;
+        }
+
+        if (primitive.isNumber()) {
+            Number number = typed(primitive.getAsNumber(), type);
+            values.put(row, number);
+
+            bucket(hash, canonical(number)).add(row);
+            sorted.computeIfAbsent(number.doubleValue(), (k) -> new HashSet<>()).add(row);
+            return;
+        }
+
+        values.put(row, primitive);
+        otherRows++;
+    }
+
+    /**
+     * Remove a row from the index
+     *
+     * @param row the row
+     */
+    synchronized void remove(final String row) {
+        if (!rows.remove(row)) return;
+
+        Object value = values.remove(row);
+        if (value instanceof String) {
+            String string = (String) value;
+            stringRows--;
+
+            unbucket(hash, string, row);
+            unbucket(caseless, fold(string), row);
+            return;
+        }
+
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            unbucket(hash, canonical(number), row);
+
+            Set<String> set = sorted.get(number.doubleValue());
+            if (set != null) {
+                set.remove(row);
+                if (set.isEmpty()) sorted.remove(number.doubleValue());
+            }
+            return;
+        }
+
+        if (value != null) otherRows--;
+    }
+
+    /**
+     * Get the rows whose value may match
+     * the operator. The result is always a superset
+     * of the rows that really match it
+     *
+     * @param operator the query operator
+     * @param value the query value
+     * @return the candidate rows, or null if the
+     * index cannot resolve the operator
+     */
+    synchronized Set<String> lookup(final String operator, final String value) {
+        if (otherRows > 0) return null;
+
+        switch (operator) {
+            case "=":
+                return equal(value);
+            case "~=":
+                if (!sorted.isEmpty()) return null;
+                return new HashSet<>(caseless.getOrDefault(fold(value), Collections.emptySet()));
+            case "<>": {
+                Set<String> result = new LinkedHashSet<>(rows);
+                result.removeAll(equal(value));
+                return result;
+            }
+            case ">":
+            case ">=":
+            case "<":
+            case "<=": {
+                if (stringRows > 0) return null;
+
+                double bound;
+                try {
+                    bound = Double.parseDouble(value.replace(",", "."));
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+
+                //Bounds are always inclusive, as precision is lost when comparing longs as doubles
+                NavigableMap<Double, Set<String>> range = (operator.startsWith(">") ? sorted.tailMap(bound, true) : sorted.headMap(bound, true));
+                Set<String> result = new HashSet<>();
+                for (Set<String> set : range.values()) result.addAll(set);
+
+                return result;
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get the amount of indexed rows
+     *
+     * @return the indexed rows
+     */
+    synchronized int size() {
+        return rows.size();
+    }
+
+    private Set<String> equal(final String value) {
+        Set<String> result = new HashSet<>(hash.getOrDefault(value, Collections.emptySet()));
+        try {
+            result.addAll(hash.getOrDefault(canonical(new BigDecimal(value.trim().replace(",", "."))), Collections.emptySet()));
+        } catch (NumberFormatException ignored) {}
+
+        return result;
+    }
+
+    private static Number typed(final Number number, final String type) {
+        if (type == null) return number;
+        switch (type) {
+            case "byte":
+            case "short":
+            case "integer":
+            case "long":
+                return number.longValue();
+            case "float":
+                return (double) number.floatValue();
+            case "double":
+                return number.doubleValue();
+            default:
+                return number;
+        }
+    }
+
+    /**
+     * Get the canonical form of a number, so
+     * the same value has the same index key no matter
+     * its type or how it's written (5, 5.0, 5.00)
+     *
+     * @param number the number
+     * @return the number index key
+     */
+    private static String canonical(final Number number) {
+        try {
+            BigDecimal decimal = (number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal(number.toString()));
+            return decimal.stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException ex) {
+            return String.valueOf(number); //NaN and infinite values
+        }
+    }
+
+    private static String fold(final String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+
+        return new String(chars);
+    }
+
+    private static Set<String> bucket(final Map<String, Set<String>> map, final String key) {
+        return map.computeIfAbsent(key, (k) -> new HashSet<>());
+    }
+
+    private static void unbucket(final Map<String, Set<String>> map, final String key, final String row) {
+        Set<String> set = map.get(key);
+        if (set == null) return;
+
+        set.remove(row);
+        if (set.isEmpty()) map.remove(key);
+    }
+}
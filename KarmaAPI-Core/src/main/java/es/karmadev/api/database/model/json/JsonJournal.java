@@ -0,0 +1,331 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.core.ExceptionCollector;
+import es.karmadev.api.file.util.PathUtilities;
+import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of a json document. Every
+ * recorded entry is a single json line, and entries
+ * recorded by many threads are written together by
+ * whichever thread commits first
+ */
+final class JsonJournal {
+
+    private final Path file;
+    private final List<String> pending = new ArrayList<>();
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    private long recorded = 0;
+    private volatile long committed = 0;
+    private volatile SyncPolicy policy = SyncPolicy.ALWAYS;
+    private volatile boolean unsynced = false;
+
+    private FileChannel channel;
+    private ScheduledFuture<?> syncTask;
+
+    /**
+     * Initialize the journal
+     *
+     * @param file the journal file
+     */
+    JsonJournal(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Set the journal sync policy
+     *
+     * @param policy the sync policy
+     * @param interval the sync interval in milliseconds, only
+     *                 used by {@link SyncPolicy#INTERVAL}
+     */
+    synchronized void setPolicy(final SyncPolicy policy, final long interval) {
+        this.policy = policy;
+        if (syncTask != null) {
+            syncTask.cancel(false);
+            syncTask = null;
+        }
+
+        if (policy.equals(SyncPolicy.INTERVAL)) {
+            long period = Math.max(1, interval);
+            syncTask = AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(this::sync, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Record a journal entry. The entry
+     * won't be written until the next commit
+     *
+     * @param line the entry
+     */
+    void record(final String line) {
+        synchronized (pending) {
+            pending.add(line);
+            recorded++;
+        }
+    }
+
+    /**
+     * Write all the recorded entries into
+     * the journal file. If another thread is already
+     * committing, this waits for it and only writes the
+     * entries which were left behind
+     *
+     * @return if the entries were written
+     */
+    boolean commit() {
+        long target;
+        synchronized (pending) {
+            target = recorded;
+        }
+        if (committed >= target) return true;
+
+        commitLock.lock();
+        try {
+            if (committed >= target) return true;
+
+            List<String> batch;
+            long last;
+            synchronized (pending) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                last = recorded;
+            }
+
+            try {
+                StringBuilder builder = new StringBuilder();
+                for (String line : batch) builder.append(line).append('\n');
+
+                ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+                FileChannel channel = channel();
+                while (buffer.hasRemaining()) channel.write(buffer);
+
+                if (policy.equals(SyncPolicy.ALWAYS)) {
+                    channel.force(false);
+                } else {
+                    unsynced = true;
+                }
+
+                committed = last;
+                return true;
+            } catch (IOException ex) {
+                synchronized (pending) {
+                    pending.addAll(0, batch);
+                }
+
+                ExceptionCollector.catchException(JsonJournal.class, ex);
+                return false;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Drop the recorded entries which
+     * were not committed yet
+     */
+    void rollback() {
+        commitLock.lock();
+        try {
+            synchronized (pending) {
+                pending.clear();
+                committed = recorded;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Replace the journal with a snapshot. The
+     * journal is truncated only if the snapshot could
+     * be written
+     *
+     * @param snapshot the snapshot writer
+     * @return if the snapshot was written
+     */
+    boolean compact(final BooleanSupplier snapshot) {
+        commitLock.lock();
+        try {
+            int covered;
+            long last;
+            synchronized (pending) {
+                covered = pending.size();
+                last = recorded;
+            }
+
+            if (!snapshot.getAsBoolean()) return false;
+            synchronized (pending) {
+                pending.subList(0, covered).clear();
+            }
+            committed = last;
+
+            if (channel != null) {
+                channel.truncate(0);
+                channel.force(false);
+                unsynced = false;
+            } else {
+                Files.deleteIfExists(file);
+            }
+
+            return true;
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonJournal.class, ex);
+            return false;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Fold the committed entries into the document
+     * file. The journal is cleared only if the file could
+     * be written, and the recorded entries which were not
+     * committed yet are kept
+     *
+     * @param writer the document file writer
+     * @return if the file was written
+     */
+    boolean fold(final BooleanSupplier writer) {
+        commitLock.lock();
+        try {
+            if (!writer.getAsBoolean()) return false;
+
+            if (channel != null) {
+                channel.truncate(0);
+                channel.force(false);
+                unsynced = false;
+            } else {
+                Files.deleteIfExists(file);
+            }
+
+            return true;
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonJournal.class, ex);
+            return false;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Get the journal size
+     *
+     * @return the journal size in bytes
+     */
+    long size() {
+        commitLock.lock();
+        try {
+            if (channel != null) return channel.size();
+            return (Files.exists(file) ? PathUtilities.getSize(file) : 0);
+        } catch (IOException ex) {
+            return 0;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Sync the written entries to
+     * the disk
+     */
+    void sync() {
+        if (!unsynced) return;
+
+        commitLock.lock();
+        try {
+            if (channel != null && unsynced) {
+                channel.force(false);
+                unsynced = false;
+            }
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonJournal.class, ex);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Commit the pending entries, sync them
+     * and close the journal
+     */
+    void close() {
+        synchronized (this) {
+            if (syncTask != null) {
+                syncTask.cancel(false);
+                syncTask = null;
+            }
+        }
+
+        commit();
+        commitLock.lock();
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+            unsynced = false;
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonJournal.class, ex);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Read all the entries of the journal
+     *
+     * @param reader the entry reader
+     * @return the amount of entries read
+     */
+    int replay(final Consumer<String> reader) {
+        if (!Files.exists(file)) return 0;
+
+        int read = 0;
+        try (BufferedReader stream = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = stream.readLine()) != null) {
+                if (line.isEmpty()) continue;
+
+                try {
+                    reader.accept(line);
+                    read++;
+                } catch (RuntimeException ex) {
+                    break; //Torn write of the last commit
+                }
+            }
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(JsonJournal.class, ex);
+        }
+
+        return read;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            PathUtilities.createPath(file);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        return channel;
+    }
+}
@@ -0,0 +1,140 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.database.model.json.query.GlobalTypeValue;
+import es.karmadev.api.database.model.json.query.Query;
+import es.karmadev.api.database.model.json.query.QueryPart;
+import es.karmadev.api.database.model.json.query.RawQuery;
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonNative;
+import es.karmadev.api.kson.JsonObject;
+
+import java.util.*;
+
+/**
+ * Json query planner. The planner resolves the
+ * candidate rows of a query from the table indexes, so
+ * only those rows need to be tested
+ */
+final class JsonQueryPlanner {
+
+    private final Query query;
+    private final boolean conjunction;
+    private final Set<String> fields = new HashSet<>();
+    private boolean allFields = false;
+
+    /**
+     * Initialize the planner
+     *
+     * @param query the query to plan
+     */
+    JsonQueryPlanner(final Query query) {
+        this.query = query;
+
+        boolean conjunction = true;
+        for (QueryPart part : query.getParts()) {
+            if (part.isOr()) conjunction = false;
+
+            if (part instanceof RawQuery) {
+                fields.add(((RawQuery) part).getKey());
+            } else {
+                allFields = true;
+            }
+        }
+
+        this.conjunction = conjunction;
+    }
+
+    /**
+     * Get the candidate rows of the query
+     *
+     * @param indexes the table indexes
+     * @return the candidate rows, or null if the
+     * table must be scanned
+     */
+    Set<String> candidates(final Map<String, JsonIndex> indexes) {
+        if (!conjunction || indexes.isEmpty()) return null;
+
+        List<Set<String>> matches = new ArrayList<>();
+        for (QueryPart part : query.getParts()) {
+            if (!(part instanceof RawQuery)) continue;
+
+            RawQuery raw = (RawQuery) part;
+            if (raw.isNullValue()) continue;
+
+            JsonIndex index = indexes.get(raw.getKey());
+            if (index == null) continue;
+
+            Set<String> rows = index.lookup(raw.getOperator(), raw.getValue());
+            if (rows != null) matches.add(rows);
+        }
+        if (matches.isEmpty()) return null;
+
+        matches.sort(Comparator.comparingInt(Set::size));
+        Set<String> result = matches.get(0);
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Test a row against the query
+     *
+     * @param row the row
+     * @return if the row matches the query
+     */
+    boolean test(final JsonObject row) {
+        Map<String, GlobalTypeValue<?>> values = new HashMap<>();
+        Collection<String> keys = fields;
+        if (allFields && row.hasChild("types") && row.getChild("types").isObjectType()) {
+            keys = new HashSet<>(fields);
+            keys.addAll(row.getChild("types").asObject().getKeys(false));
+        }
+
+        for (String key : keys) values.put(key, valueOf(row, key));
+        if (!conjunction) return query.test(values);
+
+        for (QueryPart part : query.getParts()) {
+            if (!part.test(values)) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the typed value of a row
+     * field
+     *
+     * @param row the row
+     * @param key the field
+     * @return the field value
+     */
+    private static GlobalTypeValue<?> valueOf(final JsonObject row, final String key) {
+        JsonInstance element = JsonDocument.fieldOf(row, key);
+        if (element == null || !element.isNativeType()) return GlobalTypeValue.of(null, String.class);
+
+        JsonNative primitive = element.asNative();
+        if (primitive.isBoolean()) return GlobalTypeValue.of(primitive.getAsBoolean(), Boolean.class);
+        if (!primitive.isNumber()) return GlobalTypeValue.of(primitive.getAsString(), String.class);
+
+        Number number = primitive.getAsNumber();
+        String type = JsonDocument.typeOf(row, key);
+        if (type == null) type = "double";
+
+        switch (type) {
+            case "byte":
+                return GlobalTypeValue.of(number.byteValue(), Byte.class);
+            case "short":
+                return GlobalTypeValue.of(number.shortValue(), Short.class);
+            case "integer":
+                return GlobalTypeValue.of(number.intValue(), Integer.class);
+            case "long":
+                return GlobalTypeValue.of(number.longValue(), Long.class);
+            case "float":
+                return GlobalTypeValue.of(number.floatValue(), Float.class);
+            default:
+                return GlobalTypeValue.of(number.doubleValue(), Double.class);
+        }
+    }
+}
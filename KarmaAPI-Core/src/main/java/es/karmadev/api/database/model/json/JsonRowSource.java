@@ -0,0 +1,130 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.database.result.RowSource;
+import es.karmadev.api.database.result.SimpleQueryResult;
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonNative;
+import es.karmadev.api.kson.JsonObject;
+
+import java.util.Iterator;
+
+/**
+ * Json table row source. Rows are read from
+ * the table object only when requested, and the
+ * row name is written as the "name" field unless the
+ * row already has a field with that name. Keys which
+ * are not child tables are skipped. Rows are read
+ * while holding the document lock, as the table is shared
+ * with the other connections
+ */
+final class JsonRowSource implements RowSource {
+
+    private final Object lock;
+    private final JsonObject table;
+    private final Iterator<String> rows;
+    private final JsonQueryPlanner planner;
+
+    private JsonObject next;
+    private String nextName;
+
+    /**
+     * Initialize the row source
+     *
+     * @param lock the document lock
+     * @param table the table object
+     * @param rows the table keys
+     * @param planner the query planner, or null to
+     *                read all the rows
+     */
+    JsonRowSource(final Object lock, final JsonObject table, final Iterator<String> rows, final JsonQueryPlanner planner) {
+        this.lock = lock;
+        this.table = table;
+        this.rows = rows;
+        this.planner = planner;
+    }
+
+    /**
+     * Get if the source has more rows
+     *
+     * @return if there are more rows
+     */
+    @Override
+    public boolean hasNext() {
+        synchronized (lock) {
+            while (next == null && rows.hasNext()) {
+                String name = rows.next();
+                if (!table.hasChild(name) || !"table".equals(JsonDocument.typeOf(table, name))) continue;
+
+                JsonInstance element = table.getChild(name);
+                if (!element.isObjectType()) continue;
+
+                JsonObject row = element.asObject();
+                if (planner != null && !planner.test(row)) continue;
+
+                next = row;
+                nextName = name;
+            }
+
+            return next != null;
+        }
+    }
+
+    /**
+     * Write the next row into the
+     * result builder
+     *
+     * @param builder the result builder
+     */
+    @Override
+    public void next(final SimpleQueryResult.QueryResultBuilder builder) {
+        synchronized (lock) {
+            if (!hasNext()) return;
+
+            JsonObject row = next;
+            next = null;
+
+            if (!row.hasChild("name")) builder.appendResult("name", nextName);
+            for (String key : row.getKeys(false)) {
+                if (key.equals("types")) continue;
+
+                JsonInstance element = row.getChild(key);
+                if (!element.isNativeType()) continue;
+
+                JsonNative primitive = element.asNative();
+                if (primitive.isBoolean()) {
+                    builder.appendResult(key, primitive.getAsBoolean());
+                    continue;
+                }
+                if (!primitive.isNumber()) {
+                    builder.appendResult(key, primitive.getAsString());
+                    continue;
+                }
+
+                Number number = primitive.getAsNumber();
+                String type = JsonDocument.typeOf(row, key);
+                if (type == null) type = "double";
+
+                switch (type) {
+                    case "byte":
+                        builder.appendResult(key, number.byteValue());
+                        break;
+                    case "short":
+                        builder.appendResult(key, number.shortValue());
+                        break;
+                    case "integer":
+                        builder.appendResult(key, number.intValue());
+                        break;
+                    case "long":
+                        builder.appendResult(key, number.longValue());
+                        break;
+                    case "float":
+                        builder.appendResult(key, number.floatValue());
+                        break;
+                    default:
+                        builder.appendResult(key, number.doubleValue());
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.core.ExceptionCollector;
+import es.karmadev.api.kson.JsonArray;
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonNative;
+import es.karmadev.api.kson.JsonObject;
+import es.karmadev.api.schedule.task.completable.late.LateTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Json document writer. All the asynchronous
+ * operations of a document run in order on the writer
+ * thread, and once the writer runs out of pending operations
+ * it publishes an immutable snapshot of the document for
+ * the readers. Snapshots are copy-on-write: only the rows
+ * which changed since the previous snapshot are copied, and
+ * the rest are shared with it
+ */
+final class JsonWriter {
+
+    private final JsonDocument document;
+    private final ExecutorService executor;
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final List<Runnable> completions = new ArrayList<>();
+    private final Set<String> changedKeys = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<String>> changedRows = new ConcurrentHashMap<>();
+    private final AtomicBoolean publishQueued = new AtomicBoolean(false);
+    private final LateTask<JsonObject> ready = new LateTask<>();
+
+    private volatile JsonObject snapshot;
+    private volatile boolean copyAll = true;
+    private boolean dirty = false;
+
+    /**
+     * Initialize the writer. The first snapshot
+     * is taken on the writer thread
+     *
+     * @param document the document to write
+     */
+    JsonWriter(final JsonDocument document) {
+        this.document = document;
+        this.executor = Executors.newSingleThreadExecutor((task) -> {
+            Thread thread = new Thread(task, "KarmaAPI json writer (" + document.getFile().getFileName() + ")");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        executor.execute(() -> {
+            dirty = true;
+            publish();
+        });
+    }
+
+    /**
+     * Get the latest document snapshot
+     *
+     * @return the document snapshot, or null if
+     * the first snapshot has not been taken yet
+     */
+    JsonObject snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the task which completes once the
+     * first snapshot has been taken
+     *
+     * @return the first snapshot task
+     */
+    LateTask<JsonObject> ready() {
+        return ready;
+    }
+
+    /**
+     * Mark a part of the document as changed, so
+     * the next snapshot copies it. Changes made outside
+     * the writer get published once the writer is idle
+     *
+     * @param path the path to the object that changed, or
+     *             null if the object cannot be addressed by path
+     * @param key the key that changed
+     */
+    void changed(final String[] path, final String key) {
+        if (path == null) {
+            copyAll = true;
+        } else if (path.length == 0) {
+            changedKeys.add(key);
+            changedKeys.add("types");
+        } else {
+            Set<String> rows = changedRows.computeIfAbsent(path[0], (k) -> ConcurrentHashMap.newKeySet());
+            if (path.length == 1) {
+                rows.add(key);
+                rows.add("types");
+            } else {
+                rows.add(path[1]);
+            }
+        }
+
+        if (pending.get() > 0 || !publishQueued.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                publishQueued.set(false);
+                dirty = true;
+                publish();
+            });
+        } catch (RejectedExecutionException ignored) {
+            publishQueued.set(false);
+        }
+    }
+
+    /**
+     * Submit an operation to the writer. The task
+     * gets completed once the operation has run and, if
+     * it changed the document, once its change is visible
+     * in the published snapshot
+     *
+     * @param action the operation to run
+     * @param mutates if the operation changes the document
+     * @param task the task to complete
+     * @param <T> the operation result type
+     */
+    <T> void submit(final Callable<T> action, final boolean mutates, final LateTask<T> task) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                T result = null;
+                Throwable error = null;
+                try {
+                    result = action.call();
+                } catch (Throwable ex) {
+                    error = ex;
+                }
+
+                T value = result;
+                Throwable failure = error;
+                completions.add(() -> task.complete(value, failure));
+                dirty |= mutates;
+
+                if (pending.decrementAndGet() == 0) publish();
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.decrementAndGet();
+            task.complete(null, new IllegalStateException("Cannot submit an operation to a closed json writer", ex));
+        }
+    }
+
+    /**
+     * Shut down the writer. The operations which
+     * are already pending still run
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Publish the document snapshot and
+     * complete the waiting tasks
+     */
+    private void publish() {
+        if (dirty) {
+            dirty = false;
+
+            try {
+                snapshot = copy();
+            } catch (RuntimeException ex) {
+                ExceptionCollector.catchException(JsonWriter.class, ex);
+            }
+            if (!ready.isComplete()) ready.complete(snapshot);
+        }
+
+        for (Runnable completion : completions) completion.run();
+        completions.clear();
+    }
+
+    /**
+     * Copy the document tree. The entries and table
+     * rows which did not change since the previous snapshot
+     * are shared with it, so only the changed rows are copied
+     * while holding the document lock
+     *
+     * @return the tree copy
+     */
+    private JsonObject copy() {
+        synchronized (document.lock()) {
+            JsonObject previous = snapshot;
+            boolean all = copyAll || previous == null;
+            copyAll = false;
+
+            JsonObject root = document.getRoot();
+            JsonObject copy = JsonObject.newObject("", null);
+            for (String key : root.getKeys(false)) {
+                JsonInstance element = root.getChild(key);
+                boolean modified = changedKeys.remove(key);
+                Set<String> rows = changedRows.remove(key);
+                if (all || modified || !previous.hasChild(key)) {
+                    copyEntry(copy, key, element);
+                    continue;
+                }
+                if (rows == null) {
+                    copy.put(key, previous.getChild(key));
+                    continue;
+                }
+
+                JsonInstance last = previous.getChild(key);
+                if (!element.isObjectType() || !last.isObjectType()) {
+                    copyEntry(copy, key, element);
+                    continue;
+                }
+
+                copy.put(key, copyRows(element.asObject(), last.asObject(), rows, JsonObject.newObject(copy.getPath(), key)));
+            }
+            changedKeys.clear();
+            changedRows.clear();
+
+            return copy;
+        }
+    }
+
+    private static JsonObject copyRows(final JsonObject source, final JsonObject previous, final Set<String> rows, final JsonObject target) {
+        for (String key : source.getKeys(false)) {
+            if (!rows.contains(key) && previous.hasChild(key)) {
+                target.put(key, previous.getChild(key));
+                continue;
+            }
+
+            copyEntry(target, key, source.getChild(key));
+        }
+
+        return target;
+    }
+
+    private static void copyEntry(final JsonObject target, final String key, final JsonInstance element) {
+        if (element.isObjectType()) {
+            target.put(key, copyObject(element.asObject(), JsonObject.newObject(target.getPath(), key)));
+            return;
+        }
+        if (element.isArrayType()) {
+            target.put(key, copyArray(element.asArray(), JsonArray.newArray(target.getPath(), key)));
+            return;
+        }
+
+        JsonNative primitive = element.asNative();
+        if (primitive.isBoolean()) {
+            target.put(key, primitive.getAsBoolean());
+        } else if (primitive.isNumber()) {
+            target.put(key, primitive.getAsNumber()); //Keeps the number type, and so its precision
+        } else {
+            target.put(key, primitive.getAsString());
+        }
+    }
+
+    private static JsonObject copyObject(final JsonObject source, final JsonObject target) {
+        for (String key : source.getKeys(false)) copyEntry(target, key, source.getChild(key));
+        return target;
+    }
+
+    private static JsonArray copyArray(final JsonArray source, final JsonArray target) {
+        int index = 0;
+        for (JsonInstance element : source) {
+            String key = String.valueOf(index++);
+            if (element.isObjectType()) {
+                target.add(copyObject(element.asObject(), JsonObject.newObject(target.getPath(), key)));
+                continue;
+            }
+            if (element.isArrayType()) {
+                target.add(copyArray(element.asArray(), JsonArray.newArray(target.getPath(), key)));
+                continue;
+            }
+
+            JsonNative primitive = element.asNative();
+            if (primitive.isBoolean()) {
+                target.add(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                target.add(primitive.getAsNumber());
+            } else {
+                target.add(primitive.getAsString());
+            }
+        }
+
+        return target;
+    }
+}
@@ -0,0 +1,363 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.database.DatabaseConnection;
+import es.karmadev.api.database.result.QueryResult;
+import es.karmadev.api.kson.JsonArray;
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonNative;
+import es.karmadev.api.kson.JsonObject;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * KarmaAPI read-only json connection. The root
+ * connection reads a memory-mapped database file, and
+ * only parses the tables and keys which are requested,
+ * so opening a big database does not load it whole
+ */
+@SuppressWarnings("unused")
+public class MappedJsonConnection implements DatabaseConnection {
+
+    private final MappedJsonDocument document;
+    private final JsonObject database;
+    /**
+     * -- GETTER --
+     *  Get the table name
+     */
+    @Getter
+    private final String table;
+    /**
+     * -- GETTER --
+     *  Get the parent connection
+     */
+    @Getter
+    private final MappedJsonConnection parent;
+
+    /**
+     * Initialize the root connection
+     *
+     * @param document the mapped document
+     */
+    MappedJsonConnection(final MappedJsonDocument document) {
+        this.document = document;
+        this.database = null;
+        this.table = null;
+        this.parent = null;
+    }
+
+    /**
+     * Initialize a table connection
+     *
+     * @param parent the parent connection
+     * @param table the table name
+     * @param database the table object
+     */
+    MappedJsonConnection(final MappedJsonConnection parent, final String table, final JsonObject database) {
+        this.document = null;
+        this.database = database;
+        this.table = table;
+        this.parent = parent;
+    }
+
+    /**
+     * Map a database file
+     *
+     * @param file the database file
+     * @return the mapped connection
+     * @throws IOException if the file cannot be mapped
+     */
+    public static MappedJsonConnection open(final Path file) throws IOException {
+        return new MappedJsonConnection(new MappedJsonDocument(file));
+    }
+
+    /**
+     * Return if the connection supports
+     * queries
+     *
+     * @return if the connection supports queries
+     */
+    @Override
+    public boolean querySupported() {
+        return false;
+    }
+
+    /**
+     * Execute a query
+     *
+     * @param query the query to run
+     * @return the query
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public QueryResult execute(final String query) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("JSON does not support queries");
+    }
+
+    /**
+     * Get if the database has the specified table
+     *
+     * @param name the table name
+     * @return if the database has the table
+     */
+    public boolean hasTable(final String name) {
+        return isSet(name) && getType(name).equals("table");
+    }
+
+    /**
+     * Get a table
+     *
+     * @param name the table name
+     * @return the table connection, or null if
+     * there's no such table
+     */
+    public @Nullable MappedJsonConnection getTable(final String name) {
+        JsonInstance element = resolve(name);
+        if (element == null || !element.isObjectType()) return null;
+
+        return new MappedJsonConnection(this, name, element.asObject());
+    }
+
+    /**
+     * Release the memory used by a top-level table
+     * or key. The value will be parsed again if it's
+     * requested later
+     *
+     * @param name the table or key name
+     */
+    public void release(final String name) {
+        if (document != null) document.release(name);
+    }
+
+    /**
+     * Close the connection, releasing all the
+     * parsed values. The mapped file is unmapped once
+     * the connection is no longer referenced
+     */
+    @Override
+    public void close() {
+        if (document != null) document.clear();
+    }
+
+    /**
+     * Get a map
+     *
+     * @param key the map key
+     * @return the map
+     */
+    public Map<String, Object> getMap(final String key) {
+        JsonInstance element = resolve(key);
+        if (element == null) return null;
+
+        if (getType(key).equals("map")) {
+            return element.getTree();
+        }
+
+        return null;
+    }
+
+    /**
+     * Get a string
+     *
+     * @param key the string key
+     * @return the string
+     */
+    public String getString(final String key) {
+        JsonNative primitive = getPrimitive(key);
+        if (primitive == null) return null;
+
+        if (primitive.isString()) return primitive.getAsString();
+        return null;
+    }
+
+    /**
+     * Get a number
+     *
+     * @param key the number key
+     * @return the number
+     */
+    public Number getNumber(final String key) {
+        JsonNative primitive = getPrimitive(key);
+        if (primitive == null) return null;
+
+        if (primitive.isNumber()) return primitive.getAsNumber();
+        return null;
+    }
+
+    /**
+     * Get a boolean
+     *
+     * @param key the boolean key
+     * @return the boolean
+     */
+    public boolean getBoolean(final String key) {
+        JsonNative primitive = getPrimitive(key);
+        if (primitive == null) return false;
+
+        if (primitive.isBoolean()) return primitive.asBoolean();
+        return false;
+    }
+
+    /**
+     * Get a list of strings
+     *
+     * @param key the list key
+     * @return the list
+     */
+    public List<String> getStringList(final String key) {
+        JsonArray array = getArray(key);
+        if (array == null) return null;
+
+        List<String> strings = new ArrayList<>();
+        for (JsonInstance child : array) {
+            if (!child.isNativeType()) continue;
+            JsonNative primitive = child.asNative();
+
+            if (!primitive.isString()) continue;
+            strings.add(primitive.getAsString());
+        }
+
+        return strings;
+    }
+
+    /**
+     * Get a list of numbers
+     *
+     * @param key the list key
+     * @return the list
+     */
+    public List<Number> getNumberList(final String key) {
+        JsonArray array = getArray(key);
+        if (array == null) return null;
+
+        List<Number> numbers = new ArrayList<>();
+        for (JsonInstance child : array) {
+            if (!child.isNativeType()) continue;
+            JsonNative primitive = child.asNative();
+
+            if (!primitive.isNumber()) continue;
+            numbers.add(primitive.getAsNumber());
+        }
+
+        return numbers;
+    }
+
+    /**
+     * Get a list of booleans
+     *
+     * @param key the list key
+     * @return the list
+     */
+    public List<Boolean> getBooleanList(final String key) {
+        JsonArray array = getArray(key);
+        if (array == null) return null;
+
+        List<Boolean> booleans = new ArrayList<>();
+        for (JsonInstance child : array) {
+            if (!child.isNativeType()) continue;
+            JsonNative primitive = child.asNative();
+
+            if (!primitive.isBoolean()) continue;
+            booleans.add(primitive.getAsBoolean());
+        }
+
+        return booleans;
+    }
+
+    /**
+     * Get a list of tables
+     *
+     * @param key the list key
+     * @return the list
+     */
+    public List<MappedJsonConnection> getTableList(final String key) {
+        JsonArray array = getArray(key);
+        if (array == null) return null;
+
+        List<MappedJsonConnection> tables = new ArrayList<>();
+        for (JsonInstance child : array) {
+            if (!child.isObjectType()) continue;
+            JsonObject object = child.asObject();
+
+            if (!object.hasChild("name")) continue;
+            String tableName = object.getChild("name").asString();
+
+            tables.add(new MappedJsonConnection(this, tableName, object));
+        }
+
+        return tables;
+    }
+
+    /**
+     * Get the type of the field key
+     *
+     * @param key the key
+     * @return the key type
+     */
+    public String getType(final String key) {
+        JsonInstance types = resolve("types");
+        if (types == null || !types.isObjectType()) return "null";
+
+        JsonObject typesObject = types.asObject();
+        if (typesObject.hasChild(key) && typesObject.getChild(key).isNativeType()) {
+            return typesObject.getChild(key).asString();
+        }
+
+        return "null";
+    }
+
+    /**
+     * Get if the key is set
+     *
+     * @param key the key
+     * @return if the key is set
+     */
+    public boolean isSet(final String key) {
+        if (document != null) return document.hasKey(key);
+        return database.hasChild(key);
+    }
+
+    /**
+     * Get all the database keys
+     *
+     * @return the database keys
+     */
+    public Collection<String> getKeys() {
+        JsonInstance types = resolve("types");
+        if (types == null || !types.isObjectType()) return Collections.emptyList();
+
+        return types.asObject().getKeys(true);
+    }
+
+    /**
+     * Resolve the value of a key. On the root
+     * connection, this parses the key value if it
+     * has not been parsed yet
+     *
+     * @param key the key
+     * @return the key value
+     */
+    private JsonInstance resolve(final String key) {
+        if (document != null) return document.get(key);
+        if (!database.hasChild(key)) return null;
+
+        return database.getChild(key);
+    }
+
+    private JsonArray getArray(final String key) {
+        JsonInstance element = resolve(key);
+        if (element == null || !element.isArrayType()) return null;
+
+        return element.asArray();
+    }
+
+    private JsonNative getPrimitive(final String key) {
+        JsonInstance element = resolve(key);
+        if (element == null || !element.isNativeType()) return null;
+
+        return element.asNative();
+    }
+}
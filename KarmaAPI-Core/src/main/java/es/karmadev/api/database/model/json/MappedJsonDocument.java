@@ -0,0 +1,370 @@
+package es.karmadev.api.database.model.json;
+
+import es.karmadev.api.kson.JsonInstance;
+import es.karmadev.api.kson.JsonObject;
+import es.karmadev.api.kson.io.JsonReader;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-mapped json document. When opened, the
+ * document only indexes the offsets of its top-level
+ * keys; the value of a key is parsed the first time it's
+ * requested. Documents are mapped as a single buffer,
+ * so files bigger than 2GB cannot be mapped.
+ * <p>
+ * Some systems don't allow replacing a file while it's
+ * mapped, so before a snapshot replaces the document file
+ * the open documents of that file are {@link #detach(Path) detached}:
+ * their content is copied into memory and the mapping is released
+ */
+final class MappedJsonDocument {
+
+    private final static Map<Path, Set<MappedJsonDocument>> open = new ConcurrentHashMap<>();
+    private final static Method UNMAP = unmapMethod();
+    private final static Object UNSAFE = unsafe();
+
+    private final Path file;
+    private final String[] dictionary;
+    private final Map<String, int[]> offsets = new LinkedHashMap<>();
+    private final Map<String, JsonInstance> parsed = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock access = new ReentrantReadWriteLock();
+
+    private volatile ByteBuffer buffer;
+
+    /**
+     * Initialize the mapped document
+     *
+     * @param file the document file
+     * @throws IOException if the document cannot be mapped
+     */
+    MappedJsonDocument(final Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Cannot map json document " + file + " because it's bigger than 2GB");
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.buffer = mapped;
+        }
+
+        byte[] header = new byte[Math.min(buffer.limit(), 5)];
+        buffer.duplicate().get(header);
+
+        try {
+            if (JsonBinaryCodec.isBinary(header)) {
+                ByteBuffer view = buffer.duplicate();
+                dictionary = JsonBinaryCodec.readDictionary(view);
+                indexBinary(view);
+            } else {
+                dictionary = null;
+                indexText();
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("Truncated json document " + file, ex);
+        }
+
+        open.computeIfAbsent(key(file), (k) -> Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()))).add(this);
+    }
+
+    /**
+     * Detach the open documents of a file from
+     * the file. Their content is copied into memory and
+     * their mapping is released, so the file can be replaced
+     *
+     * @param file the document file
+     */
+    static void detach(final Path file) {
+        Set<MappedJsonDocument> documents = open.remove(key(file));
+        if (documents == null) return;
+
+        List<MappedJsonDocument> copy;
+        synchronized (documents) {
+            copy = new ArrayList<>(documents);
+        }
+
+        for (MappedJsonDocument document : copy) document.toHeap();
+    }
+
+    /**
+     * Get the document file
+     *
+     * @return the document file
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the top-level keys
+     *
+     * @return the document keys
+     */
+    Collection<String> getKeys() {
+        return Collections.unmodifiableSet(offsets.keySet());
+    }
+
+    /**
+     * Get if the document has the
+     * top-level key
+     *
+     * @param key the key
+     * @return if the document has the key
+     */
+    boolean hasKey(final String key) {
+        return offsets.containsKey(key);
+    }
+
+    /**
+     * Get the value of a top-level key. The
+     * value is parsed the first time it's requested
+     *
+     * @param key the key
+     * @return the value, or null if there's no such key
+     * @throws IllegalStateException if the value cannot be parsed
+     */
+    JsonInstance get(final String key) throws IllegalStateException {
+        int[] offset = offsets.get(key);
+        if (offset == null) return null;
+
+        return parsed.computeIfAbsent(key, (k) -> parse(k, offset));
+    }
+
+    /**
+     * Release the parsed value of a key, so
+     * its memory can be reclaimed
+     *
+     * @param key the key
+     */
+    void release(final String key) {
+        parsed.remove(key);
+    }
+
+    /**
+     * Release all the parsed values
+     */
+    void clear() {
+        parsed.clear();
+    }
+
+    private JsonInstance parse(final String key, final int[] offset) {
+        access.readLock().lock(); //The mapping must not be released while we read it
+        try {
+            return parseLocked(key, offset);
+        } finally {
+            access.readLock().unlock();
+        }
+    }
+
+    private JsonInstance parseLocked(final String key, final int[] offset) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset[0]);
+
+        JsonObject holder = JsonObject.newObject("", null);
+        try {
+            if (dictionary != null) {
+                JsonBinaryCodec.readEntry(view, offset[2], holder, key, dictionary);
+            } else {
+                byte[] raw = new byte[offset[1] - offset[0]];
+                view.get(raw);
+
+                String escaped = key.replace("\\", "\\\\").replace("\"", "\\\"");
+                holder = JsonReader.read("{\"" + escaped + "\":" + new String(raw, StandardCharsets.UTF_8) + "}").asObject();
+            }
+        } catch (IOException | RuntimeException ex) {
+            throw new IllegalStateException("Cannot read key " + key + " of json document " + file, ex);
+        }
+
+        return holder.getChild(key);
+    }
+
+    private void indexBinary(final ByteBuffer view) throws IOException {
+        if (!JsonBinaryCodec.isObject(view.get())) throw new IOException("Invalid binary json document root of " + file);
+
+        int size = JsonBinaryCodec.readVarInt(view);
+        for (int i = 0; i < size; i++) {
+            String key = dictionary[JsonBinaryCodec.readVarInt(view)];
+            int tag = view.get();
+            int start = view.position();
+
+            JsonBinaryCodec.skip(view, tag);
+            offsets.put(key, new int[]{start, view.position(), tag});
+        }
+    }
+
+    private void indexText() throws IOException {
+        int limit = buffer.limit();
+        int position = skipWhitespace(0);
+        if (position >= limit) return;
+        if (buffer.get(position) != '{') throw new IOException("Invalid json document root of " + file);
+
+        position = skipWhitespace(position + 1);
+        while (position < limit && buffer.get(position) != '}') {
+            if (buffer.get(position) != '"') throw new IOException("Invalid json document key at " + position + " of " + file);
+
+            int keyEnd = skipString(position);
+            String key = slice(position + 1, keyEnd - 1);
+            if (key.indexOf('\\') != -1) {
+                key = JsonReader.read("{" + slice(position, keyEnd) + ":0}").asObject().getKeys(false).iterator().next();
+            }
+
+            position = skipWhitespace(keyEnd);
+            if (buffer.get(position) != ':') throw new IOException("Invalid json document entry at " + position + " of " + file);
+
+            int start = skipWhitespace(position + 1);
+            int end = skipValue(start);
+            offsets.put(key, new int[]{start, end, buffer.get(start)});
+
+            position = skipWhitespace(end);
+            if (position < limit && buffer.get(position) == ',') position = skipWhitespace(position + 1);
+        }
+    }
+
+    private int skipValue(final int start) {
+        byte first = buffer.get(start);
+        if (first == '"') return skipString(start);
+
+        int limit = buffer.limit();
+        if (first != '{' && first != '[') {
+            int position = start;
+            while (position < limit) {
+                byte current = buffer.get(position);
+                if (current == ',' || current == '}' || current == ']' || isWhitespace(current)) break;
+                position++;
+            }
+
+            return position;
+        }
+
+        int depth = 0;
+        int position = start;
+        while (position < limit) {
+            byte current = buffer.get(position);
+            if (current == '"') {
+                position = skipString(position);
+                continue;
+            }
+
+            if (current == '{' || current == '[') depth++;
+            if (current == '}' || current == ']') {
+                if (--depth == 0) return position + 1;
+            }
+            position++;
+        }
+
+        return position;
+    }
+
+    private int skipString(final int start) {
+        int limit = buffer.limit();
+        int position = start + 1;
+        while (position < limit) {
+            byte current = buffer.get(position);
+            if (current == '\\') {
+                position += 2;
+                continue;
+            }
+            if (current == '"') return position + 1;
+            position++;
+        }
+
+        return position;
+    }
+
+    private int skipWhitespace(final int start) {
+        int position = start;
+        while (position < buffer.limit() && isWhitespace(buffer.get(position))) position++;
+
+        return position;
+    }
+
+    private String slice(final int start, final int end) {
+        byte[] raw = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(raw);
+
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copy the document content into memory
+     * and release the file mapping
+     */
+    private void toHeap() {
+        access.writeLock().lock();
+        try {
+            ByteBuffer mapped = buffer;
+            if (!(mapped instanceof MappedByteBuffer)) return;
+
+            ByteBuffer heap = ByteBuffer.allocate(mapped.limit());
+            heap.put(mapped.duplicate());
+            heap.flip();
+
+            buffer = heap;
+            unmap(mapped);
+        } finally {
+            access.writeLock().unlock();
+        }
+    }
+
+    private static void unmap(final ByteBuffer mapped) {
+        if (UNMAP == null) return; //Released once the buffer is collected
+
+        try {
+            if (UNSAFE != null) {
+                UNMAP.invoke(UNSAFE, mapped);
+            } else {
+                Method cleaner = mapped.getClass().getMethod("cleaner");
+                cleaner.setAccessible(true);
+
+                Object instance = cleaner.invoke(mapped);
+                if (instance != null) UNMAP.invoke(instance);
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignored) {}
+    }
+
+    private static Method unmapMethod() {
+        try {
+            return Class.forName("sun.misc.Unsafe").getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            try {
+                return Class.forName("sun.misc.Cleaner").getMethod("clean"); //Java 8
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static Object unsafe() {
+        if (UNMAP == null || !UNMAP.getName().equals("invokeCleaner")) return null;
+
+        try {
+            Field field = UNMAP.getDeclaringClass().getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static Path key(final Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static boolean isWhitespace(final byte value) {
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+}
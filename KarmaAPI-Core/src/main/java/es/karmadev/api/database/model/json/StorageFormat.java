@@ -0,0 +1,17 @@
+package es.karmadev.api.database.model.json;
+
+/**
+ * Json database storage format
+ */
+public enum StorageFormat {
+    /**
+     * The document is stored as json
+     * text
+     */
+    JSON,
+    /**
+     * The document is stored in a compact
+     * binary encoding
+     */
+    BINARY
+}
@@ -0,0 +1,22 @@
+package es.karmadev.api.database.model.json;
+
+/**
+ * Json database journal sync policy
+ */
+public enum SyncPolicy {
+    /**
+     * The journal is synced to disk
+     * on every commit
+     */
+    ALWAYS,
+    /**
+     * The journal is synced to disk
+     * periodically
+     */
+    INTERVAL,
+    /**
+     * The journal is only synced to disk
+     * when the document gets closed
+     */
+    CLOSE
+}
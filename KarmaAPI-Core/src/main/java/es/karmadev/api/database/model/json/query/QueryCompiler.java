@@ -0,0 +1,122 @@
+package es.karmadev.api.database.model.json.query;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Query compiler. Queries are parsed into
+ * immutable parts only once, and kept in a
+ * least recently used cache by their text, so
+ * running the same query again is free of
+ * parsing
+ */
+public final class QueryCompiler {
+
+    private final static int CACHE_SIZE = 256;
+    private final static Map<String, List<QueryPart>> cache = Collections.synchronizedMap(new LinkedHashMap<String, List<QueryPart>>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, List<QueryPart>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    private QueryCompiler() {}
+
+    /**
+     * Compile a query. A query is a list of
+     * parts such as <code>'key' = 'value'</code> joined
+     * by <code>and</code> or <code>or</code>
+     *
+     * @param query the query text
+     * @return the compiled query
+     * @throws IllegalStateException if the query syntax is not valid
+     */
+    public static Query compile(final @NotNull String query) throws IllegalStateException {
+        List<QueryPart> parts = cache.get(query);
+        if (parts == null) {
+            parts = Collections.unmodifiableList(parse(query));
+            cache.put(query, parts);
+        }
+
+        return new SimpleQuery(parts);
+    }
+
+    /**
+     * Clear the compiled queries cache
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Get the amount of cached queries
+     *
+     * @return the cached queries
+     */
+    public static int cached() {
+        return cache.size();
+    }
+
+    /**
+     * Parse the query parts
+     *
+     * @param query the query text
+     * @return the query parts
+     * @throws IllegalStateException if the query syntax is not valid
+     */
+    private static List<QueryPart> parse(final String query) throws IllegalStateException {
+        List<String> contents = new ArrayList<>();
+
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char character = query.charAt(i);
+            if (character == '\'') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted || !Character.isWhitespace(character) || i <= start) continue;
+
+            int next = i + 1;
+            while (next < query.length() && Character.isWhitespace(query.charAt(next))) next++;
+
+            int length = connectorLength(query, next);
+            if (length > 0) {
+                contents.add(query.substring(start, i).trim());
+                start = next;
+                i = next + length - 1;
+            }
+        }
+        if (quoted) throw new IllegalStateException("Invalid query syntax, unclosed quote at: " + query);
+
+        String last = query.substring(start).trim();
+        if (!last.isEmpty()) contents.add(last);
+        if (contents.isEmpty()) throw new IllegalStateException("Invalid query syntax, empty query");
+
+        List<QueryPart> parts = new ArrayList<>();
+        boolean single = contents.size() == 1;
+        for (String content : contents) {
+            String lower = content.toLowerCase();
+            boolean and = lower.startsWith("and");
+            boolean or = !and && lower.startsWith("or");
+
+            parts.add(new RawQuery(content, and, or, single));
+        }
+
+        return parts;
+    }
+
+    private static int connectorLength(final String query, final int index) {
+        for (String connector : new String[]{"and", "or"}) {
+            int end = index + connector.length();
+            if (end >= query.length()) continue;
+            if (!query.regionMatches(true, index, connector, 0, connector.length())) continue;
+
+            char after = query.charAt(end);
+            if (Character.isWhitespace(after) || after == '\'') return connector.length();
+        }
+
+        return 0;
+    }
+}
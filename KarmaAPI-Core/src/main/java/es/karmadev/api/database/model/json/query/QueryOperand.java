@@ -0,0 +1,86 @@
+package es.karmadev.api.database.model.json.query;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Query part operand. The operand literal is
+ * parsed once, so the typed values can be compared
+ * directly when testing the part
+ */
+@Getter
+@ToString @EqualsAndHashCode
+public final class QueryOperand {
+
+    /**
+     * -- GETTER --
+     *  Get the operand text, without
+     *  the string quotes
+     */
+    private final String text;
+    /**
+     * -- GETTER --
+     *  Get if the operand is the null literal
+     */
+    private final boolean nullValue;
+    /**
+     * -- GETTER --
+     *  Get the operand boolean value
+     */
+    private final boolean booleanValue;
+    /**
+     * -- GETTER --
+     *  Get the operand long value, or null
+     *  if the operand is not an integer
+     */
+    private final Long longValue;
+    /**
+     * -- GETTER --
+     *  Get the operand double value, or null
+     *  if the operand is not a number
+     */
+    private final Double doubleValue;
+
+    /**
+     * Initialize the operand
+     *
+     * @param text the operand text
+     * @param nullValue if the operand is null
+     */
+    private QueryOperand(final String text, final boolean nullValue) {
+        this.text = text;
+        this.nullValue = nullValue;
+        this.booleanValue = Boolean.parseBoolean(text.replace("1", "true"));
+
+        Long longValue = null;
+        Double doubleValue = null;
+        if (!nullValue) {
+            try {
+                longValue = Long.parseLong(text);
+            } catch (NumberFormatException ignored) {}
+            try {
+                doubleValue = Double.parseDouble(text.replace(",", "."));
+            } catch (NumberFormatException ignored) {}
+        }
+
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+    }
+
+    /**
+     * Parse an operand literal
+     *
+     * @param literal the literal, as written in
+     *                the query
+     * @return the operand
+     */
+    public static QueryOperand parse(final String literal) {
+        if (literal.length() > 1 && literal.startsWith("'") && literal.endsWith("'")) {
+            return new QueryOperand(literal.substring(1, literal.length() - 1), false);
+        }
+        if (literal.equalsIgnoreCase("null")) return new QueryOperand("null", true);
+
+        return new QueryOperand(literal, false);
+    }
+}
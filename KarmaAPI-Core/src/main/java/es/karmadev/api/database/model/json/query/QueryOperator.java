@@ -0,0 +1,96 @@
+package es.karmadev.api.database.model.json.query;
+
+/**
+ * Query part comparison operators. Some
+ * operators have a different meaning when
+ * testing strings and numbers
+ */
+public enum QueryOperator {
+    /**
+     * Equals
+     */
+    EQUALS("="),
+    /**
+     * Equals ignoring case
+     */
+    EQUALS_IGNORE_CASE("~="),
+    /**
+     * Not equals
+     */
+    NOT_EQUALS("<>"),
+    /**
+     * Not equals ignoring case
+     */
+    NOT_EQUALS_IGNORE_CASE("!>"),
+    /**
+     * Greater than, or contains
+     * for strings
+     */
+    GREATER(">"),
+    /**
+     * Lower than, or does not
+     * contain for strings
+     */
+    LOWER("<"),
+    /**
+     * Contains ignoring case
+     */
+    CONTAINS_IGNORE_CASE("~>"),
+    /**
+     * Does not contain ignoring case
+     */
+    NOT_CONTAINS_IGNORE_CASE("~<"),
+    /**
+     * Greater or equal than, or starts
+     * with for strings
+     */
+    GREATER_OR_EQUAL(">="),
+    /**
+     * Starts with ignoring case
+     */
+    STARTS_IGNORE_CASE(">~"),
+    /**
+     * Lower or equal than, or ends
+     * with for strings
+     */
+    LOWER_OR_EQUAL("<="),
+    /**
+     * Ends with ignoring case
+     */
+    ENDS_IGNORE_CASE("<~");
+
+    private final String symbol;
+
+    /**
+     * Initialize the operator
+     *
+     * @param symbol the operator symbol
+     */
+    QueryOperator(final String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Get the operator symbol
+     *
+     * @return the symbol
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Get an operator by its symbol
+     *
+     * @param symbol the operator symbol
+     * @return the operator
+     * @throws IllegalArgumentException if the symbol is not an operator
+     */
+    public static QueryOperator of(final String symbol) throws IllegalArgumentException {
+        for (QueryOperator operator : values()) {
+            if (operator.symbol.equals(symbol)) return operator;
+        }
+
+        throw new IllegalArgumentException("Unknown query operator: " + symbol);
+    }
+}
@@ -1,6 +1,5 @@
 package es.karmadev.api.database.model.json.query;
 
-import es.karmadev.api.strings.StringUtils;
 import lombok.*;
 
 import java.util.Map;
@@ -8,20 +7,65 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Raw query
+ * Raw query. The part content is parsed when
+ * the part is created, so a part is immutable and
+ * can be shared between threads
  */
-@Getter @RequiredArgsConstructor
+@Getter
 @ToString @EqualsAndHashCode
 public class RawQuery implements QueryPart {
 
-    private final static String DEFAULT_NULL_VALUE = StringUtils.generateString();
+    private final static Pattern KEY_VALUE_PATTERN = Pattern.compile("\\s*'([^']*)'\\s*(=|~=|!>|~>|~<|>=|<=|>~|<~|<>|>|<)\\s*('[^']*'|null|true|false|[+-]?\\d+[,.]?e?\\d*)", Pattern.CASE_INSENSITIVE);
 
     private final String content;
     private final boolean and;
     private final boolean or;
     private final boolean single;
 
-    private Matcher storedMatcher;
+    /**
+     * -- GETTER --
+     *  Get the part comparison operator
+     */
+    private final QueryOperator comparator;
+    /**
+     * -- GETTER --
+     *  Get the part operand
+     */
+    private final QueryOperand operand;
+    private final String key;
+
+    /**
+     * Initialize the raw query
+     *
+     * @param content the part content
+     * @param and if the part is an and part
+     * @param or if the part is an or part
+     * @param single if the part is a single part
+     * @throws IllegalStateException if the part content is not valid
+     */
+    public RawQuery(final String content, final boolean and, final boolean or, final boolean single) throws IllegalStateException {
+        this.content = content;
+        this.and = and;
+        this.or = or;
+        this.single = single;
+
+        String useContent = content;
+        if (content.toLowerCase().startsWith("and")) {
+            useContent = content.substring(3);
+        }
+        if (content.toLowerCase().startsWith("or")) {
+            useContent = content.substring(2);
+        }
+
+        Matcher matcher = KEY_VALUE_PATTERN.matcher(useContent);
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Invalid query syntax at: " + content);
+        }
+
+        this.key = matcher.group(1);
+        this.comparator = QueryOperator.of(matcher.group(2));
+        this.operand = QueryOperand.parse(matcher.group(3));
+    }
 
     /**
      * Test the part
@@ -31,250 +75,175 @@ public class RawQuery implements QueryPart {
      */
     @Override
     public boolean test(final Map<String, GlobalTypeValue<?>> tests) {
-        String key = getKey();
         GlobalTypeValue<?> existingValue = tests.get(key);
-        String comparator = getOperator();
-        String value = getValue();
+        Class<?> type = existingValue.getType();
+        Object value = existingValue.getValue();
+
+        if (type.equals(String.class)) {
+            return checkString((String) value);
+        } else if (type.equals(Boolean.class)) {
+            return checkBoolean((Boolean) value);
+        } else if (type.equals(Byte.class) || type.equals(Short.class) || type.equals(Integer.class) || type.equals(Long.class)) {
+            return checkNumber((Number) value, false);
+        }
 
-        if (existingValue.getType().equals(String.class)) {
-            String stringValue = (String) existingValue.getValue();
-            return checkString(value, stringValue, comparator);
-        } else if (existingValue.getType().equals(Boolean.class)) {
-            Boolean booleanValue = (Boolean) existingValue.getValue();
-            boolean match = booleanValue != null &&
-                    booleanValue.equals(Boolean.parseBoolean(value.replace("1", "true")));
+        return checkNumber((Number) value, true);
+    }
 
+    private boolean checkString(final String string) {
+        if (string == null) {
             switch (comparator) {
-                case "=":
-                    if (booleanValue == null) {
-                        return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                    }
-
-                    return match;
-                case "<>":
-                    if (booleanValue == null) {
-                        return !value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                    }
+                case NOT_EQUALS:
+                case NOT_EQUALS_IGNORE_CASE:
+                    return !operand.isNullValue();
+                default:
+                    return operand.isNullValue();
+            }
+        }
 
-                    return !match;
-                case ">":
-                case "<":
-                case ">=":
-                case "<=":
+        String value = operand.getText();
+        if (operand.isNullValue()) {
+            switch (comparator) {
+                case NOT_EQUALS:
+                case NOT_EQUALS_IGNORE_CASE:
+                case LOWER:
+                case NOT_CONTAINS_IGNORE_CASE:
+                    return true;
+                default:
                     return false;
             }
-        } else if (existingValue.getType().equals(Byte.class)) {
-            Byte byteValue = (Byte) existingValue.getValue();
-            return checkNumber(value, byteValue.longValue(), comparator);
-        } else if (existingValue.getType().equals(Short.class)) {
-            Short shortValue = (Short) existingValue.getValue();
-            return checkNumber(value, shortValue.longValue(), comparator);
-        } else if (existingValue.getType().equals(Integer.class)) {
-            Integer intValue = (Integer) existingValue.getValue();
-            return checkNumber(value, intValue.longValue(), comparator);
-        } else if (existingValue.getType().equals(Long.class)) {
-            Long longValue = (Long) existingValue.getValue();
-            return checkNumber(value, longValue, comparator);
-        } else if (existingValue.getType().equals(Float.class)) {
-            Float floatValue = (Float) existingValue.getValue();
-            return checkNumber(value, floatValue.doubleValue(), comparator);
-        } else {
-            Double doubleValue = (Double) existingValue.getValue();
-            return checkNumber(value, doubleValue, comparator);
         }
 
-        return false;
-    }
-
-    private boolean checkString(final String value, final String string, final String comparator) {
         switch (comparator) {
-            case "=":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case EQUALS:
                 return string.equals(value);
-            case "~=":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case EQUALS_IGNORE_CASE:
                 return string.equalsIgnoreCase(value);
-            case "<>":
-                if (string == null) {
-                    return !value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case NOT_EQUALS:
                 return !string.equals(value);
-            case "!>":
-                if (string == null) {
-                    return !value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case NOT_EQUALS_IGNORE_CASE:
                 return !string.equalsIgnoreCase(value);
-            case ">":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case GREATER:
                 return string.contains(value);
-            case "<":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case LOWER:
                 return !string.contains(value);
-            case "~>":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case CONTAINS_IGNORE_CASE:
                 return string.toLowerCase().contains(value.toLowerCase());
-            case "~<":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case NOT_CONTAINS_IGNORE_CASE:
                 return !string.toLowerCase().contains(value.toLowerCase());
-            case ">=":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case GREATER_OR_EQUAL:
                 return string.startsWith(value);
-            case ">~":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case STARTS_IGNORE_CASE:
                 return string.toLowerCase().startsWith(value.toLowerCase());
-            case "<=":
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
+            case LOWER_OR_EQUAL:
                 return string.endsWith(value);
-            case "<~":
+            case ENDS_IGNORE_CASE:
             default:
-                if (string == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
                 return string.toLowerCase().endsWith(value.toLowerCase());
         }
     }
 
-    private boolean checkNumber(final String value, final Double number, final String comparator) {
-        switch (comparator) {
-            case "=":
-                if (number == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
-
-                return String.valueOf(number).equals(value.replace(",", "."));
-            case "<>":
-                if (number == null) {
-                    return !value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
+    private boolean checkBoolean(final Boolean bool) {
+        boolean match = bool != null && !operand.isNullValue() &&
+                bool.equals(operand.isBooleanValue());
 
-                return !String.valueOf(number).equals(value.replace(",", "."));
-            case ">":{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                double lv = Double.parseDouble(value);
-                return number > lv;
-            }
-            case "<":{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                double lv = Double.parseDouble(value.replace(",", "."));
-                return number < lv;
-            }
-            case ">=":{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                double lv = Double.parseDouble(value.replace(",", "."));
-                return number >= lv;
-            }
-            case "<=":
-            default:{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                double lv = Double.parseDouble(value.replace(",", "."));
-                return number <= lv;
-            }
+        switch (comparator) {
+            case EQUALS:
+                if (bool == null) return operand.isNullValue();
+                return match;
+            case NOT_EQUALS:
+                if (bool == null) return !operand.isNullValue();
+                return !match;
+            default:
+                return false;
         }
     }
 
-    private boolean checkNumber(final String value, final Long number, final String comparator) {
+    private boolean checkNumber(final Number number, final boolean decimal) {
         switch (comparator) {
-            case "=":
-                if (number == null) {
-                    return value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
+            case EQUALS:
+                if (number == null) return operand.isNullValue();
+                return equalsNumber(number, decimal);
+            case NOT_EQUALS:
+                if (number == null) return !operand.isNullValue();
+                return !equalsNumber(number, decimal);
+            default:
+                break;
+        }
 
-                return String.valueOf(number).equals(value);
-            case "<>":
-                if (number == null) {
-                    return !value.equalsIgnoreCase(DEFAULT_NULL_VALUE);
-                }
+        if (number == null || operand.isNullValue()) return false;
 
-                return !String.valueOf(number).equals(value);
-            case ">":{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                long lv = Long.parseLong(value);
-                return number > lv;
-            }
-            case "<":{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                long lv = Long.parseLong(value);
-                return number < lv;
-            }
-            case ">=":{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                long lv = Long.parseLong(value);
-                return number >= lv;
-            }
-            case "<=":
-            default:{
-                if (value.equalsIgnoreCase(DEFAULT_NULL_VALUE)) return false;
-                long lv = Long.parseLong(value);
-                return number <= lv;
-            }
+        int comparison;
+        Long longValue = operand.getLongValue();
+        Double doubleValue = operand.getDoubleValue();
+        if (!decimal && longValue != null) {
+            comparison = Long.compare(number.longValue(), longValue);
+        } else if (doubleValue != null) {
+            comparison = Double.compare(number.doubleValue(), doubleValue);
+        } else {
+            return false;
         }
-    }
 
-    private String getKey() {
-        setupMatcher();
-        return storedMatcher.group(1);
+        switch (comparator) {
+            case GREATER:
+                return comparison > 0;
+            case LOWER:
+                return comparison < 0;
+            case GREATER_OR_EQUAL:
+                return comparison >= 0;
+            case LOWER_OR_EQUAL:
+            default:
+                return comparison <= 0;
+        }
     }
 
-    private String getOperator() {
-        setupMatcher();
-        return storedMatcher.group(2);
+    private boolean equalsNumber(final Number number, final boolean decimal) {
+        if (operand.isNullValue()) return false;
+        if (decimal) {
+            Double doubleValue = operand.getDoubleValue();
+            return doubleValue != null && doubleValue.equals(number.doubleValue());
+        }
+
+        Long longValue = operand.getLongValue();
+        return longValue != null && longValue == number.longValue();
     }
 
-    private String getValue() {
-        setupMatcher();
+    /**
+     * Get the key the part tests
+     *
+     * @return the part key
+     */
+    public String getKey() {
+        return key;
+    }
 
-        String value = storedMatcher.group(3);
-        if (value.startsWith("'") && value.endsWith("'")) {
-            return value.substring(1, value.length() - 1);
-        }
-        if (value.equalsIgnoreCase("null")) return DEFAULT_NULL_VALUE;
-        return value;
+    /**
+     * Get the part comparison operator
+     * symbol
+     *
+     * @return the part operator
+     */
+    public String getOperator() {
+        return comparator.getSymbol();
     }
 
-    private void setupMatcher() {
-        if (storedMatcher != null) return;
-        Pattern keyValuePattern = Pattern.compile("\\s*'([^']*)'\\s*(=|~=|!>|~>|~<|>=|<=|>~|<~|<>|>|<)\\s*('[^']*'|null|true|false|[+-]?\\d+[,.]?e?\\d*)", Pattern.CASE_INSENSITIVE);
-        String useContent = content;
-        if (content.toLowerCase().startsWith("and")) {
-            useContent = content.substring(3);
-        }
-        if (content.toLowerCase().startsWith("or")) {
-            useContent = content.substring(2);
-        }
+    /**
+     * Get if the part compares against
+     * a null value
+     *
+     * @return if the part value is null
+     */
+    public boolean isNullValue() {
+        return operand.isNullValue();
+    }
 
-        storedMatcher = keyValuePattern.matcher(useContent);
-        if (!storedMatcher.matches()) {
-            throw new IllegalStateException("Invalid query syntax at: " + content);
-        }
+    /**
+     * Get the value the part compares
+     * against
+     *
+     * @return the part value
+     */
+    public String getValue() {
+        return operand.getText();
     }
-}
\ No newline at end of file
+}
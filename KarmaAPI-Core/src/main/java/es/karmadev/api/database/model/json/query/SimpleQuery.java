@@ -1,16 +1,19 @@
 package es.karmadev.api.database.model.json.query;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Simple query
+ * Simple query. Testing the query does not modify
+ * it, only the {@link #next()} and {@link #previous()}
+ * cursor does
  */
 public class SimpleQuery implements Query {
 
-    private final List<QueryPart> parts = new ArrayList<>();
+    private final List<QueryPart> parts;
+    private final QueryPart[] partArray;
     private int index;
 
     /**
@@ -19,7 +22,8 @@ public class SimpleQuery implements Query {
      * @param parts the query parts
      */
     public SimpleQuery(final Collection<QueryPart> parts) {
-        this.parts.addAll(parts);
+        this.partArray = parts.toArray(new QueryPart[0]);
+        this.parts = Arrays.asList(partArray);
     }
 
 
@@ -30,7 +34,7 @@ public class SimpleQuery implements Query {
      */
     @Override
     public QueryPart[] getParts() {
-        return parts.toArray(new QueryPart[0]).clone();
+        return partArray.clone();
     }
 
     /**
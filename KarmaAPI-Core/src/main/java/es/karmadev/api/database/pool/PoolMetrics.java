@@ -0,0 +1,103 @@
+package es.karmadev.api.database.pool;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the metrics of a
+ * {@link PooledDatabaseEngine}
+ */
+@Getter @ToString
+public final class PoolMetrics {
+
+    /**
+     * -- GETTER --
+     *  Get the amount of connections currently
+     *  in use
+     */
+    private final int active;
+    /**
+     * -- GETTER --
+     *  Get the amount of idle connections
+     */
+    private final int idle;
+    /**
+     * -- GETTER --
+     *  Get the amount of connections created
+     */
+    private final long created;
+    /**
+     * -- GETTER --
+     *  Get the amount of connections closed
+     *  by the pool
+     */
+    private final long destroyed;
+    /**
+     * -- GETTER --
+     *  Get the amount of successful acquires
+     */
+    private final long acquired;
+    /**
+     * -- GETTER --
+     *  Get the amount of acquires which timed out
+     */
+    private final long timeouts;
+    /**
+     * -- GETTER --
+     *  Get the amount of leaked connections
+     *  detected
+     */
+    private final long leaks;
+    /**
+     * -- GETTER --
+     *  Get the total time spent waiting for
+     *  a connection, in nanoseconds
+     */
+    private final long totalWait;
+    /**
+     * -- GETTER --
+     *  Get the longest time spent waiting
+     *  for a connection, in nanoseconds
+     */
+    private final long maxWait;
+
+    /**
+     * Initialize the metrics
+     *
+     * @param active the active connections
+     * @param idle the idle connections
+     * @param created the created connections
+     * @param destroyed the destroyed connections
+     * @param acquired the successful acquires
+     * @param timeouts the acquire timeouts
+     * @param leaks the detected leaks
+     * @param totalWait the total acquire wait
+     * @param maxWait the longest acquire wait
+     */
+    PoolMetrics(final int active, final int idle, final long created, final long destroyed, final long acquired,
+                final long timeouts, final long leaks, final long totalWait, final long maxWait) {
+        this.active = active;
+        this.idle = idle;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.acquired = acquired;
+        this.timeouts = timeouts;
+        this.leaks = leaks;
+        this.totalWait = totalWait;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Get the average time spent waiting for
+     * a connection
+     *
+     * @param unit the time unit
+     * @return the average acquire wait
+     */
+    public long getAverageWait(final TimeUnit unit) {
+        if (acquired + timeouts == 0) return 0;
+        return unit.convert(totalWait / (acquired + timeouts), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package es.karmadev.api.database.pool;
+
+import es.karmadev.api.database.DatabaseConnection;
+import es.karmadev.api.database.result.QueryResult;
+import es.karmadev.api.database.result.StreamingQueryResult;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection leased from a {@link PooledDatabaseEngine}.
+ * Closing the connection returns it to the pool
+ */
+public final class PooledConnection implements DatabaseConnection {
+
+    private final PooledDatabaseEngine engine;
+    private final String name;
+    private final DatabaseConnection connection;
+    private final long created = System.currentTimeMillis();
+    private final AtomicBoolean leased = new AtomicBoolean(false);
+
+    volatile long lastUsed = created;
+    volatile long leasedAt;
+    volatile Throwable leaseTrace;
+    volatile boolean leakReported;
+
+    /**
+     * Initialize the pooled connection
+     *
+     * @param engine the pool engine
+     * @param name the connection name
+     * @param connection the pooled connection
+     */
+    PooledConnection(final PooledDatabaseEngine engine, final String name, final DatabaseConnection connection) {
+        this.engine = engine;
+        this.name = name;
+        this.connection = connection;
+    }
+
+    /**
+     * Get the connection name
+     *
+     * @return the connection name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the pooled connection
+     *
+     * @return the connection
+     * @throws IllegalStateException if the connection has been
+     * returned to the pool
+     */
+    public DatabaseConnection getConnection() throws IllegalStateException {
+        if (!leased.get()) throw new IllegalStateException("Cannot use a connection which has been returned to the pool");
+        return connection;
+    }
+
+    /**
+     * Return if the connection supports
+     * queries
+     *
+     * @return if the connection supports queries
+     */
+    @Override
+    public boolean querySupported() {
+        return getConnection().querySupported();
+    }
+
+    /**
+     * Execute a query
+     *
+     * @param query the query to run
+     * @return the query
+     */
+    @Override
+    public QueryResult execute(final String query) {
+        return getConnection().execute(query);
+    }
+
+    /**
+     * Execute a query, streaming its
+     * results instead of loading all of them
+     *
+     * @param query the query to run
+     * @return the streaming query result
+     * @throws UnsupportedOperationException if the connection does not support streaming
+     */
+    @Override
+    public StreamingQueryResult stream(final String query) throws UnsupportedOperationException {
+        return getConnection().stream(query);
+    }
+
+    /**
+     * Return the connection to the pool
+     */
+    @Override
+    public void close() {
+        if (leased.compareAndSet(true, false)) {
+            engine.release(this);
+        }
+    }
+
+    /**
+     * Get the time the connection was
+     * created at
+     *
+     * @return the connection creation time
+     */
+    long created() {
+        return created;
+    }
+
+    /**
+     * Mark the connection as leased
+     *
+     * @param trace the lease stack trace, or null
+     *              if leak detection is disabled
+     */
+    void lease(final Throwable trace) {
+        leasedAt = System.currentTimeMillis();
+        leaseTrace = trace;
+        leakReported = false;
+        leased.set(true);
+    }
+
+    /**
+     * Close the pooled connection
+     */
+    void destroy() {
+        leased.set(false);
+        try {
+            connection.close();
+        } catch (RuntimeException ignored) {}
+    }
+}
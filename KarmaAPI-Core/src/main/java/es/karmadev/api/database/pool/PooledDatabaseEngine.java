@@ -0,0 +1,395 @@
+package es.karmadev.api.database.pool;
+
+import es.karmadev.api.core.ExceptionCollector;
+import es.karmadev.api.database.DatabaseConnection;
+import es.karmadev.api.database.DatabaseEngine;
+import es.karmadev.api.database.exception.ConnectionTimeoutException;
+import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pooled database engine. This engine wraps
+ * another engine and keeps a bounded pool of
+ * connections per connection name. Idle connections
+ * are closed after the idle timeout, connections are
+ * replaced once they reach their max lifetime, and
+ * connections held for longer than the leak threshold
+ * are reported with the stack of the caller who grabbed
+ * them
+ */
+@SuppressWarnings("unused")
+public class PooledDatabaseEngine implements DatabaseEngine, AutoCloseable {
+
+    private final DatabaseEngine engine;
+    private final String name;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicLong maxWait = new AtomicLong();
+
+    private volatile int maxSize = 10;
+    private volatile long acquireTimeout = TimeUnit.SECONDS.toMillis(30);
+    private volatile long idleTimeout = TimeUnit.MINUTES.toMillis(10);
+    private volatile long maxLifetime = TimeUnit.MINUTES.toMillis(30);
+    private volatile long leakThreshold = 0;
+
+    private final ScheduledFuture<?> housekeeping;
+
+    /**
+     * Initialize the pooled engine
+     *
+     * @param engine the engine to pool
+     */
+    public PooledDatabaseEngine(final @NotNull DatabaseEngine engine) {
+        this(engine, engine.getName());
+    }
+
+    /**
+     * Initialize the pooled engine
+     *
+     * @param engine the engine to pool
+     * @param name the pooled engine name
+     */
+    public PooledDatabaseEngine(final @NotNull DatabaseEngine engine, final @NotNull String name) {
+        this.engine = engine;
+        this.name = name;
+        this.housekeeping = AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(this::housekeep, 5, 5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Set the maximum amount of connections
+     * per connection name
+     *
+     * @param size the pool size
+     */
+    public void setMaxSize(final int size) {
+        this.maxSize = Math.max(1, size);
+    }
+
+    /**
+     * Set the maximum time to wait for a
+     * connection when the pool is exhausted
+     *
+     * @param timeout the timeout in milliseconds
+     */
+    public void setAcquireTimeout(final long timeout) {
+        this.acquireTimeout = Math.max(0, timeout);
+    }
+
+    /**
+     * Set the time after which an idle
+     * connection gets closed
+     *
+     * @param timeout the timeout in milliseconds, 0
+     *                to keep idle connections
+     */
+    public void setIdleTimeout(final long timeout) {
+        this.idleTimeout = Math.max(0, timeout);
+    }
+
+    /**
+     * Set the maximum lifetime of a connection. Connections
+     * are closed once they reach it and are not in use
+     *
+     * @param lifetime the lifetime in milliseconds, 0
+     *                 for no limit
+     */
+    public void setMaxLifetime(final long lifetime) {
+        this.maxLifetime = Math.max(0, lifetime);
+    }
+
+    /**
+     * Set the time after which a connection which
+     * has not been closed is reported as leaked
+     *
+     * @param threshold the threshold in milliseconds, 0
+     *                  to disable leak detection
+     */
+    public void setLeakThreshold(final long threshold) {
+        this.leakThreshold = Math.max(0, threshold);
+    }
+
+    /**
+     * Get if the engine is protected
+     *
+     * @return if the engine is protected
+     */
+    @Override
+    public boolean isProtected() {
+        return engine.isProtected();
+    }
+
+    /**
+     * Get the engine name
+     *
+     * @return the engine name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the pooled engine
+     *
+     * @return the pooled engine
+     */
+    public DatabaseEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Grab a connection from the pool. If there's
+     * no idle connection and the pool is full, this
+     * waits for a connection to be returned
+     *
+     * @param name the connection name
+     * @return a database connection
+     * @throws ConnectionTimeoutException if no connection was available
+     * before the acquire timeout
+     */
+    @Override
+    public PooledConnection grabConnection(final String name) throws ConnectionTimeoutException {
+        Pool pool = pools.computeIfAbsent(name, (key) -> new Pool());
+        long start = System.nanoTime();
+        long timeout = acquireTimeout;
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        PooledConnection connection = null;
+        pool.lock.lock();
+        try {
+            while (connection == null) {
+                if (pool.closed) throw new IllegalStateException("Cannot grab connection " + name + " from a closed pool");
+
+                PooledConnection candidate = pool.idle.pollFirst();
+                if (candidate != null) {
+                    if (expired(candidate, System.currentTimeMillis())) {
+                        discard(pool, candidate);
+                        continue;
+                    }
+
+                    connection = candidate;
+                    break;
+                }
+
+                if (pool.total < maxSize) {
+                    pool.total++;
+                    break;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    recordWait(start);
+                    timeouts.incrementAndGet();
+                    throw new ConnectionTimeoutException(name, timeout);
+                }
+
+                try {
+                    pool.available.awaitNanos(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    recordWait(start);
+                    timeouts.incrementAndGet();
+                    throw new ConnectionTimeoutException(name, timeout);
+                }
+            }
+
+            if (connection != null) lease(pool, connection, start);
+        } finally {
+            pool.lock.unlock();
+        }
+        if (connection != null) return connection;
+
+        try {
+            DatabaseConnection raw = engine.grabConnection(name);
+            connection = new PooledConnection(this, name, raw);
+            created.incrementAndGet();
+        } catch (RuntimeException ex) {
+            pool.lock.lock();
+            try {
+                pool.total--;
+                pool.available.signal();
+            } finally {
+                pool.lock.unlock();
+            }
+
+            throw ex;
+        }
+
+        pool.lock.lock();
+        try {
+            lease(pool, connection, start);
+        } finally {
+            pool.lock.unlock();
+        }
+
+        return connection;
+    }
+
+    /**
+     * Get the pool metrics
+     *
+     * @return the pool metrics
+     */
+    public PoolMetrics getMetrics() {
+        int active = 0;
+        int idle = 0;
+        for (Pool pool : pools.values()) {
+            pool.lock.lock();
+            try {
+                active += pool.leased.size();
+                idle += pool.idle.size();
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+
+        return new PoolMetrics(active, idle, created.get(), destroyed.get(), acquired.get(),
+                timeouts.get(), leaks.get(), totalWait.get(), maxWait.get());
+    }
+
+    /**
+     * Close the pool. Idle connections are closed
+     * immediately, and connections in use are closed
+     * once they are returned
+     */
+    @Override
+    public void close() {
+        housekeeping.cancel(false);
+        for (Pool pool : pools.values()) {
+            pool.lock.lock();
+            try {
+                pool.closed = true;
+                PooledConnection connection;
+                while ((connection = pool.idle.pollFirst()) != null) discard(pool, connection);
+                pool.available.signalAll();
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Return a connection to its pool
+     *
+     * @param connection the connection
+     */
+    void release(final PooledConnection connection) {
+        Pool pool = pools.get(connection.getName());
+        if (pool == null) {
+            connection.destroy();
+            destroyed.incrementAndGet();
+            return;
+        }
+
+        pool.lock.lock();
+        try {
+            if (!pool.leased.remove(connection)) return;
+
+            long now = System.currentTimeMillis();
+            if (pool.closed || expired(connection, now)) {
+                discard(pool, connection);
+            } else {
+                connection.lastUsed = now;
+                pool.idle.addFirst(connection);
+            }
+
+            pool.available.signal();
+        } finally {
+            pool.lock.unlock();
+        }
+    }
+
+    /**
+     * Close the idle connections which expired, and
+     * report the connections which leaked
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        long threshold = leakThreshold;
+        long idleLimit = idleTimeout;
+
+        for (Pool pool : pools.values()) {
+            pool.lock.lock();
+            try {
+                Iterator<PooledConnection> iterator = pool.idle.iterator();
+                while (iterator.hasNext()) {
+                    PooledConnection connection = iterator.next();
+                    if (expired(connection, now) || (idleLimit > 0 && now - connection.lastUsed >= idleLimit)) {
+                        iterator.remove();
+                        discard(pool, connection);
+                        pool.available.signal();
+                    }
+                }
+
+                if (threshold <= 0) continue;
+                for (PooledConnection connection : pool.leased) {
+                    if (connection.leakReported || now - connection.leasedAt < threshold) continue;
+
+                    connection.leakReported = true;
+                    leaks.incrementAndGet();
+
+                    IllegalStateException leak = new IllegalStateException("Connection " + connection.getName() + " of " + name +
+                            " has been in use for " + (now - connection.leasedAt) + "ms without being closed, possible leak");
+                    if (connection.leaseTrace != null) leak.initCause(connection.leaseTrace);
+
+                    ExceptionCollector.catchException(PooledDatabaseEngine.class, leak);
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+    }
+
+    private void lease(final Pool pool, final PooledConnection connection, final long start) {
+        connection.lease(leakThreshold > 0 ? new Throwable("Connection grabbed here") : null);
+        pool.leased.add(connection);
+
+        acquired.incrementAndGet();
+        recordWait(start);
+    }
+
+    private void discard(final Pool pool, final PooledConnection connection) {
+        pool.total--;
+        connection.destroy();
+        destroyed.incrementAndGet();
+    }
+
+    private boolean expired(final PooledConnection connection, final long now) {
+        long lifetime = maxLifetime;
+        return lifetime > 0 && now - connection.created() >= lifetime;
+    }
+
+    private void recordWait(final long start) {
+        long wait = System.nanoTime() - start;
+        totalWait.addAndGet(wait);
+        maxWait.accumulateAndGet(wait, Math::max);
+    }
+
+    /**
+     * Connection pool of a connection name
+     */
+    private final static class Pool {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        private final Set<PooledConnection> leased = new HashSet<>();
+
+        private int total = 0;
+        private boolean closed = false;
+    }
+}
@@ -0,0 +1,31 @@
+package es.karmadev.api.database.result;
+
+/**
+ * Source of rows for a {@link StreamingQueryResult}. Rows
+ * are only requested when the result consumer needs them,
+ * so a source should never read ahead of the requested rows
+ */
+public interface RowSource extends AutoCloseable {
+
+    /**
+     * Get if the source has more rows
+     *
+     * @return if there are more rows
+     */
+    boolean hasNext();
+
+    /**
+     * Write the next row into the
+     * result builder
+     *
+     * @param builder the result builder
+     */
+    void next(final SimpleQueryResult.QueryResultBuilder builder);
+
+    /**
+     * Close the source, releasing any
+     * resource it holds
+     */
+    @Override
+    default void close() {}
+}
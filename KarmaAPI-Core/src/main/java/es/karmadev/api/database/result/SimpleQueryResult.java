@@ -3,12 +3,13 @@ package es.karmadev.api.database.result;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
-import java.lang.reflect.Field;
 import java.util.*;
 
 /**
  * Simple query result, for building
- * query results on custom database implementations
+ * query results on custom database implementations.
+ * Results are stored by column, each column keeping its
+ * values in a primitive array indexed by the result row
  */
 @SuppressWarnings("unused") @ToString @EqualsAndHashCode
 public class SimpleQueryResult implements QueryResult {
@@ -18,17 +19,13 @@ public class SimpleQueryResult implements QueryResult {
 
     private int index = -1;
 
-    Map<Integer, String>[] indexes;
-    Map<String, Byte>[] byteMap;
-    Map<String, Short>[] shortMap;
-    Map<String, Integer>[] intMap;
-    Map<String, Long>[] longMap;
-    Map<String, Float>[] floatMap;
-    Map<String, Double>[] doubleMap;
-    Map<String, String>[] stringMap;
-    Map<String, Boolean>[] boolMap;
+    Column[] columns;
+    Map<String, Column>[] ordinals;
+    int[] offsets;
+    int[] fields;
+    int rows;
 
-    private Object lastObject = null;
+    private boolean lastNull = true;
 
     public SimpleQueryResult(final String database, final String table) {
         this.database = database;
@@ -42,7 +39,7 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public boolean next() {
-        if (indexes.length > index + 1) {
+        if (rows > index + 1) {
             index += 1;
             return true;
         }
@@ -57,7 +54,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public int fields() {
-        return indexes[Math.max(0, Math.min(indexes.length - 1, this.index))].size();
+        int row = row();
+        return offsets[row + 1] - offsets[row];
     }
 
     /**
@@ -90,7 +88,13 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public String[] fieldNames() {
-        return indexes[Math.max(0, Math.min(indexes.length - 1, this.index))].values().toArray(new String[0]);
+        int row = row();
+        String[] names = new String[offsets[row + 1] - offsets[row]];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = columns[fields[offsets[row] + i]].name;
+        }
+
+        return names;
     }
 
     /**
@@ -101,7 +105,7 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public boolean wasNull() {
-        return lastObject == null;
+        return lastNull;
     }
 
     /**
@@ -114,10 +118,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public byte getByte(final String field) throws NoSuchElementException {
-        Byte val = indexOfMap(field, byteMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(field, ColumnType.BYTE);
+        return (isNull(column) ? 0 : column.bytes[row()]);
     }
 
     /**
@@ -131,10 +133,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public byte getByte(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Byte val = indexOfMap(index, byteMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(index, ColumnType.BYTE);
+        return (isNull(column) ? 0 : column.bytes[row()]);
     }
 
     /**
@@ -147,10 +147,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public short getShort(final String field) throws NoSuchElementException {
-        Short val = indexOfMap(field, shortMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(field, ColumnType.SHORT);
+        return (isNull(column) ? 0 : column.shorts[row()]);
     }
 
     /**
@@ -164,10 +162,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public short getShort(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Short val = indexOfMap(index, shortMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(index, ColumnType.SHORT);
+        return (isNull(column) ? 0 : column.shorts[row()]);
     }
 
     /**
@@ -180,10 +176,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public int getInteger(final String field) throws NoSuchElementException {
-        Integer val = indexOfMap(field, intMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(field, ColumnType.INTEGER);
+        return (isNull(column) ? 0 : column.ints[row()]);
     }
 
     /**
@@ -197,10 +191,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public int getInteger(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Integer val = indexOfMap(index, intMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(index, ColumnType.INTEGER);
+        return (isNull(column) ? 0 : column.ints[row()]);
     }
 
     /**
@@ -213,10 +205,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public long getLong(final String field) throws NoSuchElementException {
-        Long val = indexOfMap(field, longMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(field, ColumnType.LONG);
+        return (isNull(column) ? 0 : column.longs[row()]);
     }
 
     /**
@@ -230,10 +220,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public long getLong(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Long val = indexOfMap(index, longMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(index, ColumnType.LONG);
+        return (isNull(column) ? 0 : column.longs[row()]);
     }
 
     /**
@@ -246,10 +234,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public double getDouble(final String field) throws NoSuchElementException {
-        Double val = indexOfMap(field, doubleMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(field, ColumnType.DOUBLE);
+        return (isNull(column) ? 0 : column.doubles[row()]);
     }
 
     /**
@@ -263,10 +249,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public double getDouble(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Double val = indexOfMap(index, doubleMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(index, ColumnType.DOUBLE);
+        return (isNull(column) ? 0 : column.doubles[row()]);
     }
 
     /**
@@ -279,10 +263,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public float getFloat(final String field) throws NoSuchElementException {
-        Float val = indexOfMap(field, floatMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(field, ColumnType.FLOAT);
+        return (isNull(column) ? 0 : column.floats[row()]);
     }
 
     /**
@@ -296,10 +278,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public float getFloat(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Float val = indexOfMap(index, floatMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (val == null) return 0;
-
-        return val;
+        Column column = column(index, ColumnType.FLOAT);
+        return (isNull(column) ? 0 : column.floats[row()]);
     }
 
     /**
@@ -312,7 +292,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public String getString(final String field) throws NoSuchElementException {
-        return indexOfMap(field, stringMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
+        Column column = column(field, ColumnType.STRING);
+        return (isNull(column) ? null : column.strings[row()]);
     }
 
     /**
@@ -326,7 +307,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public String getString(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        return indexOfMap(index, stringMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
+        Column column = column(index, ColumnType.STRING);
+        return (isNull(column) ? null : column.strings[row()]);
     }
 
     /**
@@ -339,10 +321,8 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public boolean getBoolean(final String field) throws NoSuchElementException {
-        Boolean bool = indexOfMap(field, boolMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (bool == null) return false;
-
-        return bool;
+        Column column = column(field, ColumnType.BOOLEAN);
+        return (!isNull(column) && column.booleans.get(row()));
     }
 
     /**
@@ -356,65 +336,71 @@ public class SimpleQueryResult implements QueryResult {
      */
     @Override
     public boolean getBoolean(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
-        Boolean bool = indexOfMap(index, boolMap[Math.max(0, Math.min(indexes.length - 1, this.index))]);
-        if (bool == null) return false;
+        Column column = column(index, ColumnType.BOOLEAN);
+        return (!isNull(column) && column.booleans.get(row()));
+    }
 
-        return bool;
+    /**
+     * Get the current row
+     *
+     * @return the current row
+     */
+    private int row() {
+        return Math.max(0, Math.min(rows - 1, this.index));
     }
 
     /**
-     * Get a value of a map based on
-     * a provided field
+     * Get a column of the current row
+     * based on a provided field
      *
      * @param field the field
-     * @param map the map to get data from
-     * @return the value
-     * @param <T> the value type
+     * @param type the column type
+     * @return the column
      * @throws NoSuchElementException if the specified type does not contain the data
      */
-    private <T> T indexOfMap(final String field, final Map<String, T> map) throws NoSuchElementException {
-        if (!map.containsKey(field)) {
+    private Column column(final String field, final ColumnType type) throws NoSuchElementException {
+        Column column = ordinals[type.ordinal()].get(field);
+        if (column == null || !column.present.get(row())) {
             throw new NoSuchElementException("No field named " + field + " in result set");
         }
 
-        T v = map.get(field);
-        lastObject = v;
-        return v;
+        return column;
     }
 
     /**
-     * Get a value of a map based on
-     * a provided index
+     * Get a column of the current row
+     * based on a provided index
      *
      * @param index the index
-     * @param map the map to get data from
-     * @return the value
-     * @param <T> the value type
+     * @param type the column type
+     * @return the column
      * @throws IndexOutOfBoundsException if the index is out of bounds
      * @throws NoSuchElementException if the specified type does not contain the data
      */
-    private <T> T indexOfMap(final int index, final Map<String, T> map) throws IndexOutOfBoundsException, NoSuchElementException {
-        if (index < 0 || index > indexes[this.index].size()) {
+    private Column column(final int index, final ColumnType type) throws IndexOutOfBoundsException, NoSuchElementException {
+        int row = row();
+        if (index < 0 || index >= offsets[row + 1] - offsets[row]) {
             throw new IndexOutOfBoundsException("No field at index " + index);
         }
 
-        int searchIndex = 0;
-        int i = 0;
-        for (Map.Entry<Integer, String> indexes : this.indexes[this.index].entrySet()) {
-            if (i++ == index) {
-                searchIndex = indexes.getKey();
-                break;
-            }
+        Column column = columns[fields[offsets[row] + index]];
+        if (column.type != type) {
+            throw new NoSuchElementException("No field named " + column.name + " in result set");
         }
 
-        String fieldName = indexes[this.index].get(searchIndex);
-        if (!map.containsKey(fieldName)) {
-            throw new NoSuchElementException("No field named " + fieldName + " in result set");
-        }
+        return column;
+    }
 
-        T v = map.get(fieldName);
-        lastObject = v;
-        return v;
+    /**
+     * Get if the column value of the
+     * current row is null
+     *
+     * @param column the column
+     * @return if the value is null
+     */
+    private boolean isNull(final Column column) {
+        lastNull = column.nulls.get(row());
+        return lastNull;
     }
 
     /**
@@ -426,34 +412,228 @@ public class SimpleQueryResult implements QueryResult {
         return new QueryResultBuilder();
     }
 
+    /**
+     * Result column types
+     */
+    enum ColumnType {
+        BYTE,
+        SHORT,
+        INTEGER,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        STRING,
+        BOOLEAN
+    }
+
+    /**
+     * Result column. Only the array matching
+     * the column type is allocated
+     */
+    @ToString @EqualsAndHashCode
+    static final class Column {
+
+        final String name;
+        final ColumnType type;
+        final int ordinal;
+        final BitSet present = new BitSet();
+        final BitSet nulls = new BitSet();
+
+        byte[] bytes;
+        short[] shorts;
+        int[] ints;
+        long[] longs;
+        float[] floats;
+        double[] doubles;
+        String[] strings;
+        BitSet booleans;
+
+        /**
+         * Initialize the column
+         *
+         * @param name the column name
+         * @param type the column type
+         * @param ordinal the column ordinal
+         */
+        Column(final String name, final ColumnType type, final int ordinal) {
+            this.name = name;
+            this.type = type;
+            this.ordinal = ordinal;
+            if (type == ColumnType.BOOLEAN) booleans = new BitSet();
+        }
+
+        /**
+         * Set the value of a row
+         *
+         * @param row the row
+         * @param value the value
+         */
+        void set(final int row, final Object value) {
+            present.set(row);
+            nulls.set(row, value == null);
+            if (type != ColumnType.BOOLEAN) ensureCapacity(row + 1);
+            if (value == null) return;
+
+            switch (type) {
+                case BYTE:
+                    bytes[row] = (Byte) value;
+                    break;
+                case SHORT:
+                    shorts[row] = (Short) value;
+                    break;
+                case INTEGER:
+                    ints[row] = (Integer) value;
+                    break;
+                case LONG:
+                    longs[row] = (Long) value;
+                    break;
+                case FLOAT:
+                    floats[row] = (Float) value;
+                    break;
+                case DOUBLE:
+                    doubles[row] = (Double) value;
+                    break;
+                case STRING:
+                    strings[row] = (String) value;
+                    break;
+                case BOOLEAN:
+                    booleans.set(row, (Boolean) value);
+                    break;
+            }
+        }
+
+        /**
+         * Get the value of a row
+         *
+         * @param row the row
+         * @return the value
+         */
+        Object get(final int row) {
+            if (nulls.get(row)) return null;
+
+            switch (type) {
+                case BYTE:
+                    return bytes[row];
+                case SHORT:
+                    return shorts[row];
+                case INTEGER:
+                    return ints[row];
+                case LONG:
+                    return longs[row];
+                case FLOAT:
+                    return floats[row];
+                case DOUBLE:
+                    return doubles[row];
+                case STRING:
+                    return strings[row];
+                case BOOLEAN:
+                default:
+                    return booleans.get(row);
+            }
+        }
+
+        /**
+         * Trim the column arrays to the
+         * result size
+         *
+         * @param rows the result rows
+         */
+        void trim(final int rows) {
+            switch (type) {
+                case BYTE:
+                    bytes = Arrays.copyOf(bytes, rows);
+                    break;
+                case SHORT:
+                    shorts = Arrays.copyOf(shorts, rows);
+                    break;
+                case INTEGER:
+                    ints = Arrays.copyOf(ints, rows);
+                    break;
+                case LONG:
+                    longs = Arrays.copyOf(longs, rows);
+                    break;
+                case FLOAT:
+                    floats = Arrays.copyOf(floats, rows);
+                    break;
+                case DOUBLE:
+                    doubles = Arrays.copyOf(doubles, rows);
+                    break;
+                case STRING:
+                    strings = Arrays.copyOf(strings, rows);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void ensureCapacity(final int capacity) {
+            int current = length();
+            if (current >= capacity) return;
+
+            int size = Math.max(capacity, Math.max(8, current + (current >> 1)));
+            switch (type) {
+                case BYTE:
+                    bytes = (bytes == null ? new byte[size] : Arrays.copyOf(bytes, size));
+                    break;
+                case SHORT:
+                    shorts = (shorts == null ? new short[size] : Arrays.copyOf(shorts, size));
+                    break;
+                case INTEGER:
+                    ints = (ints == null ? new int[size] : Arrays.copyOf(ints, size));
+                    break;
+                case LONG:
+                    longs = (longs == null ? new long[size] : Arrays.copyOf(longs, size));
+                    break;
+                case FLOAT:
+                    floats = (floats == null ? new float[size] : Arrays.copyOf(floats, size));
+                    break;
+                case DOUBLE:
+                    doubles = (doubles == null ? new double[size] : Arrays.copyOf(doubles, size));
+                    break;
+                case STRING:
+                    strings = (strings == null ? new String[size] : Arrays.copyOf(strings, size));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private int length() {
+            switch (type) {
+                case BYTE:
+                    return (bytes == null ? 0 : bytes.length);
+                case SHORT:
+                    return (shorts == null ? 0 : shorts.length);
+                case INTEGER:
+                    return (ints == null ? 0 : ints.length);
+                case LONG:
+                    return (longs == null ? 0 : longs.length);
+                case FLOAT:
+                    return (floats == null ? 0 : floats.length);
+                case DOUBLE:
+                    return (doubles == null ? 0 : doubles.length);
+                case STRING:
+                    return (strings == null ? 0 : strings.length);
+                default:
+                    return Integer.MAX_VALUE;
+            }
+        }
+    }
+
     public static class QueryResultBuilder {
 
         private String table;
         private String database;
-        private int index = 0;
-
-        private int writeIndex = -1;
-        private final List<Map<Integer, String>> indexes = new ArrayList<>();
-        private final List<Map<String, Byte>> byteMap = new ArrayList<>();
-        private final List<Map<String, Short>> shortMap = new ArrayList<>();
-        private final List<Map<String, Integer>> intMap = new ArrayList<>();
-        private final List<Map<String, Long>> longMap = new ArrayList<>();
-        private final List<Map<String, Float>> floatMap = new ArrayList<>();
-        private final List<Map<String, Double>> doubleMap = new ArrayList<>();
-        private final List<Map<String, String>> stringMap = new ArrayList<>();
-        private final List<Map<String, Boolean>> boolMap = new ArrayList<>();
-
-        private QueryResultBuilder() {
-            indexes.add(new HashMap<>());
-            byteMap.add(new LinkedHashMap<>());
-            shortMap.add(new LinkedHashMap<>());
-            intMap.add(new LinkedHashMap<>());
-            longMap.add(new LinkedHashMap<>());
-            floatMap.add(new LinkedHashMap<>());
-            doubleMap.add(new LinkedHashMap<>());
-            stringMap.add(new LinkedHashMap<>());
-            boolMap.add(new LinkedHashMap<>());
-        }
+
+        private final List<Column> columns = new ArrayList<>();
+        private final Map<String, Column>[] ordinals = newOrdinals();
+        private final Map<String, Column> rowColumns = new HashMap<>();
+
+        private int[] offsets = new int[]{0, 0};
+        private int[] fields = new int[16];
+        private int rows = 1;
+
+        private QueryResultBuilder() {}
 
         public QueryResultBuilder table(final String table) {
             this.table = table;
@@ -466,107 +646,35 @@ public class SimpleQueryResult implements QueryResult {
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Byte value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Byte> byteMap = this.byteMap.get(writeIndex);
-
-            checkDuplication(fieldName, byteMap);
-            byteMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.BYTE, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Short value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Short> shortMap = this.shortMap.get(writeIndex);
-
-            checkDuplication(fieldName, shortMap);
-            shortMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.SHORT, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Integer value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Integer> intMap = this.intMap.get(writeIndex);
-
-            checkDuplication(fieldName, intMap);
-            intMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.INTEGER, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Long value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Long> longMap = this.longMap.get(writeIndex);
-
-            checkDuplication(fieldName, longMap);
-            longMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.LONG, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Float value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Float> floatMap = this.floatMap.get(writeIndex);
-
-            checkDuplication(fieldName, floatMap);
-            floatMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.FLOAT, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Double value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Double> doubleMap = this.doubleMap.get(writeIndex);
-
-            checkDuplication(fieldName, doubleMap);
-            doubleMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.DOUBLE, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final String value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, String> stringMap = this.stringMap.get(writeIndex);
-
-            checkDuplication(fieldName, stringMap);
-            stringMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.STRING, value);
         }
 
         public QueryResultBuilder appendResult(final String fieldName, final Boolean value) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            Map<Integer, String> indexes = this.indexes.get(writeIndex);
-            Map<String, Boolean> boolMap = this.boolMap.get(writeIndex);
-
-            checkDuplication(fieldName, boolMap);
-            boolMap.put(fieldName, value);
-            indexes.put(index++, fieldName);
-            return this;
+            return append(fieldName, ColumnType.BOOLEAN, value);
         }
 
         /**
@@ -575,20 +683,25 @@ public class SimpleQueryResult implements QueryResult {
          * @return the new query builder
          */
         public QueryResultBuilder nextQuery() {
-            if (indexes.get(Math.max(0, Math.min(writeIndex, indexes.size() - 1))).isEmpty()) {
+            if (rowColumns.isEmpty()) {
                 return this;
             }
 
-            writeIndex++;
-            indexes.add(new HashMap<>());
-            byteMap.add(new LinkedHashMap<>());
-            shortMap.add(new LinkedHashMap<>());
-            intMap.add(new LinkedHashMap<>());
-            longMap.add(new LinkedHashMap<>());
-            floatMap.add(new LinkedHashMap<>());
-            doubleMap.add(new LinkedHashMap<>());
-            stringMap.add(new LinkedHashMap<>());
-            boolMap.add(new LinkedHashMap<>());
+            return nextRow();
+        }
+
+        /**
+         * Start a new row. Unlike {@link #nextQuery()},
+         * the row is started even if the current row has
+         * no fields, so empty rows keep their own place
+         *
+         * @return this builder
+         */
+        public QueryResultBuilder nextRow() {
+            rows++;
+            if (offsets.length < rows + 1) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[rows] = offsets[rows - 1];
+            rowColumns.clear();
 
             return this;
         }
@@ -601,66 +714,76 @@ public class SimpleQueryResult implements QueryResult {
          * @return this builder
          */
         public QueryResultBuilder add(final QueryResultBuilder other) {
-            if (writeIndex < 0) {
-                writeIndex = 0;
-            }
-            if (!indexes.get(writeIndex).isEmpty()) {
+            if (!rowColumns.isEmpty()) {
                 throw new UnsupportedOperationException("Cannot add another query result to a used query builder");
             }
 
-            indexes.addAll(other.indexes);
-            byteMap.addAll(other.byteMap);
-            shortMap.addAll(other.shortMap);
-            intMap.addAll(other.intMap);
-            longMap.addAll(other.longMap);
-            floatMap.addAll(other.floatMap);
-            doubleMap.addAll(other.doubleMap);
-            stringMap.addAll(other.stringMap);
-            boolMap.addAll(other.boolMap);
-
-            writeIndex += other.writeIndex;
+            for (int row = 0; row < other.rows; row++) {
+                if (row > 0) {
+                    rows++;
+                    if (offsets.length < rows + 1) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    offsets[rows] = offsets[rows - 1];
+                    rowColumns.clear();
+                }
+
+                for (int i = other.offsets[row]; i < other.offsets[row + 1]; i++) {
+                    Column column = other.columns.get(other.fields[i]);
+                    append(column.name, column.type, column.get(row));
+                }
+            }
+
             return this;
         }
 
-        private void checkDuplication(final String fieldName, final Object container) throws IllegalStateException {
-            if (writeIndex < 0) {
-                writeIndex = 0;
+        private QueryResultBuilder append(final String fieldName, final ColumnType type, final Object value) throws IllegalStateException {
+            int row = rows - 1;
+
+            Column column = rowColumns.get(fieldName);
+            if (column != null) {
+                if (column.type != type) {
+                    throw new IllegalStateException("Cannot set field " + fieldName + " because it has been already set for another value");
+                }
+
+                column.set(row, value);
+                return this;
             }
 
-            Field[] fields = getClass().getDeclaredFields();
-            for (Field field : fields) {
-                try {
-                    Object value = field.get(this);
-                    if (value.equals(container)) continue;
-
-                    if (value instanceof List<?>) {
-                        value = ((List<?>) value).get(writeIndex);
-
-                        if (value instanceof Map) {
-                            Map<?, ?> map = (Map<?, ?>) value;
-                            if (map.containsKey(fieldName)) {
-                                throw new IllegalStateException("Cannot set field " + fieldName + " because it has been already set for another value");
-                            }
-                        }
-                    }
-                } catch (IllegalAccessException ignored) {}
+            column = ordinals[type.ordinal()].get(fieldName);
+            if (column == null) {
+                column = new Column(fieldName, type, columns.size());
+                ordinals[type.ordinal()].put(fieldName, column);
+                columns.add(column);
             }
+            column.set(row, value);
+            rowColumns.put(fieldName, column);
+
+            int end = offsets[rows];
+            if (fields.length <= end) fields = Arrays.copyOf(fields, fields.length * 2);
+            fields[end] = column.ordinal;
+            offsets[rows] = end + 1;
+
+            return this;
         }
 
-        @SuppressWarnings("unchecked")
         public SimpleQueryResult build() {
             SimpleQueryResult rs = new SimpleQueryResult(database, table);
-            rs.indexes = indexes.toArray(new Map[0]);
-            rs.byteMap = byteMap.toArray(new Map[0]);
-            rs.shortMap = shortMap.toArray(new Map[0]);
-            rs.intMap = intMap.toArray(new Map[0]);
-            rs.longMap = longMap.toArray(new Map[0]);
-            rs.floatMap = floatMap.toArray(new Map[0]);
-            rs.doubleMap = doubleMap.toArray(new Map[0]);
-            rs.stringMap = stringMap.toArray(new Map[0]);
-            rs.boolMap = boolMap.toArray(new Map[0]);
+            rs.columns = columns.toArray(new Column[0]);
+            for (Column column : rs.columns) column.trim(rows);
+
+            rs.ordinals = ordinals;
+            rs.offsets = Arrays.copyOf(offsets, rows + 1);
+            rs.fields = Arrays.copyOf(fields, offsets[rows]);
+            rs.rows = rows;
 
             return rs;
         }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Column>[] newOrdinals() {
+            Map<String, Column>[] ordinals = new Map[ColumnType.values().length];
+            for (int i = 0; i < ordinals.length; i++) ordinals[i] = new HashMap<>();
+
+            return ordinals;
+        }
     }
 }
@@ -0,0 +1,414 @@
+package es.karmadev.api.database.result;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Forward-only streaming query result. Rows are
+ * pulled from a {@link RowSource} in batches of the
+ * fetch size, and only when the previous batch has been
+ * consumed, so iterating a result keeps at most one batch
+ * in memory no matter how many rows the source has
+ */
+@SuppressWarnings("unused")
+public class StreamingQueryResult implements QueryResult, AutoCloseable {
+
+    /**
+     * The default fetch size
+     */
+    public final static int DEFAULT_FETCH_SIZE = 256;
+
+    private final static RowSource EMPTY_SOURCE = new RowSource() {
+        @Override
+        public boolean hasNext() {
+            return false;
+        }
+
+        @Override
+        public void next(final SimpleQueryResult.QueryResultBuilder builder) {}
+    };
+
+    private final String database;
+    private final String table;
+    private final RowSource source;
+
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private QueryResult batch;
+    private boolean positioned = false;
+    private boolean closed = false;
+
+    /**
+     * Initialize the streaming result
+     *
+     * @param database the database name
+     * @param table the table name
+     * @param source the row source
+     */
+    public StreamingQueryResult(final String database, final String table, final @NotNull RowSource source) {
+        this.database = database;
+        this.table = table;
+        this.source = source;
+    }
+
+    /**
+     * Initialize the streaming result over a result
+     * which has already been executed. The whole result
+     * is served as a single batch
+     *
+     * @param result the executed result
+     */
+    public StreamingQueryResult(final @NotNull QueryResult result) {
+        this(result.databaseName(), result.tableName(), EMPTY_SOURCE);
+        this.batch = result;
+    }
+
+    /**
+     * Set the fetch size. The fetch size is the
+     * maximum amount of rows requested to the source
+     * at once
+     *
+     * @param size the fetch size
+     */
+    public void setFetchSize(final int size) {
+        this.fetchSize = Math.max(1, size);
+    }
+
+    /**
+     * Get the fetch size
+     *
+     * @return the fetch size
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Goes to the next query result
+     *
+     * @return true if there are more results
+     */
+    @Override
+    public boolean next() {
+        if (batch != null && batch.next()) {
+            positioned = true;
+            return true;
+        }
+
+        positioned = false;
+        batch = null;
+        if (closed) return false;
+
+        SimpleQueryResult.QueryResultBuilder builder = SimpleQueryResult.builder()
+                .database(database)
+                .table(table);
+
+        int fetched = 0;
+        while (fetched < fetchSize && source.hasNext()) {
+            if (fetched++ > 0) builder.nextRow();
+            source.next(builder);
+        }
+
+        if (fetched == 0) {
+            close();
+            return false;
+        }
+
+        batch = builder.build();
+        positioned = batch.next();
+        return positioned;
+    }
+
+    /**
+     * Get the result fields
+     *
+     * @return the result fields
+     */
+    @Override
+    public int fields() {
+        return (positioned ? batch.fields() : 0);
+    }
+
+    /**
+     * Get the database we are at
+     *
+     * @return the database name
+     */
+    @Override
+    public String databaseName() {
+        return database;
+    }
+
+    /**
+     * Get the table we are at, for
+     * non-relational database types, such
+     * as mongo, this should be the collection
+     * name instead
+     *
+     * @return the table name of the result
+     */
+    @Override
+    public String tableName() {
+        return table;
+    }
+
+    /**
+     * Get the result field names
+     *
+     * @return the field names
+     */
+    @Override
+    public String[] fieldNames() {
+        return (positioned ? batch.fieldNames() : new String[0]);
+    }
+
+    /**
+     * Get if the latest result fetched
+     * was null
+     *
+     * @return if the result was null
+     */
+    @Override
+    public boolean wasNull() {
+        return !positioned || batch.wasNull();
+    }
+
+    /**
+     * Get a byte value
+     *
+     * @param field the field to get the byte
+     *              from
+     * @return the byte value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public byte getByte(final String field) throws NoSuchElementException {
+        return current().getByte(field);
+    }
+
+    /**
+     * Get a byte value
+     *
+     * @param index the field index to get the
+     *              byte from
+     * @return the byte value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public byte getByte(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getByte(index);
+    }
+
+    /**
+     * Get a short value
+     *
+     * @param field the field to get the short
+     *              from
+     * @return the short value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public short getShort(final String field) throws NoSuchElementException {
+        return current().getShort(field);
+    }
+
+    /**
+     * Get a short value
+     *
+     * @param index the field index to get the
+     *              short from
+     * @return the short value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public short getShort(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getShort(index);
+    }
+
+    /**
+     * Get an integer value
+     *
+     * @param field the field to get the integer
+     *              from
+     * @return the integer value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public int getInteger(final String field) throws NoSuchElementException {
+        return current().getInteger(field);
+    }
+
+    /**
+     * Get an integer value
+     *
+     * @param index the field index to get the integer
+     *              from
+     * @return the integer value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public int getInteger(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getInteger(index);
+    }
+
+    /**
+     * Get a long value
+     *
+     * @param field the field to get the long
+     *              from
+     * @return the long value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public long getLong(final String field) throws NoSuchElementException {
+        return current().getLong(field);
+    }
+
+    /**
+     * Get a long value
+     *
+     * @param index the field index to get the
+     *              long from
+     * @return the long value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public long getLong(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getLong(index);
+    }
+
+    /**
+     * Get a double value
+     *
+     * @param field the field to get the double
+     *              from
+     * @return the double value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public double getDouble(final String field) throws NoSuchElementException {
+        return current().getDouble(field);
+    }
+
+    /**
+     * Get a double value
+     *
+     * @param index the field index to get the
+     *              double from
+     * @return the double value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public double getDouble(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getDouble(index);
+    }
+
+    /**
+     * Get a float value
+     *
+     * @param field the field name to get the
+     *              float from
+     * @return the float value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public float getFloat(final String field) throws NoSuchElementException {
+        return current().getFloat(field);
+    }
+
+    /**
+     * Get a float value
+     *
+     * @param index the field index to get the
+     *              float from
+     * @return the float value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public float getFloat(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getFloat(index);
+    }
+
+    /**
+     * Get a string value
+     *
+     * @param field the field to get the string
+     *              from
+     * @return the string value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public String getString(final String field) throws NoSuchElementException {
+        return current().getString(field);
+    }
+
+    /**
+     * Get a string value
+     *
+     * @param index the field index to get the
+     *              string from
+     * @return the string value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public String getString(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getString(index);
+    }
+
+    /**
+     * Get a boolean value
+     *
+     * @param field the field to get the boolean
+     *              from
+     * @return the boolean value
+     * @throws NoSuchElementException if the specified type does not contain the data
+     */
+    @Override
+    public boolean getBoolean(final String field) throws NoSuchElementException {
+        return current().getBoolean(field);
+    }
+
+    /**
+     * Get a boolean value
+     *
+     * @param index the field index to get the
+     *              boolean from
+     * @return the boolean value
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     * @throws NoSuchElementException      if the specified type does not contain the data
+     */
+    @Override
+    public boolean getBoolean(final int index) throws IndexOutOfBoundsException, NoSuchElementException {
+        return current().getBoolean(index);
+    }
+
+    /**
+     * Close the result and its source. Once
+     * closed, the result has no more rows
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        closed = true;
+        source.close();
+    }
+
+    /**
+     * Get the current row batch
+     *
+     * @return the current batch
+     * @throws NoSuchElementException if the result is not on a row
+     */
+    private QueryResult current() throws NoSuchElementException {
+        if (!positioned) throw new NoSuchElementException("The result is not on a row, call next() first");
+        return batch;
+    }
+}
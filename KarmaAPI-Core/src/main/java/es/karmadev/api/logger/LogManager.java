@@ -24,4 +24,17 @@ public class LogManager {
         if (owner == null) return new UnboundedLogger();
         return consoleLoggers.computeIfAbsent(owner, (logger) -> new BoundedLogger(owner));
     }
+
+    /**
+     * Close the logger of the owner, if
+     * any, and release its log file
+     *
+     * @param owner the logger owner
+     */
+    public static void close(final APISource owner) {
+        if (owner == null) return;
+
+        SourceLogger logger = consoleLoggers.remove(owner);
+        if (logger instanceof BoundedLogger) ((BoundedLogger) logger).close();
+    }
 }
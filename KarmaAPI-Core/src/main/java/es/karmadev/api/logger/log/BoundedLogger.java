@@ -8,10 +8,17 @@ import es.karmadev.api.logger.log.console.LogLevel;
 import es.karmadev.api.logger.log.file.LogFile;
 import lombok.SneakyThrows;
 
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 import java.util.logging.*;
 
@@ -22,9 +29,20 @@ import java.util.logging.*;
 public class BoundedLogger extends Logger implements SourceLogger {
 
     private final static APIConfiguration config = new APIConfiguration();
+    private final static boolean[] enabledLevels = new boolean[LogLevel.values().length];
+    private final static MessageTemplate[] prefixes = new MessageTemplate[LogLevel.values().length + 1];
+
+    static {
+        for (LogLevel level : LogLevel.values()) {
+            enabledLevels[level.ordinal()] = config.isLevelEnabled(level);
+            prefixes[level.ordinal()] = MessageTemplate.of(config.getPrefix(level));
+        }
+        prefixes[prefixes.length - 1] = MessageTemplate.of(config.getPrefix(null));
+    }
 
     private final APISource source;
     private final LogFile log;
+    private final BoundedConsoleHandler console;
     private Function<String, Void> logFunction;
 
     /**
@@ -37,8 +55,21 @@ public class BoundedLogger extends Logger implements SourceLogger {
         this.source = owner;
         log = new LogFile(source);
 
-        BoundedConsoleHandler handler = new BoundedConsoleHandler();
-        addHandler(handler) ;
+        console = new BoundedConsoleHandler(config.asyncConsoleLogger());
+        addHandler(console);
+    }
+
+    /**
+     * Set the minimum level of the messages which
+     * flush the console right away. Other messages are
+     * flushed in batches
+     *
+     * @param level the flush level
+     * @return the modified logger
+     */
+    public BoundedLogger setFlushLevel(final LogLevel level) {
+        console.setFlushLevel(level.toJavaLevel());
+        return this;
     }
 
     /**
@@ -62,16 +93,17 @@ public class BoundedLogger extends Logger implements SourceLogger {
      */
     @Override
     public void send(final LogLevel level, final String message, final Object... replaces) {
-        if (config.isLevelEnabled(level)) {
-            log(level, message, replaces);
+        if (enabledLevels[level.ordinal()]) {
+            String rendered = MessageTemplate.format(message, replaces);
+            log.append(level, rendered);
 
-            String finalMessage = buildMessage(level, source.sourceName(), message, replaces);
+            String finalMessage = buildMessage(level, source.sourceName(), rendered);
             if (logFunction != null) {
                 logFunction.apply(finalMessage);
                 return;
             }
 
-            doLog(finalMessage);
+            doLog(level, finalMessage);
         }
     }
 
@@ -84,9 +116,10 @@ public class BoundedLogger extends Logger implements SourceLogger {
      */
     @Override
     public void send(final Throwable error, final String message, final Object... replaces) {
-        if (config.isLevelEnabled(LogLevel.ERROR)) {
+        if (enabledLevels[LogLevel.ERROR.ordinal()]) {
             StackTraceElement[] elements = error.getStackTrace();
-            String finalMessage = buildMessage(LogLevel.ERROR, source.sourceName(), message + " &7(&b " + error.getClass().getCanonicalName() + ": " + error.getMessage() + " &7)", replaces);
+            String rendered = MessageTemplate.format(message, replaces);
+            String finalMessage = buildMessage(LogLevel.ERROR, source.sourceName(), rendered + " &7(&b " + error.getClass().getCanonicalName() + ": " + error.getMessage() + " &7)");
 
             Throwable cause = error.getCause();
             if (error.getSuppressed().length > 0) {
@@ -96,10 +129,10 @@ public class BoundedLogger extends Logger implements SourceLogger {
             if (logFunction != null) {
                 logFunction.apply(finalMessage);
             } else {
-                doLog(finalMessage);
+                doLog(LogLevel.ERROR, finalMessage);
             }
 
-            log(error, message, replaces);
+            logError(error, rendered);
 
             for (StackTraceElement element : elements) {
                 String clazz = element.getClassName();
@@ -112,7 +145,7 @@ public class BoundedLogger extends Logger implements SourceLogger {
                     if (logFunction != null) {
                         logFunction.apply(eMsg);
                     } else {
-                        doLog(eMsg);
+                        doLog(LogLevel.ERROR, eMsg);
                     }
                 } else {
                     file = file.replace(".java", "");
@@ -120,7 +153,7 @@ public class BoundedLogger extends Logger implements SourceLogger {
                     if (logFunction != null) {
                         logFunction.apply(eMsg);
                     } else {
-                        doLog(eMsg);
+                        doLog(LogLevel.ERROR, eMsg);
                     }
                 }
             }
@@ -142,14 +175,14 @@ public class BoundedLogger extends Logger implements SourceLogger {
                 Object[] finalReplaces = Arrays.copyOfRange(replaces, 1, replaces.length);
 
                 send(level, message, finalReplaces);
-                log(level, message, finalReplaces);
                 return;
             }
         }
 
-        log(message, replaces);
+        String rendered = MessageTemplate.format(message, replaces);
+        log.append(LogLevel.INFO, rendered);
 
-        String finalMessage = buildMessage(null, source.sourceName(), message, replaces);
+        String finalMessage = buildMessage(null, source.sourceName(), rendered);
         if (logFunction != null) {
             logFunction.apply(finalMessage);
             return;
@@ -167,7 +200,7 @@ public class BoundedLogger extends Logger implements SourceLogger {
      */
     @Override
     public void log(final LogLevel level, final String message, final Object... replaces) {
-        log.append(level, parseReplaces(message, replaces));
+        log.append(level, MessageTemplate.format(message, replaces));
     }
 
     /**
@@ -179,10 +212,7 @@ public class BoundedLogger extends Logger implements SourceLogger {
      */
     @Override
     public void log(final Throwable error, final String message, final Object... replaces) {
-        log.append(LogLevel.ERROR, error, parseReplaces(message, replaces));
-        for (Throwable sup : error.getSuppressed()) {
-            log(sup, message, replaces);
-        }
+        logError(error, MessageTemplate.format(message, replaces));
     }
 
     /**
@@ -204,7 +234,7 @@ public class BoundedLogger extends Logger implements SourceLogger {
             }
         }
 
-        log.append(LogLevel.INFO, parseReplaces(message, replaces));
+        log.append(LogLevel.INFO, MessageTemplate.format(message, replaces));
     }
 
     /**
@@ -242,47 +272,55 @@ public class BoundedLogger extends Logger implements SourceLogger {
         return source;
     }
 
+    /**
+     * Close the logger log file. The pending
+     * log entries are written before the file is closed,
+     * and the messages sent after are only sent to the
+     * console
+     */
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Log an error and its suppressed errors
+     * into the log file
+     *
+     * @param error the error
+     * @param message the rendered message
+     */
+    private void logError(final Throwable error, final String message) {
+        log.append(LogLevel.ERROR, error, message);
+        for (Throwable sup : error.getSuppressed()) {
+            logError(sup, message);
+        }
+    }
+
     /**
      * Build the message
      *
      * @param level the message level
-     * @param message the message
-     * @param replaces the message replaces
+     * @param name the source name
+     * @param message the rendered message
      * @return the message
      */
-    private String buildMessage(final LogLevel level, final String name, final String message, final Object... replaces) {
-        String finalMessage = parseReplaces(message, replaces);
-        String prefix = config.getPrefix(level).replace("{0}", name);
+    private String buildMessage(final LogLevel level, final String name, final String message) {
+        MessageTemplate prefix = prefixes[(level != null ? level.ordinal() : prefixes.length - 1)];
+        return prefix.render(name, message);
+    }
 
-        return prefix.replace("{1}", finalMessage);
+    protected void doLog(final String message) {
+        doLog(null, message);
     }
 
     /**
-     * Parse the message replaces
+     * Send a message to the console handlers
      *
+     * @param level the message level
      * @param message the message
-     * @param replaces the message replaces
-     * @return the message
      */
-    private static String parseReplaces(final String message, final Object... replaces) {
-        StringBuilder builder = new StringBuilder(message);
-
-        for (int i = 0; i < replaces.length; i++) {
-            String placeholder = String.format("{%d}", i);
-            int indexOf = builder.indexOf(placeholder);
-
-            int length = placeholder.length();
-            while (indexOf != -1) {
-                builder.replace(indexOf, indexOf + length, String.valueOf(replaces[i]));
-                indexOf = builder.indexOf(placeholder);
-            }
-        }
-
-        return builder.toString();
-    }
-
-    protected void doLog(final String message) {
-        LogRecord record = new LogRecord(Level.ALL, message);
+    protected void doLog(final LogLevel level, final String message) {
+        LogRecord record = new LogRecord((level != null ? level.toJavaLevel() : Level.ALL), message);
         record.setLoggerName("KarmaAPI - Logger");
         log(record);
     }
@@ -292,34 +330,159 @@ class BoundedConsoleHandler extends Handler {
 
     private final static Writer writer = new OutputStreamWriter(System.err, StandardCharsets.UTF_8);
 
+    private final static int QUEUE_LIMIT = 8192;
+    private final static long FLUSH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final static Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final static AtomicInteger queued = new AtomicInteger(0);
+    private final static AtomicLong dropped = new AtomicLong(0);
+    private static volatile boolean flushRequested = false;
+    private static Thread consoleWriter;
+
+    private final boolean async;
+    private volatile Level flushLevel = Level.SEVERE;
+
+    /**
+     * Initialize the console handler
+     *
+     * @param async if the messages are written by the
+     *              console writer thread, so the logging threads
+     *              never wait for the terminal
+     */
+    BoundedConsoleHandler(final boolean async) {
+        this.async = async;
+        if (async) startWriter();
+    }
+
+    /**
+     * Set the minimum level of the messages
+     * which flush the console right away
+     *
+     * @param level the flush level
+     */
+    void setFlushLevel(final Level level) {
+        if (level != null) flushLevel = level;
+    }
+
     /**
      * Format and publish a <tt>LogRecord</tt>.
      * <p>
-     * The <tt>StreamHandler</tt> first checks if there is an <tt>OutputStream</tt>
-     * and if the given <tt>LogRecord</tt> has at least the required log level.
-     * If not it silently returns.  If so, it calls any associated
-     * <tt>Filter</tt> to check if the record should be published.  If so,
-     * it calls its <tt>Formatter</tt> to format the record and then writes
-     * the result to the current output stream.
-     * <p>
-     * If this is the first <tt>LogRecord</tt> to be written to a given
-     * <tt>OutputStream</tt>, the <tt>Formatter</tt>'s "head" string is
-     * written to the stream before the <tt>LogRecord</tt> is written.
+     * Asynchronous handlers queue the message for the console
+     * writer thread, which writes the queued messages in batches
+     * and flushes them at most every few milliseconds, or right
+     * away after a message of the flush level. While the queue
+     * is full, the messages are dropped instead of waiting
      *
      * @param record description of the log event. A null record is
      *               silently ignored and is not published
      */
     @Override @SneakyThrows
-    public synchronized void publish(final LogRecord record) {
-        writer.write(ConsoleColor.parse(record.getMessage()) + ConsoleColor.RESET.toOsCode() + "\n");
+    public void publish(final LogRecord record) {
+        if (record == null) return;
+
+        boolean flush = record.getLevel().intValue() >= flushLevel.intValue();
+        if (!async) {
+            synchronized (writer) {
+                writer.write(format(record.getMessage()));
+                if (flush) writer.flush();
+            }
+            return;
+        }
+
+        if (queued.incrementAndGet() > QUEUE_LIMIT) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+
+        queue.add(String.valueOf(record.getMessage()));
+        if (flush) {
+            flushRequested = true;
+            LockSupport.unpark(consoleWriter);
+        }
     }
 
     /**
-     * Flush any buffered output.
+     * Flush any buffered output. Asynchronous handlers
+     * are flushed by the console writer thread
      */
     @Override @SneakyThrows
     public void flush() {
-        writer.flush();
+        if (async) return;
+
+        synchronized (writer) {
+            writer.flush();
+        }
+    }
+
+    private static String format(final String message) {
+        return ConsoleColor.parse(message) + ConsoleColor.RESET.toOsCode() + "\n";
+    }
+
+    private static synchronized void startWriter() {
+        if (consoleWriter != null) return;
+
+        consoleWriter = new Thread(() -> {
+            long lastFlush = System.nanoTime();
+            boolean pending = false;
+            while (!Thread.currentThread().isInterrupted()) {
+                pending |= drain();
+
+                long elapsed = System.nanoTime() - lastFlush;
+                if (pending && (flushRequested || elapsed >= FLUSH_INTERVAL)) {
+                    flushRequested = false;
+                    flushWriter();
+
+                    pending = false;
+                    lastFlush = System.nanoTime();
+                    elapsed = 0;
+                }
+
+                if (queue.isEmpty()) LockSupport.parkNanos(FLUSH_INTERVAL - Math.min(elapsed, FLUSH_INTERVAL - 1));
+            }
+        }, "KarmaAPI console writer");
+        consoleWriter.setDaemon(true);
+        consoleWriter.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            drain();
+            flushWriter();
+        }));
+    }
+
+    /**
+     * Write the queued messages
+     *
+     * @return if any message was written
+     */
+    private static boolean drain() {
+        boolean wrote = false;
+        synchronized (writer) {
+            try {
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    writer.write(format("&c" + lost + " console messages were dropped because the console could not keep up"));
+                    wrote = true;
+                }
+
+                String message;
+                while ((message = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    writer.write(format(message));
+                    wrote = true;
+                }
+            } catch (IOException ignored) {}
+        }
+
+        return wrote;
+    }
+
+    private static void flushWriter() {
+        synchronized (writer) {
+            try {
+                writer.flush();
+            } catch (IOException ignored) {}
+        }
     }
 
     /**
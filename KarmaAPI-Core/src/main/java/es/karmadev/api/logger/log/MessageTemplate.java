@@ -0,0 +1,126 @@
+package es.karmadev.api.logger.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed logger message. The {@code {n}} placeholders
+ * of a message are located once, and the parsed message is
+ * cached, so rendering a message only appends its literal
+ * parts and its arguments
+ */
+final class MessageTemplate {
+
+    private final static int CACHE_LIMIT = 2048;
+    private final static int BUFFER_LIMIT = 16 * 1024;
+
+    private final static Map<String, MessageTemplate> CACHE = new ConcurrentHashMap<>();
+    private final static ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String[] literals;
+    private final int[] arguments;
+
+    /**
+     * Initialize the template
+     *
+     * @param literals the literal parts, one more than
+     *                 the amount of placeholders
+     * @param arguments the argument index of each placeholder
+     */
+    private MessageTemplate(final String[] literals, final int[] arguments) {
+        this.literals = literals;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Get the template of a message
+     *
+     * @param message the message
+     * @return the message template
+     */
+    static MessageTemplate of(final String message) {
+        MessageTemplate template = CACHE.get(message);
+        if (template != null) return template;
+
+        template = parse(message);
+        if (CACHE.size() >= CACHE_LIMIT) CACHE.clear(); //Messages built at runtime would grow the cache forever
+        CACHE.put(message, template);
+
+        return template;
+    }
+
+    /**
+     * Render a message
+     *
+     * @param message the message
+     * @param replaces the message replaces
+     * @return the rendered message
+     */
+    static String format(final String message, final Object... replaces) {
+        if (message == null) return "null";
+        return of(message).render(replaces);
+    }
+
+    /**
+     * Render the template
+     *
+     * @param replaces the template replaces
+     * @return the rendered template
+     */
+    String render(final Object... replaces) {
+        if (arguments.length == 0) return literals[0];
+
+        StringBuilder builder = BUFFER.get();
+        builder.setLength(0);
+
+        for (int i = 0; i < arguments.length; i++) {
+            builder.append(literals[i]);
+
+            int index = arguments[i];
+            if (replaces != null && index < replaces.length) {
+                builder.append(replaces[index]);
+            } else {
+                builder.append('{').append(index).append('}');
+            }
+        }
+        builder.append(literals[arguments.length]);
+
+        String result = builder.toString();
+        if (builder.capacity() > BUFFER_LIMIT) BUFFER.remove();
+
+        return result;
+    }
+
+    private static MessageTemplate parse(final String message) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+
+        int literalStart = 0;
+        int length = message.length();
+        for (int i = 0; i < length; i++) {
+            if (message.charAt(i) != '{') continue;
+
+            int end = i + 1;
+            int index = 0;
+            while (end < length && end - i <= 9 && message.charAt(end) >= '0' && message.charAt(end) <= '9') {
+                index = index * 10 + (message.charAt(end) - '0');
+                end++;
+            }
+
+            if (end == i + 1 || end >= length || message.charAt(end) != '}') continue;
+
+            literals.add(message.substring(literalStart, i));
+            arguments.add(index);
+            literalStart = end + 1;
+            i = end;
+        }
+        literals.add(message.substring(literalStart));
+
+        int[] argumentArray = new int[arguments.size()];
+        for (int i = 0; i < argumentArray.length; i++) argumentArray[i] = arguments.get(i);
+
+        return new MessageTemplate(literals.toArray(new String[0]), argumentArray);
+    }
+}
@@ -8,8 +8,6 @@ import lombok.Getter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Console colors
@@ -117,15 +115,25 @@ public enum ConsoleColor {
 
     private final static Map<Character, ConsoleColor> codes = new ConcurrentHashMap<>();
 
-    private final static Pattern colorPattern = Pattern.compile("&(?<code>[0-9a-f]|l|r|n|o|m)");
-
+    private final static boolean windows = System.getProperty("os.name").toLowerCase().contains("windows");
+    private final static String[] winTable = new String[128];
+    private final static String[] unixTable = new String[128];
+    private final static String[] escapeSequences;
 
     static {
+        List<String> sequences = new ArrayList<>();
         for (ConsoleColor color : ConsoleColor.values()) {
             codes.put(color.code, color);
             winCodes.put(color.code, color.winCode);
             unixCodes.put(color.code, color.unixCode);
+
+            winTable[color.code] = color.winCode;
+            unixTable[color.code] = color.unixCode;
+            sequences.add(color.winCode);
+            sequences.add(color.unixCode);
         }
+
+        escapeSequences = sequences.toArray(new String[0]);
     }
 
     /**
@@ -167,8 +175,7 @@ public enum ConsoleColor {
      * @return the OS code
      */
     public String toOsCode() {
-        String os = System.getProperty("os.name").toLowerCase();
-        if (os.contains("windows")) {
+        if (windows) {
             return (forceOtherOs ? unixCodes.get(code) : winCodes.get(code));
         } else {
             return  (forceOtherOs ? winCodes.get(code) : unixCodes.get(code));
@@ -238,38 +245,7 @@ public enum ConsoleColor {
      * @return the parsed message
      */
     public static String parse(final String message) {
-        String os = System.getProperty("os.name").toLowerCase();
-        String str = message.replace("§", "&") + "&r";
-
-        StringBuilder builder = new StringBuilder();
-        Matcher matcher = colorPattern.matcher(str);
-
-        int source = 0;
-        boolean parsed = false;
-        while (matcher.find()) {
-            parsed = true;
-            int start = matcher.start();
-            int end = matcher.end();
-
-            builder.append(str, source, start);
-
-            char code = matcher.group("code").charAt(0);
-            String osCode = (os.contains("windows") ? winCodes.get(code) : unixCodes.get(code));
-
-            if (osCode == null) continue; //Non-existent, skip
-            builder.append(osCode);
-            source = end;
-        }
-
-        if (parsed) {
-            if (source < str.length()) {
-                builder.append(str, source, str.length());
-            }
-        } else {
-            builder.append(str);
-        }
-
-        return builder.toString();
+        return translate(message, (windows ? winTable : unixTable), true);
     }
 
     /**
@@ -279,41 +255,81 @@ public enum ConsoleColor {
      * @return the uncolored message
      */
     public static String strip(final String message) {
-        String os = System.getProperty("os.name").toLowerCase();
-        String str = message.replace("§", "&");
-
-        for (Character code : codes.keySet()) {
-            String winCode = winCodes.get(code);
-            String unixCode = unixCodes.get(code);
+        return translate(message, null, false);
+    }
 
-            str = str.replace(winCode, "&" + code)
-                    .replace(unixCode, "&" + code);
-        }
+    /**
+     * Translate the color codes of a message in a
+     * single pass. Each code character is looked up in
+     * the table, and replaced by its console code
+     *
+     * @param message the message
+     * @param table the console codes indexed by code
+     *              character, or null to strip the codes and
+     *              the console codes of the message
+     * @param reset if a reset code should be appended
+     * @return the translated message
+     */
+    private static String translate(final String message, final String[] table, final boolean reset) {
+        int length = message.length();
+        if (table == null && !hasCodes(message)) return message;
+
+        StringBuilder builder = new StringBuilder(length + (table != null ? 32 : 0));
+        for (int i = 0; i < length; i++) {
+            char character = message.charAt(i);
+            if (character == '&' || character == '\u00a7') {
+                if (i + 1 < length) {
+                    char code = message.charAt(i + 1);
+                    if (code < 128 && unixTable[code] != null) {
+                        if (table != null) builder.append(table[code]);
+                        i++;
+                        continue;
+                    }
+                }
+
+                builder.append('&');
+                continue;
+            }
 
-        StringBuilder builder = new StringBuilder();
-        Matcher matcher = colorPattern.matcher(str);
+            if (table == null && character == '\u001B') {
+                int sequence = escapeSequence(message, i);
+                if (sequence > 0) {
+                    i += sequence - 1;
+                    continue;
+                }
+            }
 
-        int source = 0;
-        boolean parsed = false;
+            builder.append(character);
+        }
 
-        while (matcher.find()) {
-            parsed = true;
-            int start = matcher.start();
-            int end = matcher.end();
+        if (reset) builder.append(table[RESET.code]);
+        return builder.toString();
+    }
 
-            builder.append(str, source, start);
-            source = end;
+    private static boolean hasCodes(final String message) {
+        for (int i = 0; i < message.length(); i++) {
+            char character = message.charAt(i);
+            if (character == '&' || character == '\u00a7' || character == '\u001B') return true;
         }
 
-        if (parsed) {
-            if (source < str.length()) {
-                builder.append(str, source, str.length());
-            }
-        } else {
-            builder.append(str);
+        return false;
+    }
+
+    /**
+     * Get the length of the console code at
+     * the specified position
+     *
+     * @param message the message
+     * @param index the position
+     * @return the console code length, or 0 if
+     * there's no console code at the position
+     */
+    private static int escapeSequence(final String message, final int index) {
+        for (String sequence : escapeSequences) {
+            if (message.startsWith(sequence, index)) return sequence.length();
         }
 
-        return builder.toString();
+        return 0;
     }
 
     /**
@@ -9,35 +9,58 @@ import es.karmadev.api.file.util.StreamUtils;
 import es.karmadev.api.logger.log.console.ConsoleColor;
 import es.karmadev.api.logger.log.console.LogLevel;
 import es.karmadev.api.logger.log.file.component.LogQueue;
-import es.karmadev.api.logger.log.file.component.QuePair;
 import es.karmadev.api.logger.log.file.component.header.HeaderLine;
 import es.karmadev.api.logger.log.file.component.header.LogHeader;
-import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.TextStyle;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * KarmaAPI log file
+ * KarmaAPI log file. Log entries are written by a
+ * writer thread shared by all the log files, which drains
+ * the log queue of each file in batches into a buffer and writes
+ * the buffer to the log file channel once it is full or once the
+ * flush interval passes. The channel stays open until the day
+ * changes or the log file is {@link #close() closed}
  */
 public class LogFile {
 
+    private final static long DEFAULT_FLUSH_INTERVAL = 200;
+    private final static int DEFAULT_FLUSH_SIZE = 64 * 1024;
+    private final static int DRAIN_BATCH = 1024;
+
+    private final static Set<LogFile> open = ConcurrentHashMap.newKeySet();
+    private static Thread writer;
+
     private final LogHeader header = new LogHeader();
     private final LogQueue queue = new LogQueue();
     private final APISource source;
-    private final AtomicBoolean writing = new AtomicBoolean(false);
+    private final long flushInterval;
+    private final int flushSize;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean closed = false;
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private LocalDate channelDay;
+    private long lastFlush = System.nanoTime();
 
     /**
      * Initialize the log file
@@ -45,7 +68,23 @@ public class LogFile {
      * @param source the log file source
      */
     public LogFile(final APISource source) {
+        this(source, DEFAULT_FLUSH_INTERVAL, TimeUnit.MILLISECONDS, DEFAULT_FLUSH_SIZE);
+    }
+
+    /**
+     * Initialize the log file
+     *
+     * @param source the log file source
+     * @param flushInterval the maximum time a log entry waits
+     *                      before being written to the file
+     * @param unit the flush interval unit
+     * @param flushSize the amount of bytes to buffer before
+     *                  writing them to the file
+     */
+    public LogFile(final APISource source, final long flushInterval, final TimeUnit unit, final int flushSize) {
         this.source = source;
+        this.flushInterval = Math.max(1, unit.toNanos(flushInterval));
+        this.flushSize = Math.max(1024, flushSize);
         header.add(new HeaderLine("# System information"));
         header.add(new HeaderLine("OS Name: " + JavaVirtualMachine.osName()));
         header.add(new HeaderLine("OS Version: " + JavaVirtualMachine.osVersion()));
@@ -87,41 +126,8 @@ public class LogFile {
         Path fl = logFile();
         rebuildHeader(fl);
 
-        //ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
-        AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(() -> {
-            if (queue.hasItems() && !writing.get()) {
-                writing.set(true);
-                Path logFile = logFile();
-
-                QuePair<LogLevel, Instant, Object> lateLogData = queue.next();
-                LogLevel level = lateLogData.getFirst();
-
-                Instant time = lateLogData.getSecond();
-                ZonedDateTime zdt = ZonedDateTime.ofInstant(time, ZoneId.systemDefault());
-
-                Object value = lateLogData.getThird();
-                String rawValue;
-                if (value instanceof Throwable) {
-                    Throwable error = (Throwable) value;
-                    rawValue = String.format("```java%n%s%n```%n", buildErrorMessage(error));
-                } else {
-                    rawValue = String.format("[%02d:%02d:%02d - %s] %s<br>%n",
-                            zdt.getHour(),
-                            zdt.getMinute(),
-                            zdt.getSecond(),
-                            level.getRaw(),
-                            value);
-                }
-
-                try {
-                    Files.write(logFile, rawValue.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
-                } catch (IOException ex) {
-                    ExceptionCollector.catchException(LogFile.class, ex);
-                } finally {
-                    writing.set(false);
-                }
-            }
-        }, 0, 1, TimeUnit.MILLISECONDS);
+        open.add(this);
+        startWriter();
     }
 
     /**
@@ -142,6 +148,8 @@ public class LogFile {
      * @param line the line to log
      */
     public void append(final LogLevel level, final Throwable error, final String line) {
+        if (closed) return;
+
         queue.append(level, ConsoleColor.strip(line));
         if (error != null) queue.append(level, error);
     }
@@ -152,12 +160,19 @@ public class LogFile {
      * @return the current log file
      */
     public Path logFile() {
-        Instant now = Instant.now();
-        ZonedDateTime zdt = ZonedDateTime.ofInstant(now, ZoneId.systemDefault());
+        return logFile(LocalDate.now());
+    }
 
-        String day = String.format("%02d", zdt.getDayOfMonth());
-        String month = zdt.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault()).toLowerCase();
-        String year = String.valueOf(zdt.getYear());
+    /**
+     * Get the log file of the specified day
+     *
+     * @param date the day
+     * @return the log file
+     */
+    private Path logFile(final LocalDate date) {
+        String day = String.format("%02d", date.getDayOfMonth());
+        String month = date.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault()).toLowerCase();
+        String year = String.valueOf(date.getYear());
 
         Path schema = source.workingDirectory().resolve("logs").resolve("year\\\\month\\\\day.md");
         PathUtilities.createPath(schema);
@@ -170,6 +185,215 @@ public class LogFile {
         return file;
     }
 
+    /**
+     * Get the log queue, to configure its
+     * overflow policy or read its dropped entries
+     *
+     * @return the log queue
+     */
+    public LogQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Close the log file. The pending log entries
+     * are written before the file is closed, and the
+     * entries appended after are discarded
+     */
+    public synchronized void close() {
+        if (closed) return;
+
+        closed = true;
+        open.remove(this);
+        try {
+            drain();
+            flush();
+        } catch (Throwable ex) {
+            ExceptionCollector.catchException(LogFile.class, ex);
+        }
+
+        closeChannel();
+        buffer = null;
+    }
+
+    /**
+     * Write the queued entries into the buffer,
+     * and flush the buffer if the flush interval
+     * passed
+     *
+     * @return the nanoseconds until the next flush
+     */
+    private synchronized long service() {
+        if (closed) return flushInterval;
+
+        drain();
+        long wait = flushInterval - (System.nanoTime() - lastFlush);
+        if (wait <= 0) {
+            flush();
+            wait = flushInterval;
+        }
+
+        return wait;
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) return;
+
+        writer = new Thread(LogFile::work, "KarmaAPI log writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (LogFile file : open) file.close();
+        }, "KarmaAPI log writer shutdown"));
+    }
+
+    /**
+     * Writer thread loop
+     */
+    private static void work() {
+        long idle = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FLUSH_INTERVAL);
+        while (!Thread.currentThread().isInterrupted()) {
+            long wait = idle;
+            boolean pending = false;
+            for (LogFile file : open) {
+                try {
+                    wait = Math.min(wait, file.service());
+                } catch (Throwable ex) {
+                    ExceptionCollector.catchException(LogFile.class, ex);
+                }
+
+                pending |= file.queue.hasItems();
+            }
+
+            if (!pending) LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * Write all the queued entries into
+     * the buffer
+     */
+    private void drain() {
+        while (queue.drain(this::write, DRAIN_BATCH) == DRAIN_BATCH) {
+            if (System.nanoTime() - lastFlush >= flushInterval) flush();
+        }
+    }
+
+    /**
+     * Write a log entry into the buffer
+     *
+     * @param level the entry level
+     * @param epochNanos the entry time
+     * @param value the entry value
+     */
+    private void write(final LogLevel level, final long epochNanos, final Object value) {
+        try {
+            ZonedDateTime zdt = ZonedDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault());
+            LocalDate day = zdt.toLocalDate();
+            if (!day.equals(channelDay)) {
+                flush();
+                openChannel(day);
+            }
+
+            write(format(level, value, zdt));
+        } catch (Throwable ex) {
+            ExceptionCollector.catchException(LogFile.class, ex); //Skip the entry, the writer must keep running
+        }
+    }
+
+    private String format(final LogLevel level, final Object value, final ZonedDateTime zdt) {
+        if (value instanceof Throwable) {
+            return String.format("```java%n%s%n```%n", buildErrorMessage((Throwable) value));
+        }
+
+        line.setLength(0);
+        line.append('[');
+        appendTime(zdt.getHour());
+        line.append(':');
+        appendTime(zdt.getMinute());
+        line.append(':');
+        appendTime(zdt.getSecond());
+        line.append(" - ").append(level.getRaw()).append("] ").append(value).append("<br>").append(System.lineSeparator());
+
+        return line.toString();
+    }
+
+    private void appendTime(final int value) {
+        if (value < 10) line.append('0');
+        line.append(value);
+    }
+
+    /**
+     * Write the data into the buffer, flushing
+     * the buffer if it gets full
+     *
+     * @param data the data to write
+     */
+    private void write(final String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        if (buffer == null) buffer = ByteBuffer.allocate(flushSize); //Only the files which log hold a buffer
+        if (bytes.length > buffer.remaining()) flush();
+
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+            return;
+        }
+
+        buffer.put(bytes);
+        if (!buffer.hasRemaining()) flush();
+    }
+
+    /**
+     * Write the buffer to the file
+     */
+    private void flush() {
+        lastFlush = System.nanoTime();
+        if (buffer == null || buffer.position() == 0) return;
+
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(final ByteBuffer data) {
+        if (channel == null) return;
+
+        try {
+            while (data.hasRemaining()) channel.write(data);
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(LogFile.class, ex);
+        }
+    }
+
+    /**
+     * Open the log file channel of the
+     * specified day
+     *
+     * @param day the day
+     */
+    private void openChannel(final LocalDate day) {
+        closeChannel();
+        channelDay = day;
+
+        try {
+            channel = FileChannel.open(logFile(day), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(LogFile.class, ex);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            ExceptionCollector.catchException(LogFile.class, ex);
+        }
+        channel = null;
+    }
+
     /**
      * Rebuild the file header
      *
@@ -3,15 +3,67 @@ package es.karmadev.api.logger.log.file.component;
 import es.karmadev.api.logger.log.console.LogLevel;
 
 import java.time.Instant;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Log queue
+ * Log queue. The queue is a preallocated ring of
+ * entry slots which any amount of threads may append to,
+ * and a single thread drains. While the ring is full, new
+ * entries are handled by the queue {@link OverflowPolicy}. Entries
+ * never wait for room longer than a second, so a stuck writer
+ * cannot park the logging threads forever
  */
+@SuppressWarnings("unused")
 public class LogQueue {
 
-    private final Queue<QuePair<LogLevel, Instant, Object>> logMessageQueue = new ConcurrentLinkedDeque<>();
+    private final static int DEFAULT_CAPACITY = 8192;
+    private final static long BLOCK_WAIT = TimeUnit.MICROSECONDS.toNanos(50);
+    private final static long BLOCK_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+    private final int mask;
+    private final LogLevel[] levels;
+    private final long[] times;
+    private final Object[] values;
+    private final AtomicLongArray published;
+
+    private final AtomicLong head = new AtomicLong(0);
+    private final AtomicLong tail = new AtomicLong(0);
+    private final AtomicLong overflowed = new AtomicLong(0);
+    private final AtomicLongArray dropped = new AtomicLongArray(LogLevel.values().length);
+
+    private volatile OverflowPolicy policy;
+    private volatile LogLevel threshold = LogLevel.WARNING;
+    private volatile int sampleRate = 10;
+
+    /**
+     * Create a log queue
+     */
+    public LogQueue() {
+        this(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Create a log queue
+     *
+     * @param capacity the queue capacity, rounded up
+     *                 to the next power of two
+     * @param policy the queue overflow policy
+     */
+    public LogQueue(final int capacity, final OverflowPolicy policy) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+        this.mask = size - 1;
+        this.levels = new LogLevel[size];
+        this.times = new long[size];
+        this.values = new Object[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) published.set(i, -1);
+
+        this.policy = (policy != null ? policy : OverflowPolicy.DROP_OLDEST);
+    }
 
     /**
      * Append content to the log queue
@@ -20,7 +72,88 @@ public class LogQueue {
      * @param raw the raw content
      */
     public void append(final LogLevel level, final Object raw) {
-        logMessageQueue.add(QuePair.build(level, Instant.now(), raw));
+        long time = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        boolean sampled = false;
+        long waitStart = 0;
+
+        while (true) {
+            long sequence = head.get();
+            if (sequence - tail.get() > mask) {
+                OverflowPolicy current = policy;
+                switch (current) {
+                    case DROP_OLDEST:
+                        dropOldest();
+                        continue;
+                    case DROP_BELOW_LEVEL:
+                        if (level.ordinal() < threshold.ordinal()) {
+                            dropped.incrementAndGet(level.ordinal());
+                            return;
+                        }
+                        break;
+                    case SAMPLE:
+                        if (!sampled) {
+                            if (overflowed.getAndIncrement() % Math.max(1, sampleRate) != 0) {
+                                dropped.incrementAndGet(level.ordinal());
+                                return;
+                            }
+                            sampled = true;
+                        }
+                        break;
+                    case BLOCK:
+                    default:
+                        break;
+                }
+
+                long now = System.nanoTime();
+                if (waitStart == 0) {
+                    waitStart = now;
+                } else if (now - waitStart >= BLOCK_TIMEOUT) {
+                    dropped.incrementAndGet(level.ordinal());
+                    return;
+                }
+
+                LockSupport.parkNanos(this, BLOCK_WAIT);
+                continue;
+            }
+
+            if (head.compareAndSet(sequence, sequence + 1)) {
+                int index = (int) (sequence & mask);
+                while (published.get(index) == sequence - levels.length) Thread.yield(); //The previous entry is still being released
+
+                levels[index] = level;
+                times[index] = time;
+                values[index] = raw;
+                published.set(index, sequence);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drain the queued entries
+     *
+     * @param consumer the entry consumer
+     * @param max the maximum amount of entries to drain
+     * @return the amount of drained entries
+     */
+    public int drain(final EntryConsumer consumer, final int max) {
+        int count = 0;
+        while (count < max) {
+            long sequence = tail.get();
+            int index = (int) (sequence & mask);
+            if (published.get(index) != sequence) break;
+
+            LogLevel level = levels[index];
+            long time = times[index];
+            Object value = values[index];
+            if (!tail.compareAndSet(sequence, sequence + 1)) continue; //Dropped while we read it
+
+            release(index);
+            consumer.accept(level, time, value);
+            count++;
+        }
+
+        return count;
     }
 
     /**
@@ -29,7 +162,14 @@ public class LogQueue {
      * @return the next queue content
      */
     public QuePair<LogLevel, Instant, Object> next() {
-        return logMessageQueue.poll();
+        Object[] entry = new Object[3];
+        if (drain((level, time, value) -> {
+            entry[0] = level;
+            entry[1] = Instant.ofEpochSecond(0, time);
+            entry[2] = value;
+        }, 1) == 0) return null;
+
+        return QuePair.build((LogLevel) entry[0], (Instant) entry[1], entry[2]);
     }
 
     /**
@@ -38,6 +178,118 @@ public class LogQueue {
      * @return if the queue contains items
      */
     public boolean hasItems() {
-        return !logMessageQueue.isEmpty();
+        return head.get() != tail.get();
+    }
+
+    /**
+     * Get the amount of queued entries
+     *
+     * @return the queue size
+     */
+    public int size() {
+        return (int) Math.max(0, head.get() - tail.get());
+    }
+
+    /**
+     * Set the queue overflow policy
+     *
+     * @param policy the overflow policy
+     */
+    public void setPolicy(final OverflowPolicy policy) {
+        if (policy != null) this.policy = policy;
+    }
+
+    /**
+     * Set the minimum level of the entries which are
+     * kept while the queue is full, when using
+     * {@link OverflowPolicy#DROP_BELOW_LEVEL}
+     *
+     * @param threshold the threshold level
+     */
+    public void setThreshold(final LogLevel threshold) {
+        if (threshold != null) this.threshold = threshold;
+    }
+
+    /**
+     * Set the rate of entries which are kept while the
+     * queue is full, when using {@link OverflowPolicy#SAMPLE}.
+     * A rate of 10 keeps one of every 10 entries
+     *
+     * @param sampleRate the sample rate
+     */
+    public void setSampleRate(final int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Get the amount of entries dropped
+     * because the queue was full
+     *
+     * @return the dropped entries
+     */
+    public long getDropped() {
+        long total = 0;
+        for (int i = 0; i < dropped.length(); i++) total += dropped.get(i);
+
+        return total;
+    }
+
+    /**
+     * Get the amount of entries of the specified level
+     * dropped because the queue was full
+     *
+     * @param level the level
+     * @return the dropped entries
+     */
+    public long getDropped(final LogLevel level) {
+        return dropped.get(level.ordinal());
+    }
+
+    /**
+     * Drop the oldest queued entry, if it
+     * has already been published
+     */
+    private void dropOldest() {
+        long sequence = tail.get();
+        int index = (int) (sequence & mask);
+        if (published.get(index) != sequence) {
+            Thread.yield();
+            return;
+        }
+
+        LogLevel level = levels[index];
+        if (tail.compareAndSet(sequence, sequence + 1)) {
+            release(index);
+            dropped.incrementAndGet(level.ordinal());
+        }
+    }
+
+    /**
+     * Release a slot taken from the queue, so
+     * the ring doesn't keep its entry reachable
+     *
+     * @param index the slot index
+     */
+    private void release(final int index) {
+        levels[index] = null;
+        values[index] = null;
+        published.set(index, -1);
+    }
+
+    /**
+     * Log queue entry consumer
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Consume an entry
+         *
+         * @param level the entry level
+         * @param epochNanos the entry time, in nanoseconds
+         *                   since the epoch
+         * @param value the entry value
+         */
+        void accept(final LogLevel level, final long epochNanos, final Object value);
     }
 }
@@ -0,0 +1,29 @@
+package es.karmadev.api.logger.log.file.component;
+
+/**
+ * Log queue overflow policy, which decides what
+ * happens to new log entries while the queue is full
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait until the queue has room for the
+     * entry, or drop it if the wait times out
+     */
+    BLOCK,
+    /**
+     * Drop the oldest queued entry to make
+     * room for the new one. This is the default
+     * policy
+     */
+    DROP_OLDEST,
+    /**
+     * Drop the entries below the queue threshold
+     * level, and wait for room for the rest
+     */
+    DROP_BELOW_LEVEL,
+    /**
+     * Keep only one of every few entries, waiting
+     * for room for it, and drop the rest
+     */
+    SAMPLE
+}
@@ -1,5 +1,6 @@
 package es.karmadev.api.schedule.runner.async;
 
+import es.karmadev.api.core.ExceptionCollector;
 import es.karmadev.api.schedule.runner.task.ConsumerTask;
 import es.karmadev.api.schedule.runner.task.RunTask;
 import es.karmadev.api.schedule.runner.TaskRunner;
@@ -10,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -19,7 +21,9 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
- * Asynchronous task executor
+ * Asynchronous task executor. All the executors are
+ * driven by a shared timing wheel, and their event listeners
+ * run on the wheel worker pool
  */
 @SuppressWarnings("unused")
 public class AsyncTaskExecutor implements TaskRunner<Long> {
@@ -44,11 +48,19 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
     private long limit;
     private final TimeUnit workingUnit;
 
-    private TaskEvent currentContext = TaskEvent.START;
+    private final Queue<Runnable> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean firing = new AtomicBoolean(false);
+
+    private volatile TaskEvent currentContext = TaskEvent.START;
+    private volatile TimingWheel.Timeout timeout;
+    private volatile boolean finished = false;
     private boolean started = false;
 
     /**
-     * Create a new asynchronous task scheduler
+     * Create a new asynchronous task scheduler. The
+     * scheduler runs once every unit, or once every 10
+     * milliseconds if the unit is smaller than that, see
+     * {@link #AsyncTaskExecutor(Number, Number, TimeUnit)}
      *
      * @param limit the time limit
      * @param workingUnit the working unit
@@ -58,18 +70,22 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
     }
 
     /**
-     * Create a new asynchronous scheduler
+     * Create a new asynchronous scheduler. The
+     * schedulers run with a resolution of 10 milliseconds,
+     * so the interval is rounded up to it; a scheduler with an
+     * interval of 1 millisecond runs every 10 milliseconds, and its
+     * time left and elapsed time advance 10 milliseconds per run
      *
      * @param interval the scheduler interval
      * @param limit the scheduler time limit
      * @param workingUnit the scheduler working unit
      */
     public AsyncTaskExecutor(final Number interval, final Number limit, final TimeUnit workingUnit) {
-        this.interval = interval.longValue();
+        this.interval = TimingWheel.INSTANCE.roundUp(interval.longValue(), workingUnit);
         this.limit = limit.longValue();
         this.workingUnit = workingUnit;
-        elapsedTime.set(interval.longValue());
-        timeLeft.set(limit.longValue() - interval.longValue());
+        elapsedTime.set(this.interval);
+        timeLeft.set(this.limit - this.interval);
 
         taskInstances.put(currentId.get(), this);
     }
@@ -135,45 +151,7 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
         started = true;
         setStatus(TaskStatus.RUNNING, false);
 
-        AtomicReference<ScheduledFuture<?>> future = new AtomicReference<>();
-        future.set(EXECUTOR.scheduleAtFixedRate(() -> EXECUTOR.submit(() -> {
-            if (status().equals(TaskStatus.STOPPED)) return;
-
-            if (status().equals(TaskStatus.RUNNING)) {
-                long timeLeft = this.timeLeft.get();
-
-                executeEvents(TaskEvent.TICK, true);
-                if (timeLeft == 0) {
-                    if (!isRepeating.get()) {
-                        future.get().cancel(true);
-                        setStatus(TaskStatus.STOPPED, false);
-                        executeEvents(TaskEvent.END, false);
-                    } else {
-                        this.timeLeft.set(this.limit - this.interval);
-                        executeEvents(TaskEvent.RESTART, false);
-                    }
-
-                    updateTL.set(false);
-                    elapsedTime.set(this.interval);
-                }
-
-                if (updateTL.get()) {
-                    this.timeLeft.set(timeLeft - this.interval);
-                }
-                updateTL.set(true);
-                return;
-            }
-
-            if (status().equals(TaskStatus.RESUMING)) {
-                executeEvents(TaskEvent.RESUME, true);
-                setStatus(TaskStatus.RUNNING, true);
-            }
-
-            if (lastTaskStatus.get().equals(TaskStatus.RUNNING) && status().equals(TaskStatus.PAUSED)) {
-                lastTaskStatus.set(TaskStatus.PAUSED);
-                executeEvents(TaskEvent.PAUSE, false);
-            }
-        }), 0, interval, workingUnit));
+        timeout = TimingWheel.INSTANCE.schedule(this::tick, 0, interval, workingUnit);
         executeEvents(TaskEvent.START, false);
     }
 
@@ -187,6 +165,9 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
         taskStatus.set(TaskStatus.STOPPED);
         lastTaskStatus.set(TaskStatus.STOPPED);
 
+        TimingWheel.Timeout current = timeout;
+        if (current != null) current.cancel();
+
         executeEvents(TaskEvent.STOP, false);
     }
 
@@ -205,8 +186,14 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
      */
     @Override
     public void resume() {
-        if (taskStatus.get().equals(TaskStatus.PAUSED) || taskStatus.get().equals(TaskStatus.STOPPED))
+        if (taskStatus.get().equals(TaskStatus.PAUSED) || taskStatus.get().equals(TaskStatus.STOPPED)) {
             setStatus(TaskStatus.RESUMING, true);
+
+            TimingWheel.Timeout current = timeout;
+            if (current != null && current.isCancelled() && !finished) {
+                timeout = TimingWheel.INSTANCE.schedule(this::tick, interval, interval, workingUnit);
+            }
+        }
     }
 
     /**
@@ -343,6 +330,56 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
         return taskInstances.get(id);
     }
 
+    /**
+     * Run a task tick. This runs on the timing wheel
+     * thread, so the event listeners are only queued here
+     */
+    private void tick() {
+        if (finished) {
+            TimingWheel.Timeout current = timeout;
+            if (current != null) current.cancel();
+            return;
+        }
+        if (status().equals(TaskStatus.STOPPED)) return;
+
+        if (status().equals(TaskStatus.RUNNING)) {
+            long timeLeft = this.timeLeft.get();
+
+            executeEvents(TaskEvent.TICK, true);
+            if (timeLeft <= 0) { //A rounded interval may step over zero
+                if (!isRepeating.get()) {
+                    finished = true;
+                    TimingWheel.Timeout current = timeout;
+                    if (current != null) current.cancel();
+                    setStatus(TaskStatus.STOPPED, false);
+                    executeEvents(TaskEvent.END, false);
+                } else {
+                    this.timeLeft.set(this.limit - this.interval);
+                    executeEvents(TaskEvent.RESTART, false);
+                }
+
+                updateTL.set(false);
+                elapsedTime.set(this.interval);
+            }
+
+            if (updateTL.get()) {
+                this.timeLeft.set(timeLeft - this.interval);
+            }
+            updateTL.set(true);
+            return;
+        }
+
+        if (status().equals(TaskStatus.RESUMING)) {
+            executeEvents(TaskEvent.RESUME, true);
+            setStatus(TaskStatus.RUNNING, true);
+        }
+
+        if (lastTaskStatus.get().equals(TaskStatus.RUNNING) && status().equals(TaskStatus.PAUSED)) {
+            lastTaskStatus.set(TaskStatus.PAUSED);
+            executeEvents(TaskEvent.PAUSE, false);
+        }
+    }
+
     /**
      * Update the task status
      *
@@ -356,10 +393,40 @@ public class AsyncTaskExecutor implements TaskRunner<Long> {
             lastTaskStatus.set(previous);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Queue the listeners of an event. The listeners
+     * of a task run on the worker pool, one event at a
+     * time and in the order the events happened
+     *
+     * @param taskEvent the event
+     * @param add if the interval should be added to the elapsed time
+     */
     private void executeEvents(final TaskEvent taskEvent, final boolean add) {
         long elapsed = (add ? elapsedTime.getAndAdd(interval) : elapsedTime.get());
 
+        pendingEvents.add(() -> fireEvents(taskEvent, elapsed));
+        if (firing.compareAndSet(false, true)) {
+            TimingWheel.INSTANCE.workers().execute(this::drainEvents);
+        }
+    }
+
+    private void drainEvents() {
+        do {
+            Runnable next;
+            while ((next = pendingEvents.poll()) != null) {
+                try {
+                    next.run();
+                } catch (Throwable ex) {
+                    ExceptionCollector.catchException(AsyncTaskExecutor.class, ex);
+                }
+            }
+
+            firing.set(false);
+        } while (!pendingEvents.isEmpty() && firing.compareAndSet(false, true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fireEvents(final TaskEvent taskEvent, final long elapsed) {
         currentContext = taskEvent;
         taskEvents.stream().filter((e) -> e.trigger() == null || e.trigger().equals(taskEvent)).forEachOrdered((event) -> {
             Object runner = event.get();
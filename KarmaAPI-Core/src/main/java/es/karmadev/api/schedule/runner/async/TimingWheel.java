@@ -0,0 +1,311 @@
+package es.karmadev.api.schedule.runner.async;
+
+import es.karmadev.api.JavaVirtualMachine;
+import es.karmadev.api.core.ExceptionCollector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical hashed timing wheel. Timeouts are
+ * placed in the slot of their deadline, so scheduling
+ * and cancelling a timeout costs the same no matter how
+ * many timeouts are pending. A single thread advances the
+ * wheel and runs all the timeouts of a tick in one pass; the
+ * timeout actions are expected to be short and to hand their
+ * work off to the {@link #workers() worker pool}
+ */
+final class TimingWheel {
+
+    /**
+     * The shared timing wheel
+     */
+    final static TimingWheel INSTANCE = new TimingWheel(TimeUnit.MILLISECONDS.toNanos(10));
+
+    private final static int SLOT_BITS = 9;
+    private final static int SLOTS = 1 << SLOT_BITS;
+    private final static int MASK = SLOTS - 1;
+    private final static int LEVELS = 4;
+
+    private final long tickNanos;
+    private final long startTime = System.nanoTime();
+    private final Bucket[][] wheel = new Bucket[LEVELS][SLOTS];
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+    private final List<Timeout> expired = new ArrayList<>();
+    private final ExecutorService workers = new ForkJoinPool(Math.max(2, JavaVirtualMachine.cores()),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    private final Thread worker;
+
+    private long tick = 0;
+    private int size = 0;
+
+    /**
+     * Initialize the timing wheel
+     *
+     * @param tickNanos the duration of a tick in nanoseconds
+     */
+    private TimingWheel(final long tickNanos) {
+        this.tickNanos = tickNanos;
+        for (Bucket[] level : wheel) {
+            for (int i = 0; i < SLOTS; i++) level[i] = new Bucket();
+        }
+
+        worker = new Thread(this::work, "KarmaAPI timing wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Get the worker pool, which should run
+     * the work of the timeout actions
+     *
+     * @return the worker pool
+     */
+    ExecutorService workers() {
+        return workers;
+    }
+
+    /**
+     * Schedule a timeout
+     *
+     * @param action the action to run
+     * @param delay the delay before the first run
+     * @param period the period between runs, or 0
+     *               to run the action once
+     * @param unit the delay and period unit
+     * @return the scheduled timeout
+     */
+    Timeout schedule(final Runnable action, final long delay, final long period, final TimeUnit unit) {
+        long delayTicks = Math.max(0, ceilTicks(unit.toNanos(delay)));
+        long periodTicks = (period > 0 ? Math.max(1, ceilTicks(unit.toNanos(period))) : 0);
+
+        Timeout timeout = new Timeout(this, action, currentTick() + delayTicks, periodTicks);
+        additions.add(timeout);
+        LockSupport.unpark(worker);
+
+        return timeout;
+    }
+
+    /**
+     * Round a duration up to the wheel resolution,
+     * which is the shortest period the wheel can run
+     *
+     * @param duration the duration
+     * @param unit the duration unit
+     * @return the rounded duration
+     */
+    long roundUp(final long duration, final TimeUnit unit) {
+        if (duration <= 0) return duration;
+        return unit.convert(ceilTicks(unit.toNanos(duration)) * tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private long ceilTicks(final long nanos) {
+        return (nanos + tickNanos - 1) / tickNanos;
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startTime) / tickNanos;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            transferCancellations();
+            transferAdditions();
+
+            if (size == 0) {
+                tick = Math.max(tick, currentTick());
+                if (additions.isEmpty()) LockSupport.park(this);
+                continue;
+            }
+
+            long next = tick + 1;
+            long wait = startTime + next * tickNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                if (startTime + next * tickNanos - System.nanoTime() > 0) continue;
+            }
+
+            tick = next;
+            advance();
+        }
+    }
+
+    /**
+     * Advance the wheel to the current tick, cascading
+     * the timeouts of the upper levels and running the
+     * timeouts which expired
+     */
+    private void advance() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long span = 1L << (SLOT_BITS * level);
+            if ((tick & (span - 1)) != 0) continue;
+
+            Bucket bucket = wheel[level][(int) ((tick >>> (SLOT_BITS * level)) & MASK)];
+            Timeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                size--;
+                place(timeout);
+            }
+        }
+
+        Bucket bucket = wheel[0][(int) (tick & MASK)];
+        for (Timeout timeout = bucket.head; timeout != null; ) {
+            Timeout next = timeout.next;
+            if (timeout.deadline <= tick) {
+                bucket.remove(timeout);
+                size--;
+                expired.add(timeout);
+            }
+
+            timeout = next;
+        }
+
+        for (Timeout timeout : expired) {
+            if (timeout.cancelled) continue;
+
+            if (timeout.period > 0) {
+                timeout.deadline += timeout.period;
+                place(timeout);
+            }
+
+            try {
+                timeout.action.run();
+            } catch (Throwable ex) {
+                ExceptionCollector.catchException(TimingWheel.class, ex);
+            }
+        }
+        expired.clear();
+    }
+
+    private void transferAdditions() {
+        Timeout timeout;
+        while ((timeout = additions.poll()) != null) {
+            if (!timeout.cancelled) place(timeout);
+        }
+    }
+
+    private void transferCancellations() {
+        Timeout timeout;
+        while ((timeout = cancellations.poll()) != null) {
+            if (timeout.bucket == null) continue;
+
+            timeout.bucket.remove(timeout);
+            size--;
+        }
+    }
+
+    private void place(final Timeout timeout) {
+        long deadline = Math.max(timeout.deadline, tick + 1);
+        long delta = deadline - tick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+
+        long slot = deadline >>> (SLOT_BITS * level);
+        if (level == LEVELS - 1 && delta >= 1L << (SLOT_BITS * LEVELS)) {
+            slot = (tick >>> (SLOT_BITS * level)) - 1; //Out of range, park it in the last slot to cascade
+        }
+
+        wheel[level][(int) (slot & MASK)].add(timeout);
+        size++;
+    }
+
+    /**
+     * Timing wheel timeout
+     */
+    final static class Timeout {
+
+        private final TimingWheel owner;
+        private final Runnable action;
+        private final long period;
+
+        private long deadline;
+        private volatile boolean cancelled = false;
+
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(final TimingWheel owner, final Runnable action, final long deadline, final long period) {
+            this.owner = owner;
+            this.action = action;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Cancel the timeout
+         */
+        void cancel() {
+            if (cancelled) return;
+
+            cancelled = true;
+            owner.cancellations.add(this);
+            LockSupport.unpark(owner.worker);
+        }
+
+        /**
+         * Get if the timeout is cancelled
+         *
+         * @return if the timeout is cancelled
+         */
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Wheel slot, a doubly linked list
+     * of timeouts
+     */
+    private final static class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(final Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        private Timeout poll() {
+            Timeout timeout = head;
+            if (timeout != null) remove(timeout);
+
+            return timeout;
+        }
+    }
+}
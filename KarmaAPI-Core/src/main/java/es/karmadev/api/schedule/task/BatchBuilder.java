@@ -0,0 +1,190 @@
+package es.karmadev.api.schedule.task;
+
+import es.karmadev.api.JavaVirtualMachine;
+import es.karmadev.api.core.ExceptionCollector;
+import es.karmadev.api.schedule.task.completable.late.LateTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Task batch builder, to submit a group of tasks
+ * at once. The whole group is scheduled as a few runner
+ * tasks, one per degree of parallelism, which take the
+ * batch items in order until none is left, so the per-item
+ * cost is a counter increment instead of a scheduled task
+ */
+@SuppressWarnings("unused")
+public final class BatchBuilder {
+
+    private final TaskScheduler scheduler;
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private Class<?> owner;
+    private TaskPriority priority = TaskPriority.NORMAL;
+    private long deadline = -1;
+    private TimeUnit deadlineUnit = TimeUnit.MILLISECONDS;
+    private int parallelism = Math.max(1, JavaVirtualMachine.cores());
+
+    /**
+     * Initialize the batch builder
+     *
+     * @param scheduler the scheduler to submit the batch to
+     * @param owner the batch owner
+     */
+    BatchBuilder(final TaskScheduler scheduler, final Class<?> owner) {
+        this.scheduler = scheduler;
+        this.owner = owner;
+    }
+
+    /**
+     * Add a task to the batch
+     *
+     * @param task the task to add
+     * @return the builder
+     */
+    public BatchBuilder add(final Runnable task) {
+        if (task != null) tasks.add(task);
+        return this;
+    }
+
+    /**
+     * Add the tasks to the batch
+     *
+     * @param tasks the tasks to add
+     * @return the builder
+     */
+    public BatchBuilder addAll(final Collection<? extends Runnable> tasks) {
+        for (Runnable task : tasks) {
+            if (task != null) this.tasks.add(task);
+        }
+
+        return this;
+    }
+
+    /**
+     * Set the batch owner
+     *
+     * @param owner the batch owner
+     * @return the builder
+     */
+    public BatchBuilder owner(final Class<?> owner) {
+        this.owner = owner;
+        return this;
+    }
+
+    /**
+     * Set the batch priority
+     *
+     * @param priority the batch priority
+     * @return the builder
+     */
+    public BatchBuilder priority(final TaskPriority priority) {
+        this.priority = (priority != null ? priority : TaskPriority.NORMAL);
+        return this;
+    }
+
+    /**
+     * Set the batch deadline
+     *
+     * @param deadline the time from now in which the batch should
+     *                 run, or a negative value for no deadline
+     * @param unit the deadline time unit
+     * @return the builder
+     */
+    public BatchBuilder deadline(final long deadline, final TimeUnit unit) {
+        this.deadline = deadline;
+        this.deadlineUnit = unit;
+        return this;
+    }
+
+    /**
+     * Set the maximum amount of batch tasks which
+     * may run at the same time. The scheduler may still
+     * run fewer of them, depending on its limits
+     *
+     * @param parallelism the batch parallelism
+     * @return the builder
+     */
+    public BatchBuilder parallelism(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * Submit the batch. The returned task completes
+     * once every batch task has run, with the first error
+     * thrown by them, if any. If a runner task is cancelled
+     * or cannot be scheduled, the returned task completes with
+     * an error instead. Cancelling the returned task cancels the
+     * runner tasks, and stops the batch tasks which have not
+     * started yet
+     *
+     * @return the batch task
+     */
+    public LateTask<Void> submit() {
+        LateTask<Void> result = new LateTask<>();
+        Runnable[] items = tasks.toArray(new Runnable[0]);
+        if (items.length == 0) {
+            result.complete(null);
+            return result;
+        }
+
+        AtomicInteger next = new AtomicInteger(0);
+        AtomicInteger remaining = new AtomicInteger(items.length);
+        AtomicReference<Throwable> error = new AtomicReference<>(null);
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        List<ScheduledTask> runners = new CopyOnWriteArrayList<>();
+
+        Runnable stop = () -> {
+            stopped.set(true);
+            for (ScheduledTask scheduled : runners) scheduled.cancel();
+        };
+        Consumer<Throwable> fail = (ex) -> {
+            if (stopped.get()) return;
+
+            stop.run();
+            result.complete(null, ex);
+        };
+        result.onCancel(stop);
+
+        Runnable runner = () -> {
+            int index;
+            while (!stopped.get() && (index = next.getAndIncrement()) < items.length) {
+                try {
+                    items[index].run();
+                } catch (Throwable ex) {
+                    error.compareAndSet(null, ex);
+                    ExceptionCollector.catchException(BatchBuilder.class, ex);
+                }
+
+                if (remaining.decrementAndGet() == 0) result.complete(null, error.get());
+            }
+        };
+
+        int count = Math.min(parallelism, items.length);
+        for (int i = 0; i < count && !stopped.get(); i++) {
+            ScheduledTask scheduled;
+            try {
+                scheduled = scheduler.schedule(owner, runner, priority, deadline, deadlineUnit);
+            } catch (RuntimeException ex) {
+                fail.accept(ex);
+                break;
+            }
+
+            runners.add(scheduled);
+            scheduled.onCancel(() -> fail.accept(new CancellationException("A runner task of the batch was cancelled")));
+            if (stopped.get()) scheduled.cancel();
+        }
+
+        return result;
+    }
+}
@@ -20,6 +20,26 @@ public interface ScheduledTask extends Runnable {
      */
     int id();
 
+    /**
+     * Get the task priority
+     *
+     * @return the task priority
+     */
+    default TaskPriority priority() {
+        return TaskPriority.NORMAL;
+    }
+
+    /**
+     * Get the task deadline. Tasks of the same
+     * priority with an earlier deadline run first
+     *
+     * @return the task deadline in epoch millis, or
+     * {@link Long#MAX_VALUE} if the task has no deadline
+     */
+    default long deadline() {
+        return Long.MAX_VALUE;
+    }
+
     /**
      * Cancel this task
      */
@@ -52,4 +72,14 @@ public interface ScheduledTask extends Runnable {
      * @param action the action to perform when the task ends
      */
     void onEnd(final Runnable action);
+
+    /**
+     * Set the task cancel consumer. The action
+     * is performed once if the task is cancelled before
+     * it runs, even if it was cancelled before setting it
+     *
+     * @param action the action to perform when the task is
+     *               cancelled before running
+     */
+    void onCancel(final Runnable action);
 }
@@ -0,0 +1,19 @@
+package es.karmadev.api.schedule.task;
+
+/**
+ * Task scheduler type
+ */
+public enum SchedulerType {
+    /**
+     * Runs the tasks in a shared work-stealing
+     * pool of platform threads
+     */
+    BALANCED,
+    /**
+     * Runs each task in its own virtual thread, which
+     * suits blocking I/O tasks. Only available on java 21
+     * and newer, and falls back to {@link #BALANCED}
+     * on older versions
+     */
+    VIRTUAL
+}
@@ -0,0 +1,23 @@
+package es.karmadev.api.schedule.task;
+
+/**
+ * Task priority. Schedulers which support
+ * priorities always run the queued tasks of a higher
+ * priority first
+ */
+public enum TaskPriority {
+    /**
+     * Latency sensitive tasks, such as
+     * login checks
+     */
+    CRITICAL,
+    /**
+     * Default priority
+     */
+    NORMAL,
+    /**
+     * Bulk tasks which can wait, such as
+     * file serialization or data prefetch
+     */
+    BACKGROUND
+}
@@ -2,8 +2,14 @@ package es.karmadev.api.schedule.task;
 
 import es.karmadev.api.core.source.APISource;
 import es.karmadev.api.core.source.KarmaSource;
+import es.karmadev.api.core.source.runtime.CallerResolver;
+import es.karmadev.api.schedule.task.completable.late.LateTask;
+import es.karmadev.api.schedule.task.metric.SchedulerMetrics;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Task scheduler
  */
@@ -17,6 +23,85 @@ public interface TaskScheduler {
      */
     ScheduledTask schedule(final Runnable task);
 
+    /**
+     * Schedule a task for the specified owner. This
+     * skips the lookup of the class which is scheduling
+     * the task
+     *
+     * @param owner the task owner
+     * @param task the task to schedule
+     * @return the scheduled task
+     */
+    default ScheduledTask schedule(final Class<?> owner, final Runnable task) {
+        return schedule(task);
+    }
+
+    /**
+     * Schedule a task with the specified priority. Schedulers
+     * which don't support priorities schedule it as a
+     * normal task
+     *
+     * @param task the task to schedule
+     * @param priority the task priority
+     * @return the scheduled task
+     */
+    default ScheduledTask schedule(final Runnable task, final TaskPriority priority) {
+        return schedule(task);
+    }
+
+    /**
+     * Schedule a task with the specified priority and
+     * deadline. Tasks of the same priority run in deadline
+     * order, and tasks without deadline run after them
+     *
+     * @param task the task to schedule
+     * @param priority the task priority
+     * @param deadline the time from now in which the task should run
+     * @param unit the deadline time unit
+     * @return the scheduled task
+     */
+    default ScheduledTask schedule(final Runnable task, final TaskPriority priority, final long deadline, final TimeUnit unit) {
+        return schedule(task, priority);
+    }
+
+    /**
+     * Schedule a task for the specified owner, with
+     * the specified priority and deadline
+     *
+     * @param owner the task owner
+     * @param task the task to schedule
+     * @param priority the task priority
+     * @param deadline the time from now in which the task should run
+     * @param unit the deadline time unit
+     * @return the scheduled task
+     */
+    default ScheduledTask schedule(final Class<?> owner, final Runnable task, final TaskPriority priority, final long deadline, final TimeUnit unit) {
+        return schedule(owner, task);
+    }
+
+    /**
+     * Schedule a group of tasks at once. The tasks
+     * are run by a few scheduled tasks instead of one
+     * scheduled task each
+     *
+     * @param tasks the tasks to schedule
+     * @return a task which completes when all
+     * the tasks have run
+     */
+    default LateTask<Void> scheduleAll(final Collection<? extends Runnable> tasks) {
+        return new BatchBuilder(this, CallerResolver.resolve()).addAll(tasks).submit();
+    }
+
+    /**
+     * Create a batch of tasks to schedule
+     * at once
+     *
+     * @return the batch builder
+     */
+    default BatchBuilder batch() {
+        return new BatchBuilder(this, CallerResolver.resolve());
+    }
+
     /**
      * Get a scheduled task
      *
@@ -76,4 +161,14 @@ public interface TaskScheduler {
      * @return the cancelled tasks
      */
     int cancelled();
+
+    /**
+     * Get a snapshot of the scheduler metrics
+     *
+     * @return the scheduler metrics, or null if
+     * the scheduler does not record metrics
+     */
+    default @Nullable SchedulerMetrics metrics() {
+        return null;
+    }
 }
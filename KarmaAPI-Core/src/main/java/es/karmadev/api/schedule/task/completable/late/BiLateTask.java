@@ -1,15 +1,20 @@
 package es.karmadev.api.schedule.task.completable.late;
 
+import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
 import es.karmadev.api.schedule.task.completable.BiCompletedTask;
 import es.karmadev.api.schedule.task.completable.BiTaskCompletor;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 /**
- * KarmaAPI task completor
+ * KarmaAPI task completor. The task is completed
+ * only once, and any amount of completion actions may
+ * be attached to it, before or after it completes
  *
  * @param <A> the task object
  */
@@ -17,17 +22,7 @@ import java.util.function.Consumer;
 public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
 
     private final long start;
-
-    private boolean cancelled = false;
-    private boolean asynchronous;
-    private boolean valueSet = false;
-    private A object;
-    private B value;
-    private Throwable error;
-
-    private final AtomicBoolean completedOnce = new AtomicBoolean(false);
-    private final AtomicReference<Consumer<BiCompletedTask<A, B>>> completorConsumer = new AtomicReference<>(null);
-    private final AtomicReference<Runnable> completorTask = new AtomicReference<>(null);
+    private final Completion<BiCompletedTask<A, B>> completion;
 
     /**
      * Create a new task
@@ -43,7 +38,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     public BiLateTask(final boolean async) {
         start = System.currentTimeMillis();
-        asynchronous = async;
+        completion = new Completion<>(async);
     }
 
     /**
@@ -54,8 +49,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public void onComplete(final Consumer<BiCompletedTask<A, B>> completion) {
-        completorConsumer.set(completion);
-        if (valueSet) completeInternal();
+        this.completion.listen(completion, null, null);
     }
 
     /**
@@ -66,8 +60,29 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public void onComplete(final Runnable task) {
-        completorTask.set(task);
-        if (valueSet) completeInternal();
+        completion.listen((result) -> task.run(), null, null);
+    }
+
+    /**
+     * Set a task to run in the specified executor
+     * when this tasks ends
+     *
+     * @param completion the task completion
+     * @param executor the executor to run the completion in
+     */
+    public void onComplete(final Consumer<BiCompletedTask<A, B>> completion, final Executor executor) {
+        this.completion.listen(completion, null, executor);
+    }
+
+    /**
+     * Set a task to run in the specified executor
+     * when this tasks ends
+     *
+     * @param task the task runner
+     * @param executor the executor to run the task in
+     */
+    public void onComplete(final Runnable task, final Executor executor) {
+        completion.listen((result) -> task.run(), null, executor);
     }
 
     /**
@@ -82,7 +97,8 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
     }
 
     /**
-     * Complete the task
+     * Complete the task. A task which is already
+     * completed or cancelled is not modified
      *
      * @param object the object of the task
      * @param value  the object value of the task
@@ -90,13 +106,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public void complete(final A object, final B value, final Throwable error) {
-        if (cancelled || this.object != null || this.value != null) return;
-        this.object = object;
-        this.value = value;
-        this.error = error;
-        valueSet = true;
-
-        completeInternal();
+        completion.complete(SimpleBiCompleted.of(object, value, error, System.currentTimeMillis() - start));
     }
 
     /**
@@ -104,8 +114,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public void cancel() {
-        if (object != null) return; //We cannot cancel a completed task
-        cancelled = true;
+        completion.cancel(); //A completed task cannot be cancelled
     }
 
     /**
@@ -115,8 +124,8 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public void setAsync(final boolean status) {
-        if (object != null || cancelled) return;
-        asynchronous = status;
+        if (completion.isDone()) return;
+        completion.setAsync(status);
     }
 
     /**
@@ -127,7 +136,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public boolean isComplete() {
-        return completedOnce.get();
+        return completion.isDone() && !completion.isCancelled();
     }
 
     /**
@@ -138,7 +147,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public boolean isCancelled() {
-        return cancelled;
+        return completion.isCancelled();
     }
 
     /**
@@ -150,7 +159,7 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public boolean isAsync() {
-        return asynchronous;
+        return completion.isAsync();
     }
 
     /**
@@ -160,7 +169,8 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public A get() {
-        return object;
+        BiCompletedTask<A, B> result = completion.result();
+        return (result != null ? result.get() : null);
     }
 
     /**
@@ -170,7 +180,8 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public B getValue() {
-        return value;
+        BiCompletedTask<A, B> result = completion.result();
+        return (result != null ? result.getValue() : null);
     }
 
     /**
@@ -180,41 +191,68 @@ public class BiLateTask<A, B> implements BiTaskCompletor<A, B> {
      */
     @Override
     public Throwable getError() {
-        return error;
+        BiCompletedTask<A, B> result = completion.result();
+        return (result != null ? result.error() : null);
     }
 
     /**
-     * Complete the task
+     * Create a task which completes with the result
+     * of applying the function to the object and value of
+     * this task. Errors of this task are passed to the new task
+     * without calling the function
+     *
+     * @param function the function to apply
+     * @return the new task
+     * @param <R> the new task object
+     */
+    public <R> LateTask<R> thenApply(final BiFunction<? super A, ? super B, ? extends R> function) {
+        return thenApply(function, Completion.DIRECT);
+    }
+
+    /**
+     * Create a task which completes with the result
+     * of applying the function to the object and value of
+     * this task. Errors of this task are passed to the new task
+     * without calling the function
+     *
+     * @param function the function to apply
+     * @param executor the executor to run the function in
+     * @return the new task
+     * @param <R> the new task object
      */
-    private void completeInternal() {
-        long now = System.currentTimeMillis();
-        BiCompletedTask<A, B> task = SimpleBiCompleted.of(object, value, error, now - start);
-
-        Consumer<BiCompletedTask<A, B>> consumer = completorConsumer.getAndSet(null);
-        Runnable runnable = completorTask.getAndSet(null);
-
-        if (consumer == null && runnable == null) return;
-
-        if (asynchronous) {
-            CompletableFuture.runAsync(() -> {
-                if (consumer != null) {
-                    consumer.accept(task);
-                }
-                if (runnable != null) {
-                    runnable.run();
-                }
-
-                completedOnce.set(true);
-            });
-        } else {
-            if (consumer != null) {
-                consumer.accept(task);
+    public <R> LateTask<R> thenApply(final BiFunction<? super A, ? super B, ? extends R> function, final Executor executor) {
+        LateTask<R> next = new LateTask<>(isAsync());
+        completion.listen((result) -> {
+            if (result.error() != null) {
+                next.complete(null, result.error());
+                return;
             }
-            if (runnable != null) {
-                runnable.run();
+
+            try {
+                next.complete(function.apply(result.get(), result.getValue()));
+            } catch (Throwable ex) {
+                next.complete(null, ex);
             }
+        }, next::cancel, executor);
+
+        return next;
+    }
+
+    /**
+     * Complete this task with a {@link TimeoutException} if
+     * it does not complete in the specified time
+     *
+     * @param time the maximum time
+     * @param unit the time unit
+     * @return this task
+     */
+    public BiLateTask<A, B> timeout(final long time, final TimeUnit unit) {
+        if (completion.isDone()) return this;
+
+        ScheduledFuture<?> timer = AsyncTaskExecutor.EXECUTOR.schedule(() ->
+                complete(null, null, new TimeoutException("Task did not complete in " + time + " " + unit.name().toLowerCase())), time, unit);
+        completion.listen((result) -> timer.cancel(false), () -> timer.cancel(false), Completion.DIRECT);
 
-            completedOnce.set(true);
-        }
+        return this;
     }
 }
@@ -0,0 +1,218 @@
+package es.karmadev.api.schedule.task.completable.late;
+
+import es.karmadev.api.core.ExceptionCollector;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free completion state of a late task. The whole
+ * state is a single atomic reference, which holds either the
+ * stack of listeners while the task is pending, the result once
+ * the task has been completed, or the cancelled marker. Completing
+ * or cancelling the task swaps the listener stack for the final state
+ * in one step, so each listener runs exactly once, and listeners
+ * added later run right away
+ *
+ * @param <R> the completion result
+ */
+final class Completion<R> {
+
+    /**
+     * Runs the listeners in the thread which completes
+     * the task
+     */
+    final static Executor DIRECT = Runnable::run;
+
+    /**
+     * Runs the listeners of asynchronous tasks
+     */
+    final static Executor ASYNC = ForkJoinPool.commonPool();
+
+    private final static Object CANCELLED = new Object();
+
+    private final AtomicReference<Object> state = new AtomicReference<>(null);
+    private volatile Executor defaultExecutor;
+
+    /**
+     * Initialize the completion
+     *
+     * @param async if the listeners without executor
+     *              run asynchronously
+     */
+    Completion(final boolean async) {
+        defaultExecutor = (async ? ASYNC : DIRECT);
+    }
+
+    /**
+     * Set if the listeners without executor
+     * run asynchronously
+     *
+     * @param async the asynchronous status
+     */
+    void setAsync(final boolean async) {
+        defaultExecutor = (async ? ASYNC : DIRECT);
+    }
+
+    /**
+     * Get if the listeners without executor
+     * run asynchronously
+     *
+     * @return the asynchronous status
+     */
+    boolean isAsync() {
+        return defaultExecutor != DIRECT;
+    }
+
+    /**
+     * Add a listener
+     *
+     * @param onComplete the action to run when the task completes
+     * @param onCancel the action to run when the task is cancelled
+     * @param executor the executor to run the action in, or null
+     *                 to use the task default
+     */
+    void listen(final Consumer<R> onComplete, final Runnable onCancel, final Executor executor) {
+        Node<R> node = null;
+        while (true) {
+            Object current = state.get();
+            if (current != null && !(current instanceof Node)) {
+                notify(onComplete, onCancel, executor, current);
+                return;
+            }
+
+            @SuppressWarnings("unchecked") Node<R> next = (Node<R>) current;
+            if (node == null) {
+                node = new Node<>(onComplete, onCancel, executor, next);
+            } else {
+                node.next = next;
+            }
+
+            if (state.compareAndSet(current, node)) return;
+        }
+    }
+
+    /**
+     * Complete with the specified result
+     *
+     * @param result the result
+     * @return if the completion changed its state
+     */
+    boolean complete(final R result) {
+        return transition(result);
+    }
+
+    /**
+     * Cancel the completion
+     *
+     * @return if the completion changed its state
+     */
+    boolean cancel() {
+        return transition(CANCELLED);
+    }
+
+    /**
+     * Get if the completion is either
+     * completed or cancelled
+     *
+     * @return if the completion is done
+     */
+    boolean isDone() {
+        Object current = state.get();
+        return current != null && !(current instanceof Node);
+    }
+
+    /**
+     * Get if the completion is cancelled
+     *
+     * @return if the completion is cancelled
+     */
+    boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    /**
+     * Get the result
+     *
+     * @return the result, or null if the completion
+     * is pending or cancelled
+     */
+    @SuppressWarnings("unchecked")
+    R result() {
+        Object current = state.get();
+        if (current == null || current == CANCELLED || current instanceof Node) return null;
+
+        return (R) current;
+    }
+
+    private boolean transition(final Object terminal) {
+        while (true) {
+            Object current = state.get();
+            if (current != null && !(current instanceof Node)) return false;
+
+            if (state.compareAndSet(current, terminal)) {
+                @SuppressWarnings("unchecked") Node<R> stack = (Node<R>) current;
+
+                Node<R> ordered = null;
+                while (stack != null) {
+                    Node<R> next = stack.next;
+                    stack.next = ordered;
+                    ordered = stack;
+                    stack = next;
+                }
+
+                for (Node<R> node = ordered; node != null; node = node.next) {
+                    notify(node.onComplete, node.onCancel, node.executor, terminal);
+                }
+                return true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notify(final Consumer<R> onComplete, final Runnable onCancel, final Executor executor, final Object terminal) {
+        Runnable action;
+        if (terminal == CANCELLED) {
+            if (onCancel == null) return;
+            action = onCancel;
+        } else {
+            if (onComplete == null) return;
+            action = () -> onComplete.accept((R) terminal);
+        }
+
+        Executor target = (executor != null ? executor : defaultExecutor);
+        try {
+            target.execute(() -> {
+                try {
+                    action.run();
+                } catch (Throwable ex) {
+                    ExceptionCollector.catchException(Completion.class, ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            ExceptionCollector.catchException(Completion.class, ex);
+        }
+    }
+
+    /**
+     * Listener stack node
+     *
+     * @param <R> the completion result
+     */
+    private final static class Node<R> {
+
+        private final Consumer<R> onComplete;
+        private final Runnable onCancel;
+        private final Executor executor;
+        private Node<R> next;
+
+        private Node(final Consumer<R> onComplete, final Runnable onCancel, final Executor executor, final Node<R> next) {
+            this.onComplete = onComplete;
+            this.onCancel = onCancel;
+            this.executor = executor;
+            this.next = next;
+        }
+    }
+}
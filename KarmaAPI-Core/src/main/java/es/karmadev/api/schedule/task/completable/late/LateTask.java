@@ -1,33 +1,31 @@
 package es.karmadev.api.schedule.task.completable.late;
 
+import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
 import es.karmadev.api.schedule.task.completable.CompletedTask;
 import es.karmadev.api.schedule.task.completable.TaskCompletor;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
- * KarmaAPI task completor
+ * KarmaAPI task completor. The task is completed
+ * only once, and any amount of completion actions may
+ * be attached to it, before or after it completes
  *
  * @param <A> the task object
  */
+@SuppressWarnings("unused")
 public class LateTask<A> implements TaskCompletor<A> {
 
     private final long start;
-
-    private boolean cancelled = false;
-    private boolean asynchronous;
-    private boolean valueSet = false;
-    private A object;
-    private Throwable error;
-
-    private final AtomicBoolean completedOnce = new AtomicBoolean(false);
-    private final AtomicReference<Consumer<CompletedTask<A>>> completorConsumer = new AtomicReference<>(null);
-    private final AtomicReference<Runnable> completorTask = new AtomicReference<>(null);
+    private final Completion<CompletedTask<A>> completion;
 
     /**
      * Create a new task
@@ -43,7 +41,7 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     public LateTask(final boolean async) {
         start = System.currentTimeMillis();
-        asynchronous = async;
+        completion = new Completion<>(async);
     }
 
     /**
@@ -54,8 +52,7 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public void onComplete(final Consumer<CompletedTask<A>> completion) {
-        completorConsumer.set(completion);
-        if (valueSet) completeInternal();
+        this.completion.listen(completion, null, null);
     }
 
     /**
@@ -66,8 +63,39 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public void onComplete(final Runnable task) {
-        completorTask.set(task);
-        if (valueSet) completeInternal();
+        completion.listen((result) -> task.run(), null, null);
+    }
+
+    /**
+     * Set a task to run in the specified executor
+     * when this tasks ends
+     *
+     * @param completion the task completion
+     * @param executor the executor to run the completion in
+     */
+    public void onComplete(final Consumer<CompletedTask<A>> completion, final Executor executor) {
+        this.completion.listen(completion, null, executor);
+    }
+
+    /**
+     * Set a task to run in the specified executor
+     * when this tasks ends
+     *
+     * @param task the task runner
+     * @param executor the executor to run the task in
+     */
+    public void onComplete(final Runnable task, final Executor executor) {
+        completion.listen((result) -> task.run(), null, executor);
+    }
+
+    /**
+     * Set a task to run when this task
+     * is cancelled
+     *
+     * @param task the task runner
+     */
+    public void onCancel(final Runnable task) {
+        completion.listen(null, task, null);
     }
 
     /**
@@ -81,19 +109,15 @@ public class LateTask<A> implements TaskCompletor<A> {
     }
 
     /**
-     * Complete the task
+     * Complete the task. A task which is already
+     * completed or cancelled is not modified
      *
      * @param object the object of the task
      * @param error  the task error
      */
     @Override
-    public <V extends A> void complete(V object, Throwable error) {
-        if (cancelled) return;
-        this.object = object;
-        this.error = error;
-        valueSet = true;
-
-        completeInternal();
+    public <V extends A> void complete(final V object, final Throwable error) {
+        completion.complete(result(object, error));
     }
 
     /**
@@ -103,7 +127,6 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public <V extends A> void completeFirst(final V object) {
-        if (completedOnce.get()) return;
         complete(object, null);
     }
 
@@ -115,7 +138,6 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public <V extends A> void completeFirst(final V object, final Throwable error) {
-        if (completedOnce.get()) return;
         complete(object, error);
     }
 
@@ -124,8 +146,7 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public void cancel() {
-        if (object != null) return; //We cannot cancel a completed task
-        cancelled = true;
+        completion.cancel(); //A completed task cannot be cancelled
     }
 
     /**
@@ -135,8 +156,8 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public void setAsync(final boolean status) {
-        if (object != null || cancelled) return;
-        asynchronous = status;
+        if (completion.isDone()) return;
+        completion.setAsync(status);
     }
 
     /**
@@ -147,7 +168,7 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public boolean isComplete() {
-        return completedOnce.get();
+        return completion.isDone() && !completion.isCancelled();
     }
 
     /**
@@ -158,7 +179,7 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public boolean isCancelled() {
-        return cancelled;
+        return completion.isCancelled();
     }
 
     /**
@@ -170,7 +191,7 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public boolean isAsync() {
-        return asynchronous;
+        return completion.isAsync();
     }
 
     /**
@@ -180,7 +201,8 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public A get() {
-        return object;
+        CompletedTask<A> result = completion.result();
+        return (result != null ? result.get() : null);
     }
 
     /**
@@ -190,41 +212,190 @@ public class LateTask<A> implements TaskCompletor<A> {
      */
     @Override
     public Throwable getError() {
-        return error;
+        CompletedTask<A> result = completion.result();
+        return (result != null ? result.error() : null);
     }
 
     /**
-     * Complete the task
+     * Create a task which completes with the result
+     * of applying the function to the object of this task.
+     * Errors of this task are passed to the new task without
+     * calling the function
+     *
+     * @param function the function to apply
+     * @return the new task
+     * @param <R> the new task object
+     */
+    public <R> LateTask<R> thenApply(final Function<? super A, ? extends R> function) {
+        return thenApply(function, Completion.DIRECT);
+    }
+
+    /**
+     * Create a task which completes with the result
+     * of applying the function to the object of this task.
+     * Errors of this task are passed to the new task without
+     * calling the function
+     *
+     * @param function the function to apply
+     * @param executor the executor to run the function in
+     * @return the new task
+     * @param <R> the new task object
      */
-    private void completeInternal() {
-        long now = System.currentTimeMillis();
-        CompletedTask<A> task = SimpleCompleted.of(object, error, now - start);
-
-        Consumer<CompletedTask<A>> consumer = completorConsumer.getAndSet(null);
-        Runnable runnable = completorTask.getAndSet(null);
-
-        if (consumer == null && runnable == null) return;
-
-        if (asynchronous) {
-            CompletableFuture.runAsync(() -> {
-                if (consumer != null) {
-                    consumer.accept(task);
-                }
-                if (runnable != null) {
-                    runnable.run();
-                }
-
-                completedOnce.set(true);
-            });
-        } else {
-            if (consumer != null) {
-                consumer.accept(task);
+    public <R> LateTask<R> thenApply(final Function<? super A, ? extends R> function, final Executor executor) {
+        LateTask<R> next = new LateTask<>(isAsync());
+        completion.listen((result) -> {
+            if (result.error() != null) {
+                next.complete(null, result.error());
+                return;
             }
-            if (runnable != null) {
-                runnable.run();
+
+            try {
+                next.complete(function.apply(result.get()));
+            } catch (Throwable ex) {
+                next.complete(null, ex);
             }
+        }, next::cancel, executor);
+
+        return next;
+    }
 
-            completedOnce.set(true);
+    /**
+     * Create a task which completes with the task
+     * returned by the function when applied to the object
+     * of this task. Errors of this task are passed to the new
+     * task without calling the function
+     *
+     * @param function the function to apply
+     * @return the new task
+     * @param <R> the new task object
+     */
+    public <R> LateTask<R> thenCompose(final Function<? super A, ? extends TaskCompletor<R>> function) {
+        return thenCompose(function, Completion.DIRECT);
+    }
+
+    /**
+     * Create a task which completes with the task
+     * returned by the function when applied to the object
+     * of this task. Errors of this task are passed to the new
+     * task without calling the function
+     *
+     * @param function the function to apply
+     * @param executor the executor to run the function in
+     * @return the new task
+     * @param <R> the new task object
+     */
+    public <R> LateTask<R> thenCompose(final Function<? super A, ? extends TaskCompletor<R>> function, final Executor executor) {
+        LateTask<R> next = new LateTask<>(isAsync());
+        completion.listen((result) -> {
+            if (result.error() != null) {
+                next.complete(null, result.error());
+                return;
+            }
+
+            TaskCompletor<R> inner;
+            try {
+                inner = function.apply(result.get());
+            } catch (Throwable ex) {
+                next.complete(null, ex);
+                return;
+            }
+
+            if (inner == null) {
+                next.complete(null);
+                return;
+            }
+
+            if (inner instanceof LateTask) {
+                ((LateTask<R>) inner).completion.listen((innerResult) -> next.complete(innerResult.get(), innerResult.error()),
+                        next::cancel, Completion.DIRECT);
+            } else {
+                inner.onComplete((innerResult) -> next.complete(innerResult.get(), innerResult.error()));
+            }
+        }, next::cancel, executor);
+
+        return next;
+    }
+
+    /**
+     * Complete this task with a {@link TimeoutException} if
+     * it does not complete in the specified time
+     *
+     * @param time the maximum time
+     * @param unit the time unit
+     * @return this task
+     */
+    public LateTask<A> timeout(final long time, final TimeUnit unit) {
+        if (completion.isDone()) return this;
+
+        ScheduledFuture<?> timer = AsyncTaskExecutor.EXECUTOR.schedule(() ->
+                complete(null, new TimeoutException("Task did not complete in " + time + " " + unit.name().toLowerCase())), time, unit);
+        completion.listen((result) -> timer.cancel(false), () -> timer.cancel(false), Completion.DIRECT);
+
+        return this;
+    }
+
+    /**
+     * Create a task which completes when all the
+     * tasks complete. The task completes with the first
+     * error of the tasks, if any
+     *
+     * @param tasks the tasks
+     * @return the new task
+     */
+    public static LateTask<Void> allOf(final LateTask<?>... tasks) {
+        LateTask<Void> all = new LateTask<>();
+        if (tasks.length == 0) {
+            all.complete(null);
+            return all;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(tasks.length);
+        AtomicReference<Throwable> error = new AtomicReference<>(null);
+        for (LateTask<?> task : tasks) {
+            task.completion.listen((result) -> {
+                if (result.error() != null) error.compareAndSet(null, result.error());
+                if (remaining.decrementAndGet() == 0) all.complete(null, error.get());
+            }, () -> {
+                error.compareAndSet(null, new CancellationException("Task was cancelled"));
+                if (remaining.decrementAndGet() == 0) all.complete(null, error.get());
+            }, Completion.DIRECT);
         }
+
+        return all;
+    }
+
+    /**
+     * Create a task which completes with the first
+     * task to complete. The task is cancelled if all the
+     * tasks are cancelled
+     *
+     * @param tasks the tasks
+     * @return the new task
+     * @param <T> the tasks object
+     */
+    @SafeVarargs
+    public static <T> LateTask<T> anyOf(final LateTask<? extends T>... tasks) {
+        LateTask<T> any = new LateTask<>();
+        if (tasks.length == 0) {
+            any.cancel();
+            return any;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(tasks.length);
+        for (LateTask<? extends T> task : tasks) {
+            listenAny(task, any, remaining);
+        }
+
+        return any;
+    }
+
+    private static <T, V extends T> void listenAny(final LateTask<V> task, final LateTask<T> any, final AtomicInteger remaining) {
+        task.completion.listen((result) -> any.complete(result.get(), result.error()), () -> {
+            if (remaining.decrementAndGet() == 0) any.cancel();
+        }, Completion.DIRECT);
+    }
+
+    private CompletedTask<A> result(final A object, final Throwable error) {
+        return SimpleCompleted.of(object, error, System.currentTimeMillis() - start);
     }
 }
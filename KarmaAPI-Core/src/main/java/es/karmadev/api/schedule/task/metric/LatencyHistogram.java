@@ -0,0 +1,141 @@
+package es.karmadev.api.schedule.task.metric;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram. Values are recorded into log-linear
+ * buckets, in the style of HDR histograms: every power of two
+ * is split into 16 buckets, so any percentile is reported with
+ * an error below 7%, and recording a value takes a fixed time
+ * and no allocation
+ */
+@SuppressWarnings("unused")
+public final class LatencyHistogram {
+
+    private final static int SUB_BITS = 4;
+    private final static int SUB_BUCKETS = 1 << SUB_BITS;
+    private final static int MAX_MAGNITUDE = 42; //About 73 minutes in nanoseconds
+    private final static int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong sum = new AtomicLong(0);
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * Create an empty histogram
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Record a value
+     *
+     * @param nanos the value in nanoseconds
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get the amount of recorded values
+     *
+     * @return the recorded values
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Get the highest recorded value
+     *
+     * @param unit the unit to get the value as
+     * @return the highest value
+     */
+    public long max(final TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the mean of the recorded values
+     *
+     * @param unit the unit to get the value as
+     * @return the mean value
+     */
+    public double mean(final TimeUnit unit) {
+        long recorded = count.get();
+        if (recorded == 0) return 0;
+
+        return (double) sum.get() / recorded / unit.toNanos(1);
+    }
+
+    /**
+     * Get the value at a percentile
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @param unit the unit to get the value as
+     * @return the value at the percentile
+     */
+    public long percentile(final double percentile, final TimeUnit unit) {
+        long recorded = count.get();
+        if (recorded == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(recorded * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return unit.convert(Math.min(highestOf(i), max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        return max(unit);
+    }
+
+    /**
+     * Copy the histogram
+     *
+     * @return the histogram copy
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            long value = counts.get(i);
+            if (value != 0) copy.counts.set(i, value);
+        }
+        copy.count.set(count.get());
+        copy.sum.set(sum.get());
+        copy.max.set(max.get());
+
+        return copy;
+    }
+
+    private static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int magnitude = Math.min(MAX_MAGNITUDE, 63 - Long.numberOfLeadingZeros(value));
+        if (magnitude == MAX_MAGNITUDE && value >= (1L << (MAX_MAGNITUDE + 1))) return BUCKETS - 1;
+
+        int sub = (int) ((value >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1));
+        return SUB_BUCKETS + (magnitude - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestOf(final int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int offset = index - SUB_BUCKETS;
+        int magnitude = offset / SUB_BUCKETS + SUB_BITS;
+        long sub = offset % SUB_BUCKETS;
+
+        long lowest = (SUB_BUCKETS + sub) << (magnitude - SUB_BITS);
+        return lowest + (1L << (magnitude - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,203 @@
+package es.karmadev.api.schedule.task.metric;
+
+import es.karmadev.api.logger.log.console.LogLevel;
+import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
+import es.karmadev.api.schedule.task.TaskScheduler;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the metrics of a
+ * {@link TaskScheduler}
+ */
+@Getter
+@SuppressWarnings("unused")
+public final class SchedulerMetrics {
+
+    /**
+     * -- GETTER --
+     *  Get the amount of submitted tasks
+     */
+    private final long submitted;
+    /**
+     * -- GETTER --
+     *  Get the amount of tasks which ran
+     *  successfully
+     */
+    private final long completed;
+    /**
+     * -- GETTER --
+     *  Get the amount of tasks which failed
+     */
+    private final long failed;
+    /**
+     * -- GETTER --
+     *  Get the amount of tasks which were
+     *  cancelled before running
+     */
+    private final long cancelled;
+    /**
+     * -- GETTER --
+     *  Get the amount of tasks which were
+     *  rejected or deferred by the scheduler
+     */
+    private final long rejected;
+    /**
+     * -- GETTER --
+     *  Get the time tasks waited in queue
+     */
+    private final LatencyHistogram queueWait;
+    /**
+     * -- GETTER --
+     *  Get the time tasks took to run
+     */
+    private final LatencyHistogram runTime;
+    /**
+     * -- GETTER --
+     *  Get the amount of tasks which ran per
+     *  second over the last seconds
+     */
+    private final double throughput;
+    /**
+     * -- GETTER --
+     *  Get the metrics of each task owner
+     */
+    private final Map<Class<?>, OwnerMetrics> owners;
+
+    /**
+     * Initialize the metrics
+     *
+     * @param totals the metrics of all the tasks
+     * @param throughput the task throughput
+     * @param owners the metrics of each owner
+     */
+    SchedulerMetrics(final OwnerMetrics totals, final double throughput, final Map<Class<?>, OwnerMetrics> owners) {
+        this.submitted = totals.submitted;
+        this.completed = totals.completed;
+        this.failed = totals.failed;
+        this.cancelled = totals.cancelled;
+        this.rejected = totals.rejected;
+        this.queueWait = totals.queueWait;
+        this.runTime = totals.runTime;
+        this.throughput = throughput;
+        this.owners = Collections.unmodifiableMap(owners);
+    }
+
+    /**
+     * Get the owners which submitted
+     * the most tasks
+     *
+     * @param amount the amount of owners
+     * @return the top owners
+     */
+    public List<OwnerMetrics> top(final int amount) {
+        List<OwnerMetrics> sorted = new ArrayList<>(owners.values());
+        sorted.sort(Comparator.comparingLong((OwnerMetrics metrics) -> metrics.submitted).reversed());
+
+        return sorted.subList(0, Math.min(Math.max(0, amount), sorted.size()));
+    }
+
+    /**
+     * Periodically write the metrics of a scheduler
+     * into its source logger
+     *
+     * @param scheduler the scheduler
+     * @param period the report period
+     * @param unit the period unit
+     * @return the report task, which stops the
+     * reports when cancelled
+     * @throws IllegalArgumentException if the scheduler does
+     * not record metrics
+     */
+    public static ScheduledFuture<?> report(final TaskScheduler scheduler, final long period, final TimeUnit unit) throws IllegalArgumentException {
+        if (scheduler.metrics() == null) throw new IllegalArgumentException("Cannot report the metrics of a scheduler which does not record them");
+
+        return AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(() -> {
+            SchedulerMetrics metrics = scheduler.metrics();
+            if (metrics == null) return;
+
+            scheduler.getSource().logger().log(LogLevel.INFO, "Scheduler metrics: {0} submitted, {1} completed, {2} failed, {3} cancelled, {4} rejected | " +
+                            "{5} tasks/s | queue wait p50 {6}ms p99 {7}ms max {8}ms | run time p50 {9}ms p99 {10}ms max {11}ms",
+                    metrics.submitted, metrics.completed, metrics.failed, metrics.cancelled, metrics.rejected,
+                    String.format("%.1f", metrics.throughput),
+                    metrics.queueWait.percentile(50, TimeUnit.MILLISECONDS), metrics.queueWait.percentile(99, TimeUnit.MILLISECONDS),
+                    metrics.queueWait.max(TimeUnit.MILLISECONDS),
+                    metrics.runTime.percentile(50, TimeUnit.MILLISECONDS), metrics.runTime.percentile(99, TimeUnit.MILLISECONDS),
+                    metrics.runTime.max(TimeUnit.MILLISECONDS));
+
+            for (OwnerMetrics owner : metrics.top(5)) {
+                scheduler.getSource().logger().log(LogLevel.INFO, "  {0}: {1} submitted, {2} rejected | queue wait p99 {3}ms | run time p99 {4}ms",
+                        owner.owner.getName(), owner.submitted, owner.rejected,
+                        owner.queueWait.percentile(99, TimeUnit.MILLISECONDS), owner.runTime.percentile(99, TimeUnit.MILLISECONDS));
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Snapshot of the metrics of
+     * a task owner
+     */
+    @Getter
+    public final static class OwnerMetrics {
+
+        /**
+         * -- GETTER --
+         *  Get the task owner
+         */
+        private final @Nullable Class<?> owner;
+        /**
+         * -- GETTER --
+         *  Get the amount of submitted tasks
+         */
+        private final long submitted;
+        /**
+         * -- GETTER --
+         *  Get the amount of tasks which ran
+         *  successfully
+         */
+        private final long completed;
+        /**
+         * -- GETTER --
+         *  Get the amount of tasks which failed
+         */
+        private final long failed;
+        /**
+         * -- GETTER --
+         *  Get the amount of tasks which were
+         *  cancelled before running
+         */
+        private final long cancelled;
+        /**
+         * -- GETTER --
+         *  Get the amount of tasks which were
+         *  rejected or deferred by the scheduler
+         */
+        private final long rejected;
+        /**
+         * -- GETTER --
+         *  Get the time tasks waited in queue
+         */
+        private final LatencyHistogram queueWait;
+        /**
+         * -- GETTER --
+         *  Get the time tasks took to run
+         */
+        private final LatencyHistogram runTime;
+
+        OwnerMetrics(final Class<?> owner, final long submitted, final long completed, final long failed, final long cancelled,
+                     final long rejected, final LatencyHistogram queueWait, final LatencyHistogram runTime) {
+            this.owner = owner;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.rejected = rejected;
+            this.queueWait = queueWait;
+            this.runTime = runTime;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package es.karmadev.api.schedule.task.metric;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scheduler metrics recorder. Schedulers report
+ * the life of their tasks here, and the recorder keeps
+ * the totals and histograms globally and per task owner
+ */
+@SuppressWarnings("unused")
+public final class SchedulerRecorder {
+
+    private final static int WINDOW = 16;
+    private final static int THROUGHPUT_SECONDS = 10;
+
+    private final Counters global = new Counters();
+    private final Map<Class<?>, Counters> owners = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray secondStamps = new AtomicLongArray(WINDOW);
+    private final AtomicLongArray secondCounts = new AtomicLongArray(WINDOW);
+
+    /**
+     * Record a task submission
+     *
+     * @param owner the task owner
+     */
+    public void submitted(final Class<?> owner) {
+        global.submitted.incrementAndGet();
+        of(owner).submitted.incrementAndGet();
+    }
+
+    /**
+     * Record a task which has been rejected
+     * or deferred by the scheduler
+     *
+     * @param owner the task owner
+     */
+    public void rejected(final Class<?> owner) {
+        global.rejected.incrementAndGet();
+        of(owner).rejected.incrementAndGet();
+    }
+
+    /**
+     * Record a task which has been cancelled
+     * before running
+     *
+     * @param owner the task owner
+     */
+    public void cancelled(final Class<?> owner) {
+        global.cancelled.incrementAndGet();
+        of(owner).cancelled.incrementAndGet();
+    }
+
+    /**
+     * Record a task run
+     *
+     * @param owner the task owner
+     * @param wait the time the task waited in queue, in nanoseconds
+     * @param run the time the task took to run, in nanoseconds
+     * @param failed if the task failed
+     */
+    public void ran(final Class<?> owner, final long wait, final long run, final boolean failed) {
+        Counters counters = of(owner);
+        global.record(wait, run, failed);
+        counters.record(wait, run, failed);
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        int index = (int) (second % WINDOW);
+        long stamp = secondStamps.get(index);
+        if (stamp != second && secondStamps.compareAndSet(index, stamp, second)) {
+            secondCounts.set(index, 0);
+        }
+        secondCounts.incrementAndGet(index);
+    }
+
+    /**
+     * Take a snapshot of the metrics
+     *
+     * @return the metrics snapshot
+     */
+    public SchedulerMetrics snapshot() {
+        Map<Class<?>, SchedulerMetrics.OwnerMetrics> ownerMetrics = new HashMap<>();
+        for (Map.Entry<Class<?>, Counters> entry : owners.entrySet()) {
+            ownerMetrics.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+
+        return new SchedulerMetrics(global.snapshot(null), throughput(), ownerMetrics);
+    }
+
+    /**
+     * Get the amount of tasks which ran per
+     * second, over the last full seconds
+     *
+     * @return the task throughput
+     */
+    private double throughput() {
+        long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+
+        long total = 0;
+        for (long second = now - THROUGHPUT_SECONDS; second < now; second++) {
+            int index = (int) (second % WINDOW);
+            if (secondStamps.get(index) == second) total += secondCounts.get(index);
+        }
+
+        return (double) total / THROUGHPUT_SECONDS;
+    }
+
+    private Counters of(final Class<?> owner) {
+        return owners.computeIfAbsent(owner, (key) -> new Counters());
+    }
+
+    /**
+     * Task counters of an owner
+     */
+    private final static class Counters {
+
+        private final AtomicLong submitted = new AtomicLong(0);
+        private final AtomicLong completed = new AtomicLong(0);
+        private final AtomicLong failed = new AtomicLong(0);
+        private final AtomicLong cancelled = new AtomicLong(0);
+        private final AtomicLong rejected = new AtomicLong(0);
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LatencyHistogram runTime = new LatencyHistogram();
+
+        private void record(final long wait, final long run, final boolean failed) {
+            queueWait.record(wait);
+            runTime.record(run);
+
+            if (failed) {
+                this.failed.incrementAndGet();
+            } else {
+                completed.incrementAndGet();
+            }
+        }
+
+        private SchedulerMetrics.OwnerMetrics snapshot(final Class<?> owner) {
+            return new SchedulerMetrics.OwnerMetrics(owner, submitted.get(), completed.get(), failed.get(), cancelled.get(),
+                    rejected.get(), queueWait.copy(), runTime.copy());
+        }
+    }
+}
@@ -1,40 +1,50 @@
 package es.karmadev.api.schedule.task.scheduler;
 
 import es.karmadev.api.JavaVirtualMachine;
-import es.karmadev.api.MemoryUnit;
+import es.karmadev.api.core.ExceptionCollector;
 import es.karmadev.api.core.KarmaKore;
 import es.karmadev.api.core.source.APISource;
-import es.karmadev.api.core.source.runtime.SourceRuntime;
+import es.karmadev.api.core.source.runtime.CallerResolver;
 import es.karmadev.api.logger.SourceLogger;
 import es.karmadev.api.logger.log.console.LogLevel;
 import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
 import es.karmadev.api.schedule.task.ScheduledTask;
+import es.karmadev.api.schedule.task.TaskPriority;
 import es.karmadev.api.schedule.task.TaskScheduler;
+import es.karmadev.api.schedule.task.metric.SchedulerMetrics;
+import es.karmadev.api.schedule.task.metric.SchedulerRecorder;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * KarmaAPI asynchronous scheduler
+ * KarmaAPI asynchronous scheduler. Tasks are dispatched
+ * to a work-stealing pool as soon as the concurrency limiter
+ * and the per-owner permits allow it. Queued tasks run by priority,
+ * and by earliest deadline within the same priority
  */
 @SuppressWarnings("unused")
 public class BalancedScheduler implements TaskScheduler {
 
-    private final ConcurrentLinkedQueue<Task> taskQue = new ConcurrentLinkedQueue<>();
-    private final ConcurrentLinkedQueue<Task> overloadQueue = new ConcurrentLinkedQueue<>();
+    private final static ExecutorService DISPATCHER = new ForkJoinPool(Math.max(2, JavaVirtualMachine.cores()),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    private final OwnerTaskQueue<Task> queue;
+    private final ConcurrentSkipListSet<Task> overloadQueue = new ConcurrentSkipListSet<>(Task.ORDER);
+    private final AtomicInteger deferredTasks = new AtomicInteger(0);
+    private final Map<Integer, Task> liveTasks = new ConcurrentHashMap<>();
     private final AtomicBoolean schedulerOverloaded = new AtomicBoolean();
-    private final AtomicBoolean systemOverloaded = new AtomicBoolean();
     private final AtomicInteger completedTasks = new AtomicInteger(0);
     private final AtomicInteger cancelledTasks = new AtomicInteger(0);
-    private final Semaphore globalSemaphore;
-    private final Map<Class<?>, Semaphore> clazzSemaphores = new ConcurrentHashMap<>();
+    private final SchedulerRecorder recorder = new SchedulerRecorder();
+    private final ConcurrencyLimiter limiter;
 
     private final APISource schedulerSource;
+    private final ExecutorService executor;
+    private final boolean interruptible;
     private final int QUEUE_CAPACITY;
 
     /**
@@ -82,92 +92,63 @@ public class BalancedScheduler implements TaskScheduler {
      * @param perClass the amount fo allowed simultaneous schedulers for class
      */
     public BalancedScheduler(final int capacity, final APISource source, final int simultaneous, final int perClass) {
+        this(capacity, source, simultaneous, perClass, DISPATCHER);
+    }
+
+    /**
+     * Create an asynchronous scheduler
+     *
+     * @param capacity the scheduler max capacity
+     * @param source the scheduler owner
+     * @param simultaneous the amount of allowed simultaneous schedulers
+     * @param perClass the amount fo allowed simultaneous schedulers for class
+     * @param executor the executor which runs the tasks
+     */
+    public BalancedScheduler(final int capacity, final APISource source, final int simultaneous, final int perClass, final ExecutorService executor) {
+        this(capacity, source, simultaneous, perClass, executor, JavaVirtualMachine.cores() * 4, false);
+    }
+
+    /**
+     * Create an asynchronous scheduler
+     *
+     * @param capacity the scheduler max capacity
+     * @param source the scheduler owner
+     * @param simultaneous the amount of allowed simultaneous schedulers
+     * @param perClass the amount fo allowed simultaneous schedulers for class
+     * @param executor the executor which runs the tasks
+     * @param maxConcurrency the maximum amount of tasks the limiter
+     *                       may let run at the same time
+     * @param interruptible if cancelling a running task interrupts
+     *                      its thread
+     */
+    BalancedScheduler(final int capacity, final APISource source, final int simultaneous, final int perClass, final ExecutorService executor,
+                      final int maxConcurrency, final boolean interruptible) {
         QUEUE_CAPACITY = Math.max(1, capacity);
         this.schedulerSource = (source != null ? source : KarmaKore.INSTANCE());
-        globalSemaphore = new Semaphore(Math.max(2, simultaneous));
+        this.executor = (executor != null ? executor : DISPATCHER);
+        this.interruptible = interruptible;
+        this.queue = new OwnerTaskQueue<>(Task::owner, Task.ORDER, perClass);
+        int initialLimit = Math.max(2, simultaneous);
+        limiter = new ConcurrencyLimiter(initialLimit, 1, Math.max(initialLimit, maxConcurrency));
 
         if (source == null) throw new RuntimeException("Failed to create AsynchronousScheduler because the source is not valid");
-
-        int threads = JavaVirtualMachine.cores();
-        long memory = JavaVirtualMachine.allocatedMemory(MemoryUnit.GIGABYTES);
-        if (memory == 0) memory = JavaVirtualMachine.allocatedMemory(MemoryUnit.MEGABYTES);
-
-        double rs = (double) memory / threads;
-        long period = Math.round(rs * 1000);
-
         SourceLogger logger = source.logger();
-        //logger.send(LogLevel.INFO, "Using a period of {0} for the asynchronous scheduler", period);
 
-        Set<Future<?>> queued = Collections.newSetFromMap(new ConcurrentHashMap<>());
-
-        //ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(Math.max(1, threads / 2));
         AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(() -> {
-            if (!taskQue.isEmpty()) {
-                if (globalSemaphore.tryAcquire() && !systemOverloaded.get()) {
-                    Future<?> task = CompletableFuture.runAsync(() -> {
-                        Task next = taskQue.peek();
-                        if (next != null) {
-                            Semaphore subSemaphore = clazzSemaphores.computeIfAbsent(next.owner(), (p) -> new Semaphore(perClass));
-                            if (subSemaphore.tryAcquire()) {
-                                taskQue.poll();
-
-                                if (next.cancelled()) {
-                                    globalSemaphore.release();
-                                    subSemaphore.release();
-                                    cancelledTasks.addAndGet(1);
-                                    return;
-                                }
-
-                                next.run();
-                                completedTasks.addAndGet(1);
-                                globalSemaphore.release();
-                                subSemaphore.release();
-                            }
-                        } else {
-                            globalSemaphore.release();
-                        }
-                    });
-                    queued.add(task);
-                }
-            }
-        }, 0, period, TimeUnit.MILLISECONDS);
-
-        AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(() -> {
-            int tasks = taskQue.size();
-            double load = Math.abs(Math.max(0, JavaVirtualMachine.systemLoad()));
-
-            String percent = String.format("%d%%", (int) load * 100);
-            if (load >= 0.75 || tasks > QUEUE_CAPACITY) {
-                if (load >= 0.75) {
-                    systemOverloaded.set(true);
-                    queued.forEach((task) -> task.cancel(false));
-                }
-
+            int tasks = queue.size();
+            if (tasks > QUEUE_CAPACITY) {
                 if (schedulerOverloaded.compareAndSet(false, true)) {
                     logger.send(LogLevel.SEVERE,
-                            "Paused asynchronous scheduler because high system load has been detected. System usage: {0} | Queue capacity: {1}/{2}",
-                            percent, tasks, capacity);
-                }
-            } else {
-                systemOverloaded.set(false);
-                if (schedulerOverloaded.get()) {
-                    if (tasks <= Math.max(0, capacity - 10)) {
-                        schedulerOverloaded.set(false);
-                        logger.send(LogLevel.SUCCESS, "Resumed asynchronous scheduler. System usage: {0} | Queue capacity: {1}/{2}", percent, tasks, capacity);
-                    }
+                            "Paused asynchronous scheduler because its queue is full. Concurrency limit: {0} | Queue capacity: {1}/{2}",
+                            limiter.getLimit(), tasks, capacity);
                 }
+            } else if (schedulerOverloaded.get() && tasks <= Math.max(0, capacity - 10)) {
+                schedulerOverloaded.set(false);
+                logger.send(LogLevel.SUCCESS, "Resumed asynchronous scheduler. Concurrency limit: {0} | Queue capacity: {1}/{2}",
+                        limiter.getLimit(), tasks, capacity);
             }
 
-            if (!overloadQueue.isEmpty() && !schedulerOverloaded.get()) {
-                int sub = overloadQueue.size();
-                if (sub >= 90) {
-                    int max = 90;
-                    for (int i = 0; i < max && !overloadQueue.isEmpty(); i++) {
-                        Task task = overloadQueue.poll();
-                        if (task != null) taskQue.add(task);
-                    }
-                }
-            }
+            dispatch();
         }, 0, 1000, TimeUnit.MILLISECONDS);
     }
 
@@ -179,22 +160,200 @@ public class BalancedScheduler implements TaskScheduler {
      */
     @Override
     public ScheduledTask schedule(final Runnable task) {
-        SourceRuntime runtime = schedulerSource.runtime();
-        Class<?> clazz = BalancedScheduler.class;
-        try {
-            clazz = runtime.getCallerClass();
-        } catch (ClassNotFoundException ignored) {}
-
-        Task scheduledTask = new Task(task, clazz);
-        if (schedulerOverloaded.get()) {
-            overloadQueue.add(scheduledTask);
+        return schedule(CallerResolver.resolve(task), task);
+    }
+
+    /**
+     * Schedule a task for the specified owner
+     *
+     * @param owner the task owner
+     * @param task the task to schedule
+     * @return the scheduled task
+     */
+    @Override
+    public ScheduledTask schedule(final Class<?> owner, final Runnable task) {
+        return schedule(owner, task, TaskPriority.NORMAL, -1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedule a task with the specified priority
+     *
+     * @param task the task to schedule
+     * @param priority the task priority
+     * @return the scheduled task
+     */
+    @Override
+    public ScheduledTask schedule(final Runnable task, final TaskPriority priority) {
+        return schedule(CallerResolver.resolve(task), task, priority, -1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedule a task with the specified priority and
+     * deadline
+     *
+     * @param task the task to schedule
+     * @param priority the task priority
+     * @param deadline the time from now in which the task should run
+     * @param unit the deadline time unit
+     * @return the scheduled task
+     */
+    @Override
+    public ScheduledTask schedule(final Runnable task, final TaskPriority priority, final long deadline, final TimeUnit unit) {
+        return schedule(CallerResolver.resolve(task), task, priority, deadline, unit);
+    }
+
+    /**
+     * Schedule a task for the specified owner, with
+     * the specified priority and deadline. Critical tasks
+     * are queued even while the scheduler is paused
+     *
+     * @param owner the task owner
+     * @param task the task to schedule
+     * @param priority the task priority
+     * @param deadline the time from now in which the task should
+     *                 run, or a negative value for no deadline
+     * @param unit the deadline time unit
+     * @return the scheduled task
+     */
+    @Override
+    public ScheduledTask schedule(final Class<?> owner, final Runnable task, final TaskPriority priority, final long deadline, final TimeUnit unit) {
+        long time = (deadline < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + unit.toMillis(deadline));
+        Task scheduledTask = new Task(task, (owner != null ? owner : BalancedScheduler.class), priority, time);
+        scheduledTask.setInterruptible(interruptible);
+        recorder.submitted(scheduledTask.owner());
+        liveTasks.put(scheduledTask.id(), scheduledTask);
+        scheduledTask.setCancelHandler(() -> discard(scheduledTask));
+
+        if (schedulerOverloaded.get() && !scheduledTask.priority().equals(TaskPriority.CRITICAL)) {
+            recorder.rejected(scheduledTask.owner());
+            defer(scheduledTask);
         } else {
-            taskQue.add(scheduledTask);
+            enqueue(scheduledTask);
+            dispatch();
         }
 
         return scheduledTask;
     }
 
+    /**
+     * Get the concurrency limiter, which decides
+     * how many tasks may run at the same time
+     *
+     * @return the scheduler limiter
+     */
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Dispatch the queued tasks while the limiter
+     * has free permits. Tasks whose owner has no free
+     * permits stay in the queue, and are not looked at until
+     * the owner gets a permit back. Deferred tasks are moved
+     * back to the queue one by one as soon as the queue has
+     * no work left
+     */
+    private void dispatch() {
+        while (!schedulerOverloaded.get() && queue.size() == 0 && deferredTasks.get() > 0) {
+            Task deferred = overloadQueue.pollFirst();
+            if (deferred == null) break;
+
+            deferredTasks.decrementAndGet();
+            enqueue(deferred);
+        }
+
+        while (queue.size() > 0 && limiter.tryAcquire()) {
+            Task next = queue.poll();
+            if (next == null) {
+                limiter.release();
+                return;
+            }
+
+            if (next.cancelled()) {
+                queue.release(next.owner());
+                limiter.release();
+                liveTasks.remove(next.id());
+                cancelledTasks.addAndGet(1);
+                recorder.cancelled(next.owner());
+                continue;
+            }
+
+            Task task = next;
+            try {
+                executor.execute(() -> {
+                    long start = System.nanoTime();
+                    boolean ran = false;
+                    boolean failed = false;
+                    try {
+                        ran = task.execute();
+                    } catch (Throwable ex) {
+                        failed = true;
+                        ExceptionCollector.catchException(BalancedScheduler.class, ex);
+                    } finally {
+                        long end = System.nanoTime();
+                        liveTasks.remove(task.id());
+                        queue.release(task.owner());
+
+                        if (failed) {
+                            recorder.ran(task.owner(), start - task.queuedAt(), end - start, true);
+                            limiter.releaseFailed();
+                        } else if (ran) {
+                            completedTasks.addAndGet(1);
+                            recorder.ran(task.owner(), start - task.queuedAt(), end - start, false);
+                            limiter.release(start - task.queuedAt(), end - start);
+                        } else {
+                            cancelledTasks.addAndGet(1); //Cancelled after leaving the queue
+                            recorder.cancelled(task.owner());
+                            limiter.release();
+                        }
+
+                        dispatch();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                queue.release(task.owner());
+                limiter.release();
+                enqueue(task);
+                ExceptionCollector.catchException(BalancedScheduler.class, ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove a cancelled task from the
+     * queues
+     *
+     * @param task the task
+     */
+    private void discard(final Task task) {
+        if (dequeue(task) || undefer(task)) {
+            liveTasks.remove(task.id());
+            cancelledTasks.addAndGet(1);
+            recorder.cancelled(task.owner());
+        }
+    }
+
+    private void defer(final Task task) {
+        overloadQueue.add(task);
+        deferredTasks.incrementAndGet();
+    }
+
+    private boolean undefer(final Task task) {
+        if (!overloadQueue.remove(task)) return false;
+
+        deferredTasks.decrementAndGet();
+        return true;
+    }
+
+    private void enqueue(final Task task) {
+        queue.add(task);
+    }
+
+    private boolean dequeue(final Task task) {
+        return queue.remove(task);
+    }
+
     /**
      * Get a scheduled task
      *
@@ -203,9 +362,7 @@ public class BalancedScheduler implements TaskScheduler {
      */
     @Override
     public @Nullable ScheduledTask getTask(final int id) {
-        return taskQue.stream().filter((task) -> task.id() == id).findAny().orElse(
-                overloadQueue.stream().filter((task) -> task.id() == id).findAny().orElse(null)
-        );
+        return liveTasks.get(id);
     }
 
     /**
@@ -225,7 +382,7 @@ public class BalancedScheduler implements TaskScheduler {
      */
     @Override
     public int size() {
-        return taskQue.size();
+        return queue.size();
     }
 
     /**
@@ -236,7 +393,7 @@ public class BalancedScheduler implements TaskScheduler {
      */
     @Override
     public int overloadSize() {
-        return overloadQueue.size();
+        return deferredTasks.get();
     }
 
     /**
@@ -251,13 +408,14 @@ public class BalancedScheduler implements TaskScheduler {
 
     /**
      * Get if the system is overloaded in
-     * for this scheduler
+     * for this scheduler, which means that the
+     * limiter has throttled it to its minimum
      *
      * @return if the system is overloaded
      */
     @Override
     public boolean overloaded() {
-        return systemOverloaded.get();
+        return limiter.isThrottling();
     }
 
     /**
@@ -279,4 +437,14 @@ public class BalancedScheduler implements TaskScheduler {
     public int cancelled() {
         return cancelledTasks.get();
     }
+
+    /**
+     * Get a snapshot of the scheduler metrics
+     *
+     * @return the scheduler metrics
+     */
+    @Override
+    public SchedulerMetrics metrics() {
+        return recorder.snapshot();
+    }
 }
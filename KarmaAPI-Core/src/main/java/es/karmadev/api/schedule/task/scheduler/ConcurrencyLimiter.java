@@ -0,0 +1,152 @@
+package es.karmadev.api.schedule.task.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limiter. The limit of tasks which
+ * may run at the same time is tuned from the measured run
+ * time of the tasks: while the recent run time stays close to
+ * the long-term run time, the limit grows, and when tasks start
+ * to run slower because of contention, the limit shrinks in
+ * proportion to the slowdown. Tasks which wait in queue longer
+ * than they take to run let the limit grow faster. Failed tasks
+ * are not sampled, as a failure says nothing about contention
+ */
+@SuppressWarnings("unused")
+public final class ConcurrencyLimiter {
+
+    private final static double LONG_ALPHA = 2d / (600 + 1);
+    private final static double SHORT_ALPHA = 2d / (10 + 1);
+    private final static double TOLERANCE = 1.5;
+    private final static double SMOOTHING = 0.2;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt = 0;
+    private double shortRtt = 0;
+    private double queueWait = 0;
+
+    /**
+     * Initialize the limiter
+     *
+     * @param initial the initial limit
+     * @param min the minimum limit
+     * @param max the maximum limit
+     */
+    public ConcurrencyLimiter(final int initial, final int min, final int max) {
+        this.minLimit = Math.max(1, min);
+        this.maxLimit = Math.max(minLimit, max);
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initial));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Try to acquire a permit
+     *
+     * @return if the permit was acquired
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) return false;
+
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Release a permit and record the
+     * task times
+     *
+     * @param wait the time the task waited in queue, in nanoseconds
+     * @param run the time the task took to run, in nanoseconds
+     */
+    public void release(final long wait, final long run) {
+        int current = inFlight.getAndDecrement();
+        sample(Math.max(0, wait), Math.max(1, run), current);
+    }
+
+    /**
+     * Release a permit without recording the
+     * task times, for tasks which did not run
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Release a permit of a task which failed. The
+     * task times are not recorded, so the failure does
+     * not change the limit
+     */
+    public void releaseFailed() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Get the current limit
+     *
+     * @return the current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Get the amount of acquired permits
+     *
+     * @return the acquired permits
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Get if the limiter is throttling, which
+     * means that the measured run time grew enough
+     * to push the limit to its minimum
+     *
+     * @return if the limiter is throttling
+     */
+    public boolean isThrottling() {
+        return limit <= minLimit && minLimit < maxLimit;
+    }
+
+    /**
+     * Update the limit with a sample
+     *
+     * @param wait the queue wait time
+     * @param rtt the run time
+     * @param inFlight the amount of running tasks when
+     *                 the sample task ended
+     */
+    private synchronized void sample(final long wait, final long rtt, final int inFlight) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+        } else {
+            longRtt = longRtt * (1 - LONG_ALPHA) + rtt * LONG_ALPHA;
+            shortRtt = shortRtt * (1 - SHORT_ALPHA) + rtt * SHORT_ALPHA;
+        }
+        queueWait = queueWait * (1 - SHORT_ALPHA) + wait * SHORT_ALPHA;
+
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95; //Tasks got much faster, let the baseline follow them
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        if (queueWait > shortRtt) queueSize *= 2;
+
+        double next = estimatedLimit * gradient + queueSize;
+        if (next > estimatedLimit && inFlight < estimatedLimit / 2) return; //Not using the current limit, so there's nothing to learn
+
+        next = estimatedLimit * (1 - SMOOTHING) + next * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
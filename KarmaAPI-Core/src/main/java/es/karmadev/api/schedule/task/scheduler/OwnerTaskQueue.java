@@ -0,0 +1,144 @@
+package es.karmadev.api.schedule.task.scheduler;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Task queue which limits the amount of tasks each
+ * owner may run at the same time. Every owner has its own
+ * queue, and only the first task of the owners which still
+ * have free permits is ready to be taken, so taking a task
+ * never walks the tasks of the owners which are already at
+ * their limit
+ *
+ * @param <T> the task type
+ */
+@SuppressWarnings("unused")
+public final class OwnerTaskQueue<T> {
+
+    private final Function<T, Class<?>> ownerFunction;
+    private final Comparator<? super T> order;
+    private final int perOwner;
+
+    private final Map<Class<?>, Owner> owners = new HashMap<>();
+    private final TreeSet<T> ready;
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * Initialize the queue
+     *
+     * @param ownerFunction the function which gets the owner of a task
+     * @param order the order in which tasks are taken
+     * @param perOwner the amount of tasks each owner
+     *                 may run at the same time
+     */
+    public OwnerTaskQueue(final Function<T, Class<?>> ownerFunction, final Comparator<? super T> order, final int perOwner) {
+        this.ownerFunction = ownerFunction;
+        this.order = order;
+        this.perOwner = Math.max(1, perOwner);
+        this.ready = new TreeSet<>(order);
+    }
+
+    /**
+     * Add a task to the queue
+     *
+     * @param task the task to add
+     */
+    public synchronized void add(final T task) {
+        Class<?> key = ownerFunction.apply(task);
+        Owner owner = owners.computeIfAbsent(key, (k) -> new Owner());
+        if (!owner.tasks.add(task)) return;
+
+        size.incrementAndGet();
+        refresh(key, owner);
+    }
+
+    /**
+     * Remove a task from the queue
+     *
+     * @param task the task to remove
+     * @return if the task was queued
+     */
+    public synchronized boolean remove(final T task) {
+        Class<?> key = ownerFunction.apply(task);
+        Owner owner = owners.get(key);
+        if (owner == null || !owner.tasks.remove(task)) return false;
+
+        size.decrementAndGet();
+        refresh(key, owner);
+        return true;
+    }
+
+    /**
+     * Take the next task whose owner has a
+     * free permit. The permit is held until it's
+     * {@link #release(Class) released}
+     *
+     * @return the next task, or null if there's no
+     * task ready to be taken
+     */
+    public synchronized T poll() {
+        T task = ready.pollFirst();
+        if (task == null) return null;
+
+        Class<?> key = ownerFunction.apply(task);
+        Owner owner = owners.get(key);
+        owner.tasks.remove(task);
+        owner.head = null;
+        owner.running++;
+
+        size.decrementAndGet();
+        refresh(key, owner);
+        return task;
+    }
+
+    /**
+     * Release a permit of an owner
+     *
+     * @param owner the owner
+     */
+    public synchronized void release(final Class<?> owner) {
+        Owner queue = owners.get(owner);
+        if (queue == null) return;
+
+        queue.running = Math.max(0, queue.running - 1);
+        refresh(owner, queue);
+    }
+
+    /**
+     * Get the amount of queued tasks
+     *
+     * @return the queue size
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Update the ready task of an owner
+     *
+     * @param key the owner
+     * @param owner the owner queue
+     */
+    private void refresh(final Class<?> key, final Owner owner) {
+        T head = (owner.running < perOwner && !owner.tasks.isEmpty() ? owner.tasks.first() : null);
+        if (owner.head != head) {
+            if (owner.head != null) ready.remove(owner.head);
+            if (head != null) ready.add(head);
+            owner.head = head;
+        }
+
+        if (owner.tasks.isEmpty() && owner.running == 0) owners.remove(key);
+    }
+
+    /**
+     * Queue of an owner
+     */
+    private final class Owner {
+
+        private final TreeSet<T> tasks = new TreeSet<>(order);
+        private int running = 0;
+        private T head;
+    }
+}
@@ -1,7 +1,10 @@
 package es.karmadev.api.schedule.task.scheduler;
 
 import es.karmadev.api.schedule.task.ScheduledTask;
+import es.karmadev.api.schedule.task.TaskPriority;
 
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -11,14 +14,31 @@ public class Task implements ScheduledTask {
 
     private final static AtomicInteger globalId = new AtomicInteger(0);
 
+    /**
+     * The order in which queued tasks run: by
+     * priority, then by deadline, then by creation
+     */
+    public final static Comparator<Task> ORDER = Comparator.comparing(Task::priority)
+            .thenComparingLong(Task::deadline).thenComparingInt(Task::id);
+
     private final int id = globalId.incrementAndGet();
     private final Runnable task;
     private final Class<?> owner;
+    private final TaskPriority priority;
+    private final long deadline;
+    private final long queuedAt = System.nanoTime();
 
-    private boolean cancelled = false;
-    private boolean running = false;
-    private Runnable onRun;
-    private Runnable onEnd;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean cancelNotified = new AtomicBoolean(false);
+    private volatile boolean skipped = false;
+    private volatile boolean running = false;
+    private volatile Runnable onRun;
+    private volatile Runnable onEnd;
+    private volatile Runnable onCancel;
+    private volatile Runnable cancelHandler;
+    private volatile boolean interruptible = false;
+    private volatile Thread runner;
 
     /**
      * Initialize the task
@@ -28,9 +48,25 @@ public class Task implements ScheduledTask {
      * @throws NullPointerException if the task is null
      */
     public Task(final Runnable task, final Class<?> owner) throws NullPointerException {
+        this(task, owner, TaskPriority.NORMAL, Long.MAX_VALUE);
+    }
+
+    /**
+     * Initialize the task
+     *
+     * @param task the task
+     * @param owner the task owner
+     * @param priority the task priority
+     * @param deadline the task deadline in epoch millis, or
+     *                 {@link Long#MAX_VALUE} for no deadline
+     * @throws NullPointerException if the task is null
+     */
+    public Task(final Runnable task, final Class<?> owner, final TaskPriority priority, final long deadline) throws NullPointerException {
         if (task == null) throw new NullPointerException("Cannot create task for null task");
         this.task = task;
         this.owner = owner;
+        this.priority = (priority != null ? priority : TaskPriority.NORMAL);
+        this.deadline = deadline;
     }
 
     /**
@@ -55,11 +91,57 @@ public class Task implements ScheduledTask {
     }
 
     /**
-     * Cancel this task
+     * Get the task priority
+     *
+     * @return the task priority
+     */
+    @Override
+    public TaskPriority priority() {
+        return priority;
+    }
+
+    /**
+     * Get the task deadline
+     *
+     * @return the task deadline in epoch millis, or
+     * {@link Long#MAX_VALUE} if the task has no deadline
+     */
+    @Override
+    public long deadline() {
+        return deadline;
+    }
+
+    /**
+     * Get the time at which the task was
+     * created
+     *
+     * @return the task creation time, as
+     * given by {@link System#nanoTime()}
+     */
+    public long queuedAt() {
+        return queuedAt;
+    }
+
+    /**
+     * Cancel this task. A queued task is removed
+     * from its scheduler queue, and the thread of a running
+     * interruptible task is interrupted
      */
     @Override
     public void cancel() {
-        cancelled = true;
+        if (!cancelled.compareAndSet(false, true)) return;
+
+        if (!started.get()) {
+            Runnable handler = cancelHandler;
+            if (handler != null) handler.run();
+
+            skipped = true;
+            notifyCancel();
+            return;
+        }
+
+        Thread thread = runner;
+        if (interruptible && thread != null) thread.interrupt();
     }
 
     /**
@@ -69,7 +151,30 @@ public class Task implements ScheduledTask {
      */
     @Override
     public boolean cancelled() {
-        return cancelled;
+        return cancelled.get();
+    }
+
+    /**
+     * Set if cancelling the task while it runs
+     * interrupts the thread running it. This should only
+     * be enabled when the thread runs nothing else, as it
+     * happens with virtual threads
+     *
+     * @param interruptible if the task is interruptible
+     */
+    public void setInterruptible(final boolean interruptible) {
+        this.interruptible = interruptible;
+    }
+
+    /**
+     * Set the action to perform when the task
+     * is cancelled before running. Schedulers use this
+     * to remove the task from their queue
+     *
+     * @param handler the cancel handler
+     */
+    public void setCancelHandler(final Runnable handler) {
+        cancelHandler = handler;
     }
 
     /**
@@ -103,6 +208,22 @@ public class Task implements ScheduledTask {
     }
 
     /**
+     * Set the task cancel consumer
+     *
+     * @param action the action to perform when the task
+     *               is cancelled before running
+     */
+    @Override
+    public void onCancel(final Runnable action) {
+        onCancel = action;
+        if (skipped) notifyCancel();
+    }
+
+    /**
+     * Run the task. The task and its run and end
+     * actions run at most once, no matter how many
+     * times this is called
+     * <p>
      * When an object implementing interface <code>Runnable</code> is used
      * to create a thread, starting the thread causes the object's
      * <code>run</code> method to be called in that separately executing
@@ -115,13 +236,48 @@ public class Task implements ScheduledTask {
      */
     @Override
     public void run() {
-        if (onRun != null) onRun.run();
+        execute();
+    }
+
+    /**
+     * Run the task, and get if it ran. A task
+     * which is cancelled before it starts does not run,
+     * and neither its run nor its end actions are fired
+     *
+     * @return if the task ran, false if it was cancelled
+     * or it already ran
+     */
+    public boolean execute() {
+        if (!started.compareAndSet(false, true)) return false;
+
+        runner = Thread.currentThread();
+        if (cancelled.get()) {
+            runner = null;
 
-        if (!cancelled) {
-            running = true;
+            skipped = true;
+            notifyCancel();
+            return false;
+        }
+
+        Runnable runAction = onRun;
+        if (runAction != null) runAction.run();
+
+        running = true;
+        try {
             task.run();
+        } finally {
             running = false;
-            if (onEnd != null) onEnd.run();
+            runner = null;
+
+            Runnable endAction = onEnd;
+            if (endAction != null) endAction.run();
         }
+
+        return true;
+    }
+
+    private void notifyCancel() {
+        Runnable action = onCancel;
+        if (action != null && cancelNotified.compareAndSet(false, true)) action.run();
     }
 }
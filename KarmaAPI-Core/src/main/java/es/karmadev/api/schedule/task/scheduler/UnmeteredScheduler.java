@@ -4,13 +4,17 @@ import es.karmadev.api.JavaVirtualMachine;
 import es.karmadev.api.MemoryUnit;
 import es.karmadev.api.core.KarmaKore;
 import es.karmadev.api.core.source.APISource;
-import es.karmadev.api.core.source.runtime.SourceRuntime;
+import es.karmadev.api.core.source.runtime.CallerResolver;
 import es.karmadev.api.logger.SourceLogger;
 import es.karmadev.api.schedule.task.ScheduledTask;
 import es.karmadev.api.schedule.task.TaskScheduler;
+import es.karmadev.api.schedule.task.metric.SchedulerMetrics;
+import es.karmadev.api.schedule.task.metric.SchedulerRecorder;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -23,9 +27,12 @@ public class UnmeteredScheduler implements TaskScheduler {
 
     public final static ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor();
 
-    private final ConcurrentLinkedQueue<Task> taskQue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentSkipListSet<Task> taskQue = new ConcurrentSkipListSet<>(Comparator.comparingInt(Task::id));
+    private final AtomicInteger queuedTasks = new AtomicInteger(0);
+    private final Map<Integer, Task> liveTasks = new ConcurrentHashMap<>();
     private final AtomicInteger completedTasks = new AtomicInteger(0);
     private final AtomicInteger cancelledTasks = new AtomicInteger(0);
+    private final SchedulerRecorder recorder = new SchedulerRecorder();
 
     private final APISource schedulerSource;
 
@@ -61,17 +68,33 @@ public class UnmeteredScheduler implements TaskScheduler {
         EXECUTOR.scheduleAtFixedRate(() -> {
             if (!taskQue.isEmpty()) {
                 Future<?> task = CompletableFuture.runAsync(() -> {
-                    Task next = taskQue.peek();
+                    Task next = taskQue.pollFirst();
                     if (next != null) {
-                        taskQue.poll();
+                        queuedTasks.decrementAndGet();
 
                         if (next.cancelled()) {
+                            liveTasks.remove(next.id());
                             cancelledTasks.addAndGet(1);
+                            recorder.cancelled(next.owner());
                             return;
                         }
 
-                        next.run();
-                        completedTasks.addAndGet(1);
+                        long start = System.nanoTime();
+                        boolean ran = false;
+                        boolean failed = true;
+                        try {
+                            ran = next.execute();
+                            failed = false;
+                        } finally {
+                            liveTasks.remove(next.id());
+                            if (failed || ran) {
+                                if (ran) completedTasks.addAndGet(1);
+                                recorder.ran(next.owner(), start - next.queuedAt(), System.nanoTime() - start, failed);
+                            } else {
+                                cancelledTasks.addAndGet(1);
+                                recorder.cancelled(next.owner());
+                            }
+                        }
                     }
                 });
                 queued.add(task);
@@ -87,14 +110,32 @@ public class UnmeteredScheduler implements TaskScheduler {
      */
     @Override
     public ScheduledTask schedule(final Runnable task) {
-        SourceRuntime runtime = schedulerSource.runtime();
-        Class<?> clazz = UnmeteredScheduler.class;
-        try {
-            clazz = runtime.getCallerClass();
-        } catch (ClassNotFoundException ignored) {}
+        return schedule(CallerResolver.resolve(task), task);
+    }
+
+    /**
+     * Schedule a task for the specified owner
+     *
+     * @param owner the task owner
+     * @param task the task to schedule
+     * @return the scheduled task
+     */
+    @Override
+    public ScheduledTask schedule(final Class<?> owner, final Runnable task) {
+        Task scheduledTask = new Task(task, (owner != null ? owner : UnmeteredScheduler.class));
+        recorder.submitted(scheduledTask.owner());
+        liveTasks.put(scheduledTask.id(), scheduledTask);
+        scheduledTask.setCancelHandler(() -> {
+            if (taskQue.remove(scheduledTask)) {
+                queuedTasks.decrementAndGet();
+                liveTasks.remove(scheduledTask.id());
+                cancelledTasks.addAndGet(1);
+                recorder.cancelled(scheduledTask.owner());
+            }
+        });
 
-        Task scheduledTask = new Task(task, clazz);
         taskQue.add(scheduledTask);
+        queuedTasks.incrementAndGet();
         return scheduledTask;
     }
 
@@ -106,7 +147,7 @@ public class UnmeteredScheduler implements TaskScheduler {
      */
     @Override
     public @Nullable ScheduledTask getTask(final int id) {
-        return taskQue.stream().filter((task) -> task.id() == id).findAny().orElse(null);
+        return liveTasks.get(id);
     }
 
     /**
@@ -126,7 +167,7 @@ public class UnmeteredScheduler implements TaskScheduler {
      */
     @Override
     public int size() {
-        return taskQue.size();
+        return queuedTasks.get();
     }
 
     /**
@@ -180,4 +221,14 @@ public class UnmeteredScheduler implements TaskScheduler {
     public int cancelled() {
         return cancelledTasks.get();
     }
+
+    /**
+     * Get a snapshot of the scheduler metrics
+     *
+     * @return the scheduler metrics
+     */
+    @Override
+    public SchedulerMetrics metrics() {
+        return recorder.snapshot();
+    }
 }
@@ -0,0 +1,71 @@
+package es.karmadev.api.schedule.task.scheduler;
+
+import es.karmadev.api.core.source.APISource;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * KarmaAPI virtual thread scheduler. Each task runs
+ * in its own virtual thread, so tasks which block on I/O
+ * don't hold a platform thread while they wait. The
+ * concurrency limiter and the per-owner permits still
+ * decide how many tasks run at the same time, and cancelling
+ * a running task interrupts its virtual thread.
+ * <p>
+ * Virtual threads are only available on java 21 and newer,
+ * see {@link #isSupported()}
+ */
+@SuppressWarnings("unused")
+public class VirtualThreadScheduler extends BalancedScheduler {
+
+    private final static int MAX_CONCURRENCY = 4096;
+    private final static Method FACTORY;
+
+    static {
+        Method factory = null;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ((ExecutorService) factory.invoke(null)).shutdown();
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            factory = null; //Not available, or a preview feature which is not enabled
+        }
+
+        FACTORY = factory;
+    }
+
+    /**
+     * Create a virtual thread scheduler
+     *
+     * @param capacity the scheduler max capacity
+     * @param source the scheduler owner
+     * @param simultaneous the amount of allowed simultaneous schedulers
+     * @param perClass the amount fo allowed simultaneous schedulers for class
+     * @throws UnsupportedOperationException if the current java
+     * version does not support virtual threads
+     */
+    public VirtualThreadScheduler(final int capacity, final APISource source, final int simultaneous, final int perClass) throws UnsupportedOperationException {
+        super(capacity, source, simultaneous, perClass, createExecutor(), MAX_CONCURRENCY, true);
+    }
+
+    /**
+     * Get if the current java version
+     * supports virtual threads
+     *
+     * @return if virtual threads are supported
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    private static ExecutorService createExecutor() throws UnsupportedOperationException {
+        if (FACTORY == null) throw new UnsupportedOperationException("Cannot create virtual thread scheduler because virtual threads are not supported");
+
+        try {
+            return (ExecutorService) FACTORY.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new UnsupportedOperationException("Cannot create virtual thread scheduler", ex);
+        }
+    }
+}
@@ -203,10 +203,10 @@ public abstract class KarmaPlugin extends JavaPlugin implements APISource {
     @Override
     public final void loadIdentifier(final String name) {
         JsonDatabase database = (JsonDatabase) DatabaseManager.getEngine("json").orElse(new JsonDatabase());
-        JsonConnection connection = database.grabConnection("identifiers");
-
-        String stored = connection.getString(name);
-        if (stored != null) pluginIdentifier = stored;
+        try (JsonConnection connection = database.grabConnection("identifiers")) {
+            String stored = connection.getString(name);
+            if (stored != null) pluginIdentifier = stored;
+        }
     }
 
     /**
@@ -217,20 +217,20 @@ public abstract class KarmaPlugin extends JavaPlugin implements APISource {
     @Override
     public final void saveIdentifier(final String name) {
         JsonDatabase database = (JsonDatabase) DatabaseManager.getEngine("json").orElse(new JsonDatabase());
-        JsonConnection connection = database.grabConnection("identifiers");
+        try (JsonConnection connection = database.grabConnection("identifiers")) {
+            String stored = connection.getString(name);
+            if (stored != null) {
+                pluginIdentifier = stored;
+                return;
+            }
 
-        String stored = connection.getString(name);
-        if (stored != null) {
-            pluginIdentifier = stored;
-            return;
-        }
+            if (ObjectUtils.isNullOrEmpty(pluginIdentifier)) {
+                pluginIdentifier = StringUtils.generateSplit(18, '\0');
+            }
 
-        if (ObjectUtils.isNullOrEmpty(pluginIdentifier)) {
-            pluginIdentifier = StringUtils.generateSplit(18, '\0');
+            connection.set(name, pluginIdentifier);
+            connection.save();
         }
-
-        connection.set(name, pluginIdentifier);
-        connection.save();
     }
 
     /**
@@ -148,25 +148,25 @@ public class RawPermissionManager extends SpigotPermissionManager {
         if (database == null) return null;
 
         String idString = id.toString().replaceAll("-", "");
-        JsonConnection connection = database.grabConnection("permissions" + File.pathSeparator + idString);
+        try (JsonConnection connection = database.grabConnection("permissions" + File.pathSeparator + idString)) {
+            BitSet set = permissions.computeIfAbsent(id, (s) -> new BitSet());
+            if (set.isEmpty()) {
+                JsonConnection grantedTable = connection.createTable("granted");
+                JsonConnection deniedTable = connection.createTable("denied");
 
-        BitSet set = permissions.computeIfAbsent(id, (s) -> new BitSet());
-        if (set.isEmpty()) {
-            JsonConnection grantedTable = connection.createTable("granted");
-            JsonConnection deniedTable = connection.createTable("denied");
-
-            List<Number> granted = grantedTable.getNumberList("permissions");
-            List<Number> denied = deniedTable.getNumberList("permissions");
+                List<Number> granted = grantedTable.getNumberList("permissions");
+                List<Number> denied = deniedTable.getNumberList("permissions");
 
-            for (Number number : granted) {
-                set.set(number.intValue(), true); //The number is the permission index (PermissionNode#getIndex)
-            }
-            for (Number number : denied) {
-                set.set(number.intValue(), false);
+                for (Number number : granted) {
+                    set.set(number.intValue(), true); //The number is the permission index (PermissionNode#getIndex)
+                }
+                for (Number number : denied) {
+                    set.set(number.intValue(), false);
+                }
             }
-        }
 
-        return set;
+            return set;
+        }
     }
 
     private void appendPermission(final UUID id, final SpigotPermissionNode node) {
@@ -174,20 +174,20 @@ public class RawPermissionManager extends SpigotPermissionManager {
         if (database == null) return;
 
         String idString = id.toString().replaceAll("-", "");
-        JsonConnection connection = database.grabConnection("permissions" + File.pathSeparator + idString);
-
-        JsonConnection grantedTable = connection.createTable("granted");
-        JsonConnection deniedTable = connection.createTable("denied");
+        try (JsonConnection connection = database.grabConnection("permissions" + File.pathSeparator + idString)) {
+            JsonConnection grantedTable = connection.createTable("granted");
+            JsonConnection deniedTable = connection.createTable("denied");
 
-        List<Number> granted = grantedTable.getNumberList("permissions");
-        if (!granted.contains(node.getIndex())) granted.add(node.getIndex());
+            List<Number> granted = grantedTable.getNumberList("permissions");
+            if (!granted.contains(node.getIndex())) granted.add(node.getIndex());
 
-        List<Number> denied = deniedTable.getNumberList("permissions");
-        if (denied.contains(node.getIndex())) denied.remove(node.getIndex());
+            List<Number> denied = deniedTable.getNumberList("permissions");
+            if (denied.contains(node.getIndex())) denied.remove(node.getIndex());
 
-        grantedTable.setNumberList("permissions", granted);
-        deniedTable.setNumberList("permissions", denied);
-        connection.save();
+            grantedTable.setNumberList("permissions", granted);
+            deniedTable.setNumberList("permissions", denied);
+            connection.save();
+        }
     }
 
     private void deletePermission(final UUID id, final SpigotPermissionNode node) {
@@ -195,20 +195,20 @@ public class RawPermissionManager extends SpigotPermissionManager {
         if (database == null) return;
 
         String idString = id.toString().replaceAll("-", "");
-        JsonConnection connection = database.grabConnection("permissions" + File.pathSeparator + idString);
-
-        JsonConnection grantedTable = connection.createTable("granted");
-        JsonConnection deniedTable = connection.createTable("denied");
+        try (JsonConnection connection = database.grabConnection("permissions" + File.pathSeparator + idString)) {
+            JsonConnection grantedTable = connection.createTable("granted");
+            JsonConnection deniedTable = connection.createTable("denied");
 
-        List<Number> granted = grantedTable.getNumberList("permissions");
-        if (granted.contains(node.getIndex())) granted.remove(node.getIndex());
+            List<Number> granted = grantedTable.getNumberList("permissions");
+            if (granted.contains(node.getIndex())) granted.remove(node.getIndex());
 
-        List<Number> denied = deniedTable.getNumberList("permissions");
-        if (!denied.contains(node.getIndex())) denied.add(node.getIndex());
+            List<Number> denied = deniedTable.getNumberList("permissions");
+            if (!denied.contains(node.getIndex())) denied.add(node.getIndex());
 
-        grantedTable.setNumberList("permissions", granted);
-        deniedTable.setNumberList("permissions", denied);
-        connection.save();
+            grantedTable.setNumberList("permissions", granted);
+            deniedTable.setNumberList("permissions", denied);
+            connection.save();
+        }
     }
 
     /**
@@ -1,18 +1,22 @@
 package es.karmadev.api.spigot.core.scheduler;
 
 import es.karmadev.api.JavaVirtualMachine;
-import es.karmadev.api.MemoryUnit;
+import es.karmadev.api.core.ExceptionCollector;
 import es.karmadev.api.core.KarmaKore;
+import es.karmadev.api.core.source.runtime.CallerResolver;
 import es.karmadev.api.spigot.core.KarmaPlugin;
 import es.karmadev.api.logger.SourceLogger;
 import es.karmadev.api.logger.log.console.LogLevel;
 import es.karmadev.api.schedule.runner.async.AsyncTaskExecutor;
 import es.karmadev.api.schedule.task.TaskScheduler;
+import es.karmadev.api.schedule.task.metric.SchedulerMetrics;
+import es.karmadev.api.schedule.task.metric.SchedulerRecorder;
+import es.karmadev.api.schedule.task.scheduler.ConcurrencyLimiter;
+import es.karmadev.api.schedule.task.scheduler.OwnerTaskQueue;
+import es.karmadev.api.schedule.task.scheduler.Task;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -22,14 +26,15 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SpigotTaskScheduler implements TaskScheduler {
 
-    private final ConcurrentLinkedQueue<SpigotTask> taskQue = new ConcurrentLinkedQueue<>();
-    private final ConcurrentLinkedQueue<SpigotTask> overloadQueue = new ConcurrentLinkedQueue<>();
+    private final OwnerTaskQueue<SpigotTask> taskQue;
+    private final ConcurrentSkipListSet<SpigotTask> overloadQueue = new ConcurrentSkipListSet<>(Task.ORDER);
+    private final AtomicInteger deferredTasks = new AtomicInteger(0);
+    private final Map<Integer, SpigotTask> liveTasks = new ConcurrentHashMap<>();
     private final AtomicBoolean schedulerOverloaded = new AtomicBoolean();
-    private final AtomicBoolean systemOverloaded = new AtomicBoolean();
     private final AtomicInteger completedTasks = new AtomicInteger(0);
     private final AtomicInteger cancelledTasks = new AtomicInteger(0);
-    private final Semaphore globalSemaphore;
-    private final Map<Class<?>, Semaphore> clazzSemaphores = new ConcurrentHashMap<>();
+    private final SchedulerRecorder recorder = new SchedulerRecorder();
+    private final ConcurrencyLimiter limiter;
 
     private final KarmaPlugin schedulerSource;
     private final int QUEUE_CAPACITY;
@@ -81,96 +86,29 @@ public class SpigotTaskScheduler implements TaskScheduler {
     public SpigotTaskScheduler(final int capacity, final KarmaPlugin source, final int simultaneous, final int perClass) {
         QUEUE_CAPACITY = Math.max(1, capacity);
         this.schedulerSource = (source != null ? source : (KarmaPlugin) KarmaKore.INSTANCE());
-        globalSemaphore = new Semaphore(Math.max(2, simultaneous));
+        this.taskQue = new OwnerTaskQueue<>(SpigotTask::owner, Task.ORDER, perClass);
 
-        if (schedulerSource == null) throw new RuntimeException("Failed to create AsynchronousScheduler because the source is not valid");
-
-        int threads = JavaVirtualMachine.cores();
-        long memory = JavaVirtualMachine.allocatedMemory(MemoryUnit.GIGABYTES);
-        if (memory == 0) memory = JavaVirtualMachine.allocatedMemory(MemoryUnit.MEGABYTES);
-
-        double rs = (double) memory / threads;
-        long period = Math.round(rs * 1000);
+        int initialLimit = Math.max(2, simultaneous);
+        limiter = new ConcurrencyLimiter(initialLimit, 1, Math.max(initialLimit, JavaVirtualMachine.cores() * 4));
 
+        if (schedulerSource == null) throw new RuntimeException("Failed to create AsynchronousScheduler because the source is not valid");
         SourceLogger logger = schedulerSource.logger();
-        //logger.send(LogLevel.INFO, "Using a period of {0} for the spigot scheduler", period);
-
-        Set<Future<?>> queued = Collections.newSetFromMap(new ConcurrentHashMap<>());
-
-        //ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(Math.max(1, threads / 2));
-        AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(() -> {
-            if (!taskQue.isEmpty()) {
-                if (globalSemaphore.tryAcquire() && !systemOverloaded.get()) {
-                    Future<?> task = CompletableFuture.runAsync(() -> {
-                        SpigotTask next = taskQue.peek();
-                        if (next != null) {
-                            Semaphore subSemaphore = clazzSemaphores.computeIfAbsent(next.owner(), (p) -> new Semaphore(perClass));
-                            if (subSemaphore.tryAcquire()) {
-                                taskQue.poll();
-
-                                if (next.cancelled()) {
-                                    globalSemaphore.release();
-                                    subSemaphore.release();
-                                    cancelledTasks.addAndGet(1);
-                                    return;
-                                }
-
-                                if (next.isSynchronous()) {
-                                    schedulerSource.getServer().getScheduler().runTask(schedulerSource, next);
-                                } else {
-                                    schedulerSource.getServer().getScheduler().runTaskAsynchronously(schedulerSource, next);
-                                }
-                                completedTasks.addAndGet(1);
-
-                                globalSemaphore.release();
-                                subSemaphore.release();
-                            }
-                        } else {
-                            globalSemaphore.release();
-                        }
-                    });
-
-                    queued.add(task);
-                }
-            }
-        }, 0, period, TimeUnit.MILLISECONDS);
 
         AsyncTaskExecutor.EXECUTOR.scheduleAtFixedRate(() -> {
             int tasks = taskQue.size();
-            double load = Math.abs(Math.max(0, JavaVirtualMachine.systemLoad()));
-
-            String percent = String.format("%d%%", (int) load * 100);
-            if (load >= 0.75 || tasks > QUEUE_CAPACITY) {
-                if (load >= 0.75) {
-                    systemOverloaded.set(true);
-                    queued.forEach((task) -> task.cancel(false));
-                }
-
+            if (tasks > QUEUE_CAPACITY) {
                 if (schedulerOverloaded.compareAndSet(false, true)) {
                     logger.send(LogLevel.SEVERE,
-                            "Paused asynchronous scheduler because high system load has been detected. System usage: {0} | Queue capacity: {1}/{2}",
-                            percent, tasks, capacity);
-                }
-            } else {
-                systemOverloaded.set(false);
-                if (schedulerOverloaded.get()) {
-                    if (tasks <= Math.max(0, capacity - 10)) {
-                        schedulerOverloaded.set(false);
-                        logger.send(LogLevel.SUCCESS, "Resumed asynchronous scheduler. System usage: {0} | Queue capacity: {1}/{2}", percent, tasks, capacity);
-                    }
+                            "Paused asynchronous scheduler because its queue is full. Concurrency limit: {0} | Queue capacity: {1}/{2}",
+                            limiter.getLimit(), tasks, capacity);
                 }
+            } else if (schedulerOverloaded.get() && tasks <= Math.max(0, capacity - 10)) {
+                schedulerOverloaded.set(false);
+                logger.send(LogLevel.SUCCESS, "Resumed asynchronous scheduler. Concurrency limit: {0} | Queue capacity: {1}/{2}",
+                        limiter.getLimit(), tasks, capacity);
             }
 
-            if (!overloadQueue.isEmpty() && !schedulerOverloaded.get()) {
-                int sub = overloadQueue.size();
-                if (sub >= 90) {
-                    int max = 90;
-                    for (int i = 0; i < max && !overloadQueue.isEmpty(); i++) {
-                        SpigotTask task = overloadQueue.poll();
-                        if (task != null) taskQue.add(task);
-                    }
-                }
-            }
+            dispatch();
         }, 0, 1000, TimeUnit.MILLISECONDS);
     }
 
@@ -182,12 +120,159 @@ public class SpigotTaskScheduler implements TaskScheduler {
      */
     @Override
     public SpigotTask schedule(final Runnable task) {
-        SpigotTask sTask = new SpigotTask(task, SpigotTaskScheduler.class);
-        taskQue.add(sTask);
+        return schedule(CallerResolver.resolve(task), task);
+    }
+
+    /**
+     * Schedule a task for the specified owner
+     *
+     * @param owner the task owner
+     * @param task the task to schedule
+     * @return the scheduled task
+     */
+    @Override
+    public SpigotTask schedule(final Class<?> owner, final Runnable task) {
+        SpigotTask sTask = new SpigotTask(task, (owner != null ? owner : SpigotTaskScheduler.class));
+        recorder.submitted(sTask.owner());
+        liveTasks.put(sTask.id(), sTask);
+        sTask.setCancelHandler(() -> discard(sTask));
+
+        if (schedulerOverloaded.get()) {
+            recorder.rejected(sTask.owner());
+            defer(sTask);
+        } else {
+            enqueue(sTask);
+            dispatch();
+        }
 
         return sTask;
     }
 
+    /**
+     * Get the concurrency limiter, which decides
+     * how many tasks may run at the same time
+     *
+     * @return the scheduler limiter
+     */
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Hand the queued tasks to the server scheduler
+     * while the limiter has free permits. The limiter permits
+     * are held until the task has run on the server scheduler,
+     * while the owner permits are released once the task has been
+     * handed to it
+     */
+    private void dispatch() {
+        while (!schedulerOverloaded.get() && taskQue.size() == 0 && deferredTasks.get() > 0) {
+            SpigotTask deferred = overloadQueue.pollFirst();
+            if (deferred == null) break;
+
+            deferredTasks.decrementAndGet();
+            enqueue(deferred);
+        }
+
+        while (taskQue.size() > 0 && limiter.tryAcquire()) {
+            SpigotTask next = taskQue.poll();
+            if (next == null) {
+                limiter.release();
+                return;
+            }
+
+            if (next.cancelled()) {
+                taskQue.release(next.owner());
+                limiter.release();
+                liveTasks.remove(next.id());
+                cancelledTasks.addAndGet(1);
+                recorder.cancelled(next.owner());
+                continue;
+            }
+
+            SpigotTask task = next;
+            Runnable runner = () -> {
+                long start = System.nanoTime();
+                boolean ran = false;
+                boolean failed = false;
+                try {
+                    ran = task.execute();
+                } catch (Throwable ex) {
+                    failed = true;
+                    ExceptionCollector.catchException(SpigotTaskScheduler.class, ex);
+                } finally {
+                    long end = System.nanoTime();
+                    liveTasks.remove(task.id());
+
+                    if (failed) {
+                        recorder.ran(task.owner(), start - task.queuedAt(), end - start, true);
+                        limiter.releaseFailed();
+                    } else if (ran) {
+                        completedTasks.addAndGet(1);
+                        recorder.ran(task.owner(), start - task.queuedAt(), end - start, false);
+                        limiter.release(start - task.queuedAt(), end - start);
+                    } else {
+                        cancelledTasks.addAndGet(1); //Cancelled after leaving the queue
+                        recorder.cancelled(task.owner());
+                        limiter.release();
+                    }
+
+                    dispatch();
+                }
+            };
+
+            try {
+                if (task.isSynchronous()) {
+                    schedulerSource.getServer().getScheduler().runTask(schedulerSource, runner);
+                } else {
+                    schedulerSource.getServer().getScheduler().runTaskAsynchronously(schedulerSource, runner);
+                }
+            } catch (RuntimeException ex) {
+                taskQue.release(task.owner());
+                limiter.release();
+                enqueue(task);
+                ExceptionCollector.catchException(SpigotTaskScheduler.class, ex);
+                return;
+            }
+
+            taskQue.release(task.owner());
+        }
+    }
+
+    /**
+     * Remove a cancelled task from the
+     * queues
+     *
+     * @param task the task
+     */
+    private void discard(final SpigotTask task) {
+        if (dequeue(task) || undefer(task)) {
+            liveTasks.remove(task.id());
+            cancelledTasks.addAndGet(1);
+            recorder.cancelled(task.owner());
+        }
+    }
+
+    private void defer(final SpigotTask task) {
+        overloadQueue.add(task);
+        deferredTasks.incrementAndGet();
+    }
+
+    private boolean undefer(final SpigotTask task) {
+        if (!overloadQueue.remove(task)) return false;
+
+        deferredTasks.decrementAndGet();
+        return true;
+    }
+
+    private void enqueue(final SpigotTask task) {
+        taskQue.add(task);
+    }
+
+    private boolean dequeue(final SpigotTask task) {
+        return taskQue.remove(task);
+    }
+
     /**
      * Get a scheduled task
      *
@@ -196,15 +281,7 @@ public class SpigotTaskScheduler implements TaskScheduler {
      */
     @Override
     public @Nullable SpigotTask getTask(final int id) {
-        SpigotTask task = null;
-        for (SpigotTask queuedTask : taskQue) {
-            if (queuedTask.id() == id) {
-                task = queuedTask;
-                break;
-            }
-        }
-
-        return task;
+        return liveTasks.get(id);
     }
 
     /**
@@ -235,7 +312,7 @@ public class SpigotTaskScheduler implements TaskScheduler {
      */
     @Override
     public int overloadSize() {
-        return overloadQueue.size();
+        return deferredTasks.get();
     }
 
     /**
@@ -256,7 +333,7 @@ public class SpigotTaskScheduler implements TaskScheduler {
      */
     @Override
     public boolean overloaded() {
-        return systemOverloaded.get();
+        return limiter.isThrottling();
     }
 
     /**
@@ -278,4 +355,14 @@ public class SpigotTaskScheduler implements TaskScheduler {
     public int cancelled() {
         return cancelledTasks.get();
     }
+
+    /**
+     * Get a snapshot of the scheduler metrics
+     *
+     * @return the scheduler metrics
+     */
+    @Override
+    public SchedulerMetrics metrics() {
+        return recorder.snapshot();
+    }
 }
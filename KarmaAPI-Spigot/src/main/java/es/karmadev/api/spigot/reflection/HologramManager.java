@@ -61,64 +61,64 @@ public abstract class HologramManager {
         if (!(engine instanceof JsonDatabase)) return rId;
 
         JsonDatabase database = (JsonDatabase) engine;
-        JsonConnection connection = database.grabConnection("holograms" + File.pathSeparator + id.toString().replace("-", ""));
-
-        JsonConnection textLines = connection.createTable("text");
-        JsonConnection itemLines = connection.createTable("items");
-
-        int latestIndex = 0;
-        for (HologramLine line : hologram) {
-            int index = hologram.indexOf(line);
-            String indexName = String.valueOf(index);
-            latestIndex = Math.max(latestIndex, index);
-
-            if (line instanceof ItemHolderLine) {
-                ItemHolderLine item = (ItemHolderLine) line;
-
-                if (textLines.hasTable(indexName)) textLines.removeTable(indexName);
-                JsonConnection itemTable = itemLines.createTable(indexName);
-
-                ItemStack stack = item.item();
-                itemTable.set("item", stack.serialize());
-                itemTable.set("world", item.world().getUID().toString());
-                itemTable.set("x", item.x());
-                itemTable.set("y", item.y());
-                itemTable.set("z", item.z());
-                itemTable.set("height", item.height());
-                itemTable.set("touchable", item.isTouchable());
+        try (JsonConnection connection = database.grabConnection("holograms" + File.pathSeparator + id.toString().replace("-", ""))) {
+            JsonConnection textLines = connection.createTable("text");
+            JsonConnection itemLines = connection.createTable("items");
+
+            int latestIndex = 0;
+            for (HologramLine line : hologram) {
+                int index = hologram.indexOf(line);
+                String indexName = String.valueOf(index);
+                latestIndex = Math.max(latestIndex, index);
+
+                if (line instanceof ItemHolderLine) {
+                    ItemHolderLine item = (ItemHolderLine) line;
+
+                    if (textLines.hasTable(indexName)) textLines.removeTable(indexName);
+                    JsonConnection itemTable = itemLines.createTable(indexName);
+
+                    ItemStack stack = item.item();
+                    itemTable.set("item", stack.serialize());
+                    itemTable.set("world", item.world().getUID().toString());
+                    itemTable.set("x", item.x());
+                    itemTable.set("y", item.y());
+                    itemTable.set("z", item.z());
+                    itemTable.set("height", item.height());
+                    itemTable.set("touchable", item.isTouchable());
+                }
+
+                if (line instanceof TextHolderLine) {
+                    TextHolderLine text = (TextHolderLine) line;
+
+                    if (itemLines.hasTable(indexName)) itemLines.removeTable(indexName);
+                    JsonConnection textTable = textLines.createTable(indexName);
+
+                    textTable.set("text", text.getText());
+                    textTable.set("world", text.world().getUID().toString());
+                    textTable.set("x", text.x());
+                    textTable.set("y", text.y());
+                    textTable.set("z", text.z());
+                    textTable.set("height", text.height());
+                    textTable.set("touchable", text.isTouchable());
+                }
             }
 
-            if (line instanceof TextHolderLine) {
-                TextHolderLine text = (TextHolderLine) line;
-
-                if (itemLines.hasTable(indexName)) itemLines.removeTable(indexName);
-                JsonConnection textTable = textLines.createTable(indexName);
-
-                textTable.set("text", text.getText());
-                textTable.set("world", text.world().getUID().toString());
-                textTable.set("x", text.x());
-                textTable.set("y", text.y());
-                textTable.set("z", text.z());
-                textTable.set("height", text.height());
-                textTable.set("touchable", text.isTouchable());
+            for (String key : itemLines.getKeys()) {
+                try {
+                    int index = Integer.parseInt(key);
+                    if (index > latestIndex && itemLines.getType(key).equals("table")) itemLines.removeTable(key);
+                } catch (NumberFormatException ignored) {}
+            }
+            for (String key : textLines.getKeys()) {
+                try {
+                    int index = Integer.parseInt(key);
+                    if (index > latestIndex && textLines.getType(key).equals("table")) textLines.removeTable(key);
+                } catch (NumberFormatException ignored) {}
             }
-        }
 
-        for (String key : itemLines.getKeys()) {
-            try {
-                int index = Integer.parseInt(key);
-                if (index > latestIndex && itemLines.getType(key).equals("table")) itemLines.removeTable(key);
-            } catch (NumberFormatException ignored) {}
-        }
-        for (String key : textLines.getKeys()) {
-            try {
-                int index = Integer.parseInt(key);
-                if (index > latestIndex && textLines.getType(key).equals("table")) textLines.removeTable(key);
-            } catch (NumberFormatException ignored) {}
+            connection.save();
+            return id;
         }
-
-        connection.save();
-        return id;
     }
 
     /**